@@ -0,0 +1,28 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line, with the GC profiler
+ * always on so every result comes with allocated bytes per operation
+ * (gc.alloc.rate.norm) and GC counts and times.
+ */
+public class BenchmarkMain {
+
+  /**
+   * Main method.
+   *
+   * @param args JMH options, e.g. "HashTable -p size=1000,1000000 -p distribution=ZIPFIAN"
+   */
+  public static void main(String[] args) throws Exception {
+    Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import binomialheap.BinomialHeap;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BinomialHeap against PriorityQueue in steady state: the heap holds size keys and
+ * every insert of a lookup key is followed by an extractMin. The distribution
+ * decides which keys come in, SEQUENTIAL inserts every key again after it left.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BinomialHeapBenchmark {
+
+  public static class BinomialHeapState extends Workload {
+    BinomialHeap heap;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      heap = new BinomialHeap();
+      for (int key : insertionOrder) {
+        heap.insert(key);
+      }
+    }
+  }
+
+  public static class PriorityQueueState extends Workload {
+    PriorityQueue<Integer> queue;
+    Integer[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      queue = new PriorityQueue<Integer>(size + 1);
+      for (int key : insertionOrder) {
+        queue.offer(key);
+      }
+      keys = new Integer[lookups.length];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = lookups[i];
+      }
+    }
+  }
+
+  @Benchmark
+  public int binomialHeapInsertExtractMin(BinomialHeapState state) {
+    state.heap.insert(state.lookups[state.nextIndex()]);
+    return state.heap.extractMin().getKey();
+  }
+
+  @Benchmark
+  public Integer priorityQueueOfferPoll(PriorityQueueState state) {
+    state.queue.offer(state.keys[state.nextIndex()]);
+    return state.queue.poll();
+  }
+}
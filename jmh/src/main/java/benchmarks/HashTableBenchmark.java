@@ -0,0 +1,87 @@
+package benchmarks;
+
+import hashtable.HashTable;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HashTable against HashMap: find, and delete followed by insert of the same key so
+ * the size stays put. Keys are the decimal strings of the workload's ints,
+ * prebuilt so the benchmark doesn't measure Integer.toString.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HashTableBenchmark {
+
+  private static String[] strings(int[] keys) {
+    String[] strings = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      strings[i] = Integer.toString(keys[i]);
+    }
+    return strings;
+  }
+
+  public static class HashTableState extends Workload {
+    HashTable table;
+    String[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      table = new HashTable();
+      for (String key : strings(insertionOrder)) {
+        table.insert(key, 1);
+      }
+      keys = strings(lookups);
+    }
+  }
+
+  public static class HashMapState extends Workload {
+    HashMap<String, Integer> map;
+    String[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      map = new HashMap<String, Integer>();
+      for (String key : strings(insertionOrder)) {
+        map.put(key, 1);
+      }
+      keys = strings(lookups);
+    }
+  }
+
+  @Benchmark
+  public HashTable.Node hashTableFind(HashTableState state) {
+    return state.table.find(state.keys[state.nextIndex()]);
+  }
+
+  //insert returns nothing, the result of delete keeps the work observable
+  @Benchmark
+  public boolean hashTableDeleteInsert(HashTableState state) {
+    String key = state.keys[state.nextIndex()];
+    boolean deleted = state.table.delete(key);
+    state.table.insert(key, 1);
+    return deleted;
+  }
+
+  @Benchmark
+  public Integer hashMapGet(HashMapState state) {
+    return state.map.get(state.keys[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public Integer hashMapRemovePut(HashMapState state) {
+    String key = state.keys[state.nextIndex()];
+    state.map.remove(key);
+    return state.map.put(key, 1);
+  }
+}
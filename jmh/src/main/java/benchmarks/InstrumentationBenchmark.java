@@ -0,0 +1,117 @@
+package benchmarks;
+
+import hashtable.HashTable;
+import java.util.concurrent.TimeUnit;
+import metrics.Instrumentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rbtree.RBTree;
+import skiplist.SkipList;
+
+/**
+ * Cost of the hot-path instrumentation: the instrumented operation of every structure
+ * with the switch off and on. The structure benchmarks run with it off, comparing
+ * them against a build without instrumentation gives the cost of the disabled check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InstrumentationBenchmark {
+
+  public static class HashTableState extends HashTableBenchmark.HashTableState {
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Setup(Level.Trial)
+    public void enable() {
+      Instrumentation.setEnabled(instrumented);
+    }
+
+    @TearDown(Level.Trial)
+    public void disable() {
+      Instrumentation.setEnabled(false);
+    }
+  }
+
+  public static class SkipListState extends SkipListBenchmark.SkipListState {
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Setup(Level.Trial)
+    public void enable() {
+      Instrumentation.setEnabled(instrumented);
+    }
+
+    @TearDown(Level.Trial)
+    public void disable() {
+      Instrumentation.setEnabled(false);
+    }
+  }
+
+  public static class RBTreeState extends RBTreeBenchmark.RBTreeState {
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Setup(Level.Trial)
+    public void enable() {
+      Instrumentation.setEnabled(instrumented);
+    }
+
+    @TearDown(Level.Trial)
+    public void disable() {
+      Instrumentation.setEnabled(false);
+    }
+  }
+
+  public static class BinomialHeapState extends BinomialHeapBenchmark.BinomialHeapState {
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Setup(Level.Trial)
+    public void enable() {
+      Instrumentation.setEnabled(instrumented);
+    }
+
+    @TearDown(Level.Trial)
+    public void disable() {
+      Instrumentation.setEnabled(false);
+    }
+  }
+
+  @Benchmark
+  public HashTable.Node hashTableFind(HashTableState state) {
+    return state.table.find(state.keys[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public SkipList.Node skipListSearch(SkipListState state) {
+    return state.list.search(state.lookups[state.nextIndex()]);
+  }
+
+  //rotations, recolors and the height fixups
+  @Benchmark
+  public RBTree.RBTNode<Integer> rbTreeDeleteInsert(RBTreeState state) {
+    Integer key = state.keys[state.nextIndex()];
+    state.tree.delete(state.tree.search(state.tree.getRoot(), key));
+    RBTree.RBTNode<Integer> node = new RBTree.RBTNode<Integer>(key, false, null, null, null);
+    state.tree.insert(node);
+    return node;
+  }
+
+  @Benchmark
+  public int binomialHeapInsertExtractMin(BinomialHeapState state) {
+    state.heap.insert(state.lookups[state.nextIndex()]);
+    return state.heap.extractMin().getKey();
+  }
+}
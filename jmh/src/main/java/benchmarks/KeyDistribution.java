@@ -0,0 +1,129 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Order in which a benchmark inserts and looks up its keys. The keys themselves are
+ * size distinct ints: 0 to size - 1 for SEQUENTIAL, the same indices scrambled by a
+ * bijective mix for the others so neighbours in index aren't neighbours in key.
+ */
+public enum KeyDistribution {
+  /**
+   * Keys inserted and looked up in ascending order.
+   */
+  SEQUENTIAL,
+  /**
+   * Keys inserted in random order and looked up uniformly.
+   */
+  UNIFORM,
+  /**
+   * Keys inserted in random order and looked up with Zipfian skew, theta 0.99 as
+   * in YCSB, the hot keys are spread over the key space.
+   */
+  ZIPFIAN;
+
+  private static final double THETA = 0.99;
+
+  /**
+   * Get the key of an index.
+   *
+   * @param index index from 0 to size - 1
+   * @return distinct key of index
+   */
+  public int key(int index) {
+    if (this == SEQUENTIAL) {
+      return index;
+    }
+    //murmur3 finalizer, a bijection on ints
+    int h = index;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Get the keys of all indices in insertion order.
+   *
+   * @param size number of keys
+   * @param seed seed of the shuffle
+   * @return keys
+   */
+  public int[] insertionOrder(int size, long seed) {
+    int[] keys = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = key(i);
+    }
+    if (this != SEQUENTIAL) {
+      SplittableRandom random = new SplittableRandom(seed);
+      for (int i = size - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        int tmp = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tmp;
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Get a sequence of lookups into keys 0 to size - 1.
+   *
+   * @param size   number of keys
+   * @param length number of lookups, a power of two so benchmarks can wrap with a mask
+   * @param seed   seed of the random draws
+   * @return keys to look up, all present among the first size keys
+   */
+  public int[] lookups(int size, int length, long seed) {
+    int[] keys = new int[length];
+    SplittableRandom random = new SplittableRandom(seed);
+    switch (this) {
+      case SEQUENTIAL:
+        for (int i = 0; i < length; i++) {
+          keys[i] = key(i % size);
+        }
+        break;
+      case UNIFORM:
+        for (int i = 0; i < length; i++) {
+          keys[i] = key(random.nextInt(size));
+        }
+        break;
+      default:
+        //Gray et al., "Quickly generating billion-record synthetic databases"
+        double zetaN = zeta(size);
+        double alpha = 1 / (1 - THETA);
+        double eta = (1 - Math.pow(2.0 / size, 1 - THETA)) / (1 - zeta(2) / zetaN);
+        for (int i = 0; i < length; i++) {
+          double u = random.nextDouble();
+          double uz = u * zetaN;
+          int rank;
+          if (uz < 1) {
+            rank = 0;
+          } else if (uz < 1 + Math.pow(0.5, THETA)) {
+            rank = 1;
+          } else {
+            rank = (int) (size * Math.pow(eta * u - eta + 1, alpha));
+          }
+          //rank i is the i-th hottest key, a random index so hot keys are scattered
+          keys[i] = key(scatter(Math.min(rank, size - 1), size));
+        }
+        break;
+    }
+    return keys;
+  }
+
+  private static double zeta(int n) {
+    double sum = 0;
+    for (int i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, THETA);
+    }
+    return sum;
+  }
+
+  //fixed map of ranks to indices, consecutive ranks land far apart
+  private static int scatter(int rank, int size) {
+    return (int) ((rank * 0x9E3779B97F4A7C15L >>> 1) % size);
+  }
+}
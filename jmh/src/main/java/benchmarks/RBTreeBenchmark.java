@@ -0,0 +1,86 @@
+package benchmarks;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import rbtree.RBTree;
+
+/**
+ * RBTree against TreeMap: search, and delete followed by insert of the same key.
+ * Both sides get boxed keys prebuilt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RBTreeBenchmark {
+
+  private static Integer[] boxed(int[] keys) {
+    Integer[] boxed = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      boxed[i] = keys[i];
+    }
+    return boxed;
+  }
+
+  public static class RBTreeState extends Workload {
+    RBTree<Integer> tree;
+    Integer[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      tree = new RBTree<Integer>();
+      for (Integer key : boxed(insertionOrder)) {
+        tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+      }
+      keys = boxed(lookups);
+    }
+  }
+
+  public static class TreeMapState extends Workload {
+    TreeMap<Integer, Integer> map;
+    Integer[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      map = new TreeMap<Integer, Integer>();
+      for (Integer key : boxed(insertionOrder)) {
+        map.put(key, key);
+      }
+      keys = boxed(lookups);
+    }
+  }
+
+  @Benchmark
+  public RBTree.RBTNode<Integer> rbTreeSearch(RBTreeState state) {
+    return state.tree.search(state.tree.getRoot(), state.keys[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public RBTree.RBTNode<Integer> rbTreeDeleteInsert(RBTreeState state) {
+    Integer key = state.keys[state.nextIndex()];
+    state.tree.delete(state.tree.search(state.tree.getRoot(), key));
+    RBTree.RBTNode<Integer> node = new RBTree.RBTNode<Integer>(key, false, null, null, null);
+    state.tree.insert(node);
+    return node;
+  }
+
+  @Benchmark
+  public Integer treeMapGet(TreeMapState state) {
+    return state.map.get(state.keys[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public Integer treeMapRemovePut(TreeMapState state) {
+    Integer key = state.keys[state.nextIndex()];
+    state.map.remove(key);
+    return state.map.put(key, key);
+  }
+}
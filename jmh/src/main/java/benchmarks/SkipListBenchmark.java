@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import skiplist.SkipList;
+
+/**
+ * SkipList against ConcurrentSkipListSet: search, and delete followed by insert of
+ * the same key. The set gets boxed keys prebuilt, so both sides allocate only
+ * their nodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SkipListBenchmark {
+
+  public static class SkipListState extends Workload {
+    SkipList list;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      list = new SkipList();
+      for (int key : insertionOrder) {
+        list.insert(key);
+      }
+    }
+  }
+
+  public static class SkipListSetState extends Workload {
+    ConcurrentSkipListSet<Integer> set;
+    Integer[] keys;
+
+    @Override
+    protected void build(int[] insertionOrder) {
+      set = new ConcurrentSkipListSet<Integer>();
+      for (int key : insertionOrder) {
+        set.add(key);
+      }
+      keys = new Integer[lookups.length];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = lookups[i];
+      }
+    }
+  }
+
+  @Benchmark
+  public SkipList.Node skipListSearch(SkipListState state) {
+    return state.list.search(state.lookups[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public boolean skipListDeleteInsert(SkipListState state) {
+    int key = state.lookups[state.nextIndex()];
+    state.list.delete(key);
+    return state.list.insert(key);
+  }
+
+  @Benchmark
+  public boolean skipListSetContains(SkipListSetState state) {
+    return state.set.contains(state.keys[state.nextIndex()]);
+  }
+
+  @Benchmark
+  public boolean skipListSetRemoveAdd(SkipListSetState state) {
+    Integer key = state.keys[state.nextIndex()];
+    state.set.remove(key);
+    return state.set.add(key);
+  }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parameters and keys shared by the benchmarks. Every structure and its JDK
+ * baseline gets its own subclass, so a trial only builds the structure it measures.
+ * The structure is filled with size keys in insertion order during setup, the
+ * benchmark methods then walk the precomputed lookups, which all hit.
+ */
+@State(Scope.Thread)
+public abstract class Workload {
+
+  //a power of two, nextIndex wraps with a mask
+  static final int LOOKUPS = 1 << 20;
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int size;
+
+  @Param({"UNIFORM", "ZIPFIAN", "SEQUENTIAL"})
+  public KeyDistribution distribution;
+
+  protected int[] lookups;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    lookups = distribution.lookups(size, LOOKUPS, 42);
+    build(distribution.insertionOrder(size, 7));
+  }
+
+  /**
+   * Fill the structure, lookups are already set.
+   *
+   * @param keys size distinct keys in insertion order
+   */
+  protected abstract void build(int[] keys);
+
+  /**
+   * Get the next position in lookups.
+   *
+   * @return index into lookups
+   */
+  protected int nextIndex() {
+    return next++ & (LOOKUPS - 1);
+  }
+}
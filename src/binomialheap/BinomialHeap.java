@@ -1,13 +1,60 @@
 package binomialheap;
 
 import java.util.Scanner;
+import metrics.Instrumentation;
 
 /**
  * Binomial heap class.
+ * In lazy mode, insert only prepends a one-node tree to the root list in O(1), trees
+ * of equal degree are linked by a degree-indexed array during extractMin and delete.
  */
 public class BinomialHeap {
 
+  //upper bound of degrees, a tree of degree k has 2^k nodes
+  private static final int MAX_DEGREE = Integer.SIZE;
+
   private BinomialNode head;
+  //root with the minimum key, kept up to date by every operation
+  private BinomialNode minNode;
+  //consolidate only on extractMin and delete
+  private final boolean lazy;
+  private int size;
+  //estimated bytes of a node and its handle with compressed references
+  private static final int ENTRY_BYTES = 64;
+  //recorded while instrumentation is enabled
+  private long links;
+  private long consolidations;
+
+  /**
+   * Handle returned by insert, it stays valid while its key moves inside the heap.
+   */
+  public static final class Handle {
+    private int key;
+    //node that currently holds the key, null once removed from the heap
+    private BinomialNode node;
+
+    private Handle(int key) {
+      this.key = key;
+    }
+
+    public int getKey() {
+      return key;
+    }
+
+    /**
+     * Check if the key is still in the heap.
+     *
+     * @return false after the key was extracted or deleted
+     */
+    public boolean isInHeap() {
+      return node != null;
+    }
+
+    @Override
+    public String toString() {
+      return "key = " + key;
+    }
+  }
 
   /**
    * BinomialNode class that represents the node in binomial heap.
@@ -18,6 +65,8 @@ public class BinomialHeap {
     BinomialNode child;
     BinomialNode parent;
     BinomialNode next;
+    //handle of the key held by this node
+    Handle handle;
     /**
      * Node constructor.
      *
@@ -29,6 +78,8 @@ public class BinomialHeap {
       child = null;
       parent = null;
       next = null;
+      handle = new Handle(key);
+      handle.node = this;
     }
 
     @Override
@@ -41,7 +92,147 @@ public class BinomialHeap {
    * BinomialHeap constructor.
    */
   public BinomialHeap() {
+    this(false);
+  }
+
+  /**
+   * BinomialHeap constructor.
+   *
+   * @param lazy insert in O(1), link trees only on extractMin and delete
+   */
+  public BinomialHeap(boolean lazy) {
     head = null;
+    minNode = null;
+    this.lazy = lazy;
+  }
+
+  public boolean isLazy() {
+    return lazy;
+  }
+
+  /**
+   * Get the number of keys in O(1).
+   *
+   * @return keys
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Count the roots by walking the root list.
+   *
+   * @return roots
+   */
+  public int rootListLength() {
+    int length = 0;
+    for (BinomialNode root = head; root != null; root = root.next) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Get the number of trees linked under another root by union and consolidate,
+   * recorded while instrumentation is enabled.
+   *
+   * @return links
+   */
+  public long getLinks() {
+    return links;
+  }
+
+  /**
+   * Get the number of unions and consolidations, recorded while instrumentation is
+   * enabled.
+   *
+   * @return consolidations
+   */
+  public long getConsolidations() {
+    return consolidations;
+  }
+
+  /**
+   * Estimate the bytes per key of a node and its handle with compressed references.
+   *
+   * @return bytes per key
+   */
+  public double estimatedBytesPerEntry() {
+    return ENTRY_BYTES;
+  }
+
+  /**
+   * Build an eager heap from keys in O(n).
+   *
+   * @param keys keys, duplicates allowed
+   * @return heap
+   */
+  public static BinomialHeap of(int[] keys) {
+    return of(keys, false);
+  }
+
+  /**
+   * Build a heap from keys in O(n). Linking one-node trees through the degree array
+   * works like incrementing a binary counter n times, which is O(n) in total, and
+   * leaves one tree per set bit of n.
+   *
+   * @param keys keys, duplicates allowed
+   * @param lazy mode of the heap
+   * @return heap
+   */
+  public static BinomialHeap of(int[] keys, boolean lazy) {
+    BinomialHeap heap = new BinomialHeap(lazy);
+    for (int i = keys.length - 1; i >= 0; i--) {
+      BinomialNode node = new BinomialNode(keys[i]);
+      node.next = heap.head;
+      heap.head = node;
+    }
+    heap.consolidate();
+    heap.updateMinimum();
+    heap.size = keys.length;
+    return heap;
+  }
+
+  /**
+   * Move all keys of other into this heap, other becomes empty and its handles
+   * stay valid in this heap.
+   * An eager heap unions the root lists in O(log n). A lazy heap appends the root
+   * list of other, walking it once, the roots are linked on the next extractMin.
+   *
+   * @param other another heap
+   */
+  public void meld(BinomialHeap other) {
+    if (other == this) {
+      throw new IllegalArgumentException("Can't meld a heap with itself");
+    }
+    if (other.head == null) {
+      return;
+    }
+    if (lazy) {
+      BinomialNode last = other.head;
+      while (last.next != null) {
+        last = last.next;
+      }
+      last.next = head;
+      head = other.head;
+    } else {
+      if (other.lazy) {
+        //union needs roots with distinct degrees
+        other.consolidate();
+      }
+      head = union(head, other.head);
+    }
+    if (minNode == null || other.minNode.key < minNode.key) {
+      minNode = other.minNode;
+    }
+    //union may link the minimum under an equal root
+    if (minNode.parent != null) {
+      updateMinimum();
+    }
+    size += other.size;
+    other.head = null;
+    other.minNode = null;
+    other.size = 0;
   }
 
   /**
@@ -113,6 +304,9 @@ public class BinomialHeap {
     child.next = root.child;
     root.child = child;
     root.degree++;
+    if (Instrumentation.isEnabled()) {
+      links++;
+    }
   }
 
   /**
@@ -122,7 +316,10 @@ public class BinomialHeap {
    * @param heapRoot2 root of heap2
    * @return the root of new heap.
    */
-  public BinomialNode union(BinomialNode heapRoot1, BinomialNode heapRoot2) {
+  private BinomialNode union(BinomialNode heapRoot1, BinomialNode heapRoot2) {
+    if (Instrumentation.isEnabled()) {
+      consolidations++;
+    }
     //merge two root lists by ascending order(root degree)
     BinomialNode root = merge(heapRoot1, heapRoot2);
     if (root == null) {
@@ -171,55 +368,54 @@ public class BinomialHeap {
 
 
   /**
-   * Insert a new node using the given key.
+   * Insert a new node using the given key, the same key can be inserted more than once.
    *
    * @param key key
+   * @return handle for decreaseKey and delete
    */
-  public void insert(int key) {
-    if (contains(key)) {
-      System.out.println("Key already exists");
-      return;
+  public Handle insert(int key) {
+    BinomialNode newHeap = new BinomialNode(key);
+    size++;
+    if (minNode == null || key < minNode.key) {
+      minNode = newHeap;
+    }
+    if (lazy) {
+      //prepend to the root list, roots are linked on the next extractMin
+      newHeap.next = head;
+      head = newHeap;
+      return newHeap.handle;
     }
-    //BinomialNode insertNode = new BinomialNode(key);
-    BinomialNode newHeap = makeHeap(key);
     //use union to insert new node.
     this.head = union(this.head, newHeap);
+    //union may link the old minimum under a smaller root, find it again
+    if (minNode.parent != null) {
+      updateMinimum();
+    }
+    return newHeap.handle;
   }
 
   /**
-   * Make a new binomial heap, which has only one node.
-   * @param key key of new node.
-   * @return head of binomial heap
+   * Get the minimum key in O(1).
+   *
+   * @return handle of the minimum key, null if the heap is empty
    */
-  public BinomialNode makeHeap(int key){
-    BinomialHeap newHeap = new BinomialHeap();
-
-    BinomialNode insertNode = new BinomialNode(key);
-    newHeap.head = insertNode;
-    return newHeap.head;
+  public Handle minimum() {
+    return minNode == null ? null : minNode.handle;
   }
 
   /**
-   * Find the minimum node in binomial heap.
-   *
-   * @return the minimum node.
+   * Find the root with the minimum key by walking the root list.
    */
-  public BinomialNode minimum() {
-    BinomialNode minNode = head;
-    if (head == null) {
-      return null;
-    }
-    int min = head.key;
+  private void updateMinimum() {
+    minNode = head;
     BinomialNode tmp = head;
     //find the minimum node
     while (tmp != null) {
-      if (tmp.key < min) {
-        min = tmp.key;
+      if (tmp.key < minNode.key) {
         minNode = tmp;
       }
       tmp = tmp.next;
     }
-    return minNode;
   }
 
   /**
@@ -257,30 +453,92 @@ public class BinomialHeap {
   /**
    * Find the minimum node and delete it from the binomial heap.
    *
-   * @return return the minimum node
+   * @return handle of the minimum key, null if the heap is empty
    */
-  public BinomialNode extractMin() {
-    BinomialNode minNode = minimum();
+  public Handle extractMin() {
     if (minNode == null) {
       return null;
     }
-    //head is the minimum node, change head
-    if (head == minNode) {
+    return removeRoot(minNode);
+  }
+
+  /**
+   * Remove a root from the root list, its children become roots.
+   *
+   * @param root root node
+   * @return handle of the removed key
+   */
+  private Handle removeRoot(BinomialNode root) {
+    //head is the removed node, change head
+    if (head == root) {
       head = head.next;
     } else {
       BinomialNode prev = head;
-      while (prev.next != minNode) {
+      while (prev.next != root) {
         prev = prev.next;
       }
-      //prev.next == minNode
-      //change the next pointer of previous node of minNode
-      prev.next = minNode.next;
+      //prev.next == root
+      //change the next pointer of previous node of root
+      prev.next = root.next;
     }
 
-    //update the binomial heap
-    head = union(head, reverse(minNode.child));
-    //return minimum node
-    return minNode;
+    if (lazy) {
+      //children become roots in any order, consolidate links them by degree
+      BinomialNode child = root.child;
+      while (child != null) {
+        BinomialNode next = child.next;
+        child.parent = null;
+        child.next = head;
+        head = child;
+        child = next;
+      }
+      consolidate();
+    } else {
+      //update the binomial heap
+      head = union(head, reverse(root.child));
+    }
+    updateMinimum();
+    size--;
+    Handle handle = root.handle;
+    handle.node = null;
+    return handle;
+  }
+
+  /**
+   * Link roots with the same degree until all degrees differ, then rebuild the root
+   * list by ascending degree. One pass over the roots with a degree-indexed array,
+   * instead of sorting the root list for union.
+   */
+  private void consolidate() {
+    if (Instrumentation.isEnabled()) {
+      consolidations++;
+    }
+    BinomialNode[] byDegree = new BinomialNode[MAX_DEGREE];
+    BinomialNode root = head;
+    while (root != null) {
+      BinomialNode next = root.next;
+      root.next = null;
+      //link with the tree of the same degree, carry like binary addition
+      while (byDegree[root.degree] != null) {
+        BinomialNode other = byDegree[root.degree];
+        byDegree[root.degree] = null;
+        if (other.key < root.key) {
+          BinomialNode tmp = root;
+          root = other;
+          other = tmp;
+        }
+        linkChild(other, root);
+      }
+      byDegree[root.degree] = root;
+      root = next;
+    }
+    head = null;
+    for (int degree = MAX_DEGREE - 1; degree >= 0; degree--) {
+      if (byDegree[degree] != null) {
+        byDegree[degree].next = head;
+        head = byDegree[degree];
+      }
+    }
   }
 
   /**
@@ -289,10 +547,23 @@ public class BinomialHeap {
    * @param key key
    */
   public void delete(int key){
-    //decrease key to negative infinity
-    decreaseKey(key,Integer.MIN_VALUE);
-    //extract min
-    extractMin();
+    BinomialNode deleteNode = search(head, key);
+    if (deleteNode == null) {
+      System.out.println("Key doesn't exist.");
+      return;
+    }
+    delete(deleteNode.handle);
+  }
+
+  /**
+   * Delete the key of handle in O(log n).
+   *
+   * @param handle handle returned by insert
+   */
+  public void delete(Handle handle) {
+    checkHandle(handle);
+    //move the key up to root as if it were negative infinity, then remove that root
+    removeRoot(siftUp(handle.node, true));
   }
 
 //  public void delete(int key) {
@@ -350,18 +621,61 @@ public class BinomialHeap {
       System.out.println("Key doesn't exist.");
       return;
     }
-    updatedNode.key = objectKey;
-    BinomialNode child = updatedNode;
+    decreaseKey(updatedNode.handle, objectKey);
+  }
+
+  /**
+   * Decrease the key of handle in O(log n).
+   *
+   * @param handle    handle returned by insert
+   * @param objectKey object key, no bigger than the current one
+   */
+  public void decreaseKey(Handle handle, int objectKey) {
+    checkHandle(handle);
+    if (objectKey > handle.key) {
+      throw new IllegalArgumentException("Updated key is bigger than current key");
+    }
+    handle.key = objectKey;
+    handle.node.key = objectKey;
+    BinomialNode node = siftUp(handle.node, false);
+    if (node.parent == null && node.key < minNode.key) {
+      minNode = node;
+    }
+  }
+
+  /**
+   * Move the key of node upward while it is smaller than its parent's key.
+   * Keys move together with their handles, so every handle keeps pointing to
+   * the node that holds its key.
+   *
+   * @param node  node
+   * @param force move up to the root regardless of keys
+   * @return the node that holds the key at last
+   */
+  private BinomialNode siftUp(BinomialNode node, boolean force) {
+    BinomialNode child = node;
     BinomialNode parent = child.parent;
     //change key between child and parent
-    while (parent != null && child.key < parent.key) {
+    while (parent != null && (force || child.key < parent.key)) {
       int tmp = parent.key;
       parent.key = child.key;
       child.key = tmp;
+      Handle tmpHandle = parent.handle;
+      parent.handle = child.handle;
+      child.handle = tmpHandle;
+      child.handle.node = child;
+      parent.handle.node = parent;
       //move upward
       child = parent;
       parent = child.parent;
     }
+    return child;
+  }
+
+  private void checkHandle(Handle handle) {
+    if (handle == null || handle.node == null) {
+      throw new IllegalArgumentException("Handle is not in the heap");
+    }
   }
 
 
@@ -437,30 +751,17 @@ public class BinomialHeap {
     return null;
   }
 
-  /**
-   * Check if the binomial heap contains given key.
-   *
-   * @param key key
-   * @return true if BH contains key.
-   */
-  private boolean contains(int key) {
-    return search(head, key) != null;
-  }
-
 
   public static void main(String[] args) {
     //int[] numberList = {12, 7, 25, 15, 28, 33, 41};
     int[] numberList = {1,2,3,4,5,6,7};
-    BinomialHeap binomialHeap = new BinomialHeap();
-    //create the binomial heap
-    for (int s : numberList) {
-      binomialHeap.insert(s);
-    }
+    //"lazy" as the first argument starts a lazy heap
+    BinomialHeap binomialHeap = of(numberList, args.length > 0 && args[0].equals("lazy"));
 
     Scanner sc = new Scanner(System.in);
     String input = "";
     int key = 0;
-    BinomialNode tmp;
+    Handle tmp;
     while (true) {
       System.out.println("command: ");
       input = sc.next();
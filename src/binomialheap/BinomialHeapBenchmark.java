@@ -0,0 +1,99 @@
+package binomialheap;
+
+import java.util.Random;
+
+/**
+ * Compare eager and lazy BinomialHeap on bursty producers: bursts of inserts
+ * followed by a few extractMin, then drain the heap. Then compare bulk loading by
+ * BinomialHeap.of with one insert per key, and meld the two heaps.
+ * Run with a fixed heap (e.g. -Xms2g -Xmx2g), otherwise heap resizing dominates the
+ * allocation-bound insert phase.
+ */
+public class BinomialHeapBenchmark {
+
+  //nanoseconds of the burst phase and of the drain phase
+  private static final long[] times = new long[2];
+
+  private static long run(boolean lazy, int[] keys, int burst, int extracts) {
+    BinomialHeap heap = new BinomialHeap(lazy);
+    long checksum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < keys.length; i++) {
+      heap.insert(keys[i]);
+      if (i % burst == burst - 1) {
+        for (int j = 0; j < extracts; j++) {
+          checksum += heap.extractMin().getKey();
+        }
+      }
+    }
+    times[0] = System.nanoTime() - start;
+    start = System.nanoTime();
+    BinomialHeap.Handle min;
+    while ((min = heap.extractMin()) != null) {
+      checksum += min.getKey();
+    }
+    times[1] = System.nanoTime() - start;
+    return checksum;
+  }
+
+  private static int min(int[] keys) {
+    int min = Integer.MAX_VALUE;
+    for (int key : keys) {
+      min = Math.min(min, key);
+    }
+    return min;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of inserts] [inserts per burst] [extracts per burst]
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int burst = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    int extracts = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+    Random random = new Random(42);
+    int[] keys = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = random.nextInt();
+    }
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long start;
+      long eagerChecksum = run(false, keys, burst, extracts);
+      long eagerBurst = times[0];
+      long eagerDrain = times[1];
+      long lazyChecksum = run(true, keys, burst, extracts);
+      if (round == 1) {
+        int operations = n + n / burst * extracts;
+        System.out.println("inserts = " + n + ", burst = " + burst + ", extracts = " + extracts
+                + ", checksums equal = " + (eagerChecksum == lazyChecksum));
+        System.out.println("eager: bursts " + eagerBurst / operations + " ns/op, drain "
+                + eagerDrain / 1_000_000 + " ms");
+        System.out.println("lazy:  bursts " + times[0] / operations + " ns/op, drain "
+                + times[1] / 1_000_000 + " ms");
+      }
+
+      //bulk load by of() against one insert per key, then meld two loaded heaps
+      start = System.nanoTime();
+      BinomialHeap inserted = new BinomialHeap();
+      for (int key : keys) {
+        inserted.insert(key);
+      }
+      long insertTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      BinomialHeap loaded = BinomialHeap.of(keys);
+      long ofTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      loaded.meld(inserted);
+      long meldTime = System.nanoTime() - start;
+      if (round == 1) {
+        System.out.println("insert loop: " + insertTime / 1_000_000 + " ms, of: "
+                + ofTime / 1_000_000 + " ms, meld: " + meldTime / 1_000 + " us, minimum ok = "
+                + (loaded.minimum().getKey() == min(keys)));
+      }
+    }
+  }
+}
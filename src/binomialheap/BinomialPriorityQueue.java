@@ -0,0 +1,394 @@
+package binomialheap;
+
+import java.util.Comparator;
+
+/**
+ * Binomial heap of payloads ordered by a primitive long priority (no boxing),
+ * or by a comparator over the payloads.
+ * Equal priorities are allowed. With FIFO tie-breaking, entries with equal
+ * priority are extracted in insertion order.
+ *
+ * @param <E> payload type
+ */
+public class BinomialPriorityQueue<E> implements PriorityQueueEngine<E> {
+
+  private BinomialNode<E> head;
+  //root with the minimum entry
+  private BinomialNode<E> minNode;
+  private int size;
+  //null: order by priority
+  private final Comparator<? super E> comparator;
+  private final boolean fifo;
+  //insertion counter for FIFO tie-breaking
+  private long sequence;
+
+  /**
+   * Entry returned by insert, it stays valid while it moves inside the heap.
+   *
+   * @param <E> payload type
+   */
+  public static final class Entry<E> implements Handle<E> {
+    private long priority;
+    private final E payload;
+    //renumbered when the entry is melded into another FIFO heap
+    private long sequence;
+    //node that currently holds the entry, null once removed from the heap
+    private BinomialNode<E> node;
+
+    private Entry(long priority, E payload, long sequence) {
+      this.priority = priority;
+      this.payload = payload;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public E getPayload() {
+      return payload;
+    }
+
+    @Override
+    public boolean isInHeap() {
+      return node != null;
+    }
+
+    @Override
+    public String toString() {
+      return "priority = " + priority + ", payload = " + payload;
+    }
+  }
+
+  /**
+   * BinomialNode class that represents the node in binomial heap.
+   */
+  private static final class BinomialNode<E> {
+    Entry<E> entry;
+    int degree;
+    BinomialNode<E> child;
+    BinomialNode<E> parent;
+    BinomialNode<E> next;
+
+    BinomialNode(Entry<E> entry) {
+      this.entry = entry;
+      entry.node = this;
+    }
+  }
+
+  /**
+   * BinomialPriorityQueue constructor, ordered by priority, ties in any order.
+   */
+  public BinomialPriorityQueue() {
+    this(null, false);
+  }
+
+  /**
+   * BinomialPriorityQueue constructor, ordered by priority.
+   *
+   * @param fifo extract equal priorities in insertion order
+   */
+  public BinomialPriorityQueue(boolean fifo) {
+    this(null, fifo);
+  }
+
+  /**
+   * BinomialPriorityQueue constructor.
+   *
+   * @param comparator order of payloads, null to order by priority
+   * @param fifo       extract equal entries in insertion order
+   */
+  public BinomialPriorityQueue(Comparator<? super E> comparator, boolean fifo) {
+    this.comparator = comparator;
+    this.fifo = fifo;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Compare two entries by priority (or comparator), then by insertion order if FIFO.
+   *
+   * @return negative if a comes before b
+   */
+  private int compare(Entry<E> a, Entry<E> b) {
+    int cmp = comparator == null ? Long.compare(a.priority, b.priority)
+            : comparator.compare(a.payload, b.payload);
+    if (cmp == 0 && fifo) {
+      return Long.compare(a.sequence, b.sequence);
+    }
+    return cmp;
+  }
+
+  /**
+   * Insert payload with priority.
+   *
+   * @param priority priority, smaller is extracted first
+   * @param payload  payload
+   * @return entry for decreaseKey and delete
+   */
+  @Override
+  public Entry<E> insert(long priority, E payload) {
+    Entry<E> entry = new Entry<E>(priority, payload, sequence++);
+    BinomialNode<E> node = new BinomialNode<E>(entry);
+    if (minNode == null || compare(entry, minNode.entry) < 0) {
+      minNode = node;
+    }
+    head = union(head, node);
+    //union may link the old minimum under an equal root, find it again
+    if (minNode.parent != null) {
+      updateMinimum();
+    }
+    size++;
+    return entry;
+  }
+
+  /**
+   * Insert payload ordered by the comparator.
+   *
+   * @param payload payload
+   * @return entry for delete
+   */
+  public Entry<E> insert(E payload) {
+    if (comparator == null) {
+      throw new IllegalStateException("No comparator, insert with a priority");
+    }
+    return insert(0, payload);
+  }
+
+  /**
+   * Get the minimum entry in O(1).
+   *
+   * @return minimum entry, null if the heap is empty
+   */
+  @Override
+  public Entry<E> minimum() {
+    return minNode == null ? null : minNode.entry;
+  }
+
+  /**
+   * Remove the minimum entry.
+   *
+   * @return minimum entry, null if the heap is empty
+   */
+  @Override
+  public Entry<E> extractMin() {
+    if (minNode == null) {
+      return null;
+    }
+    return removeRoot(minNode);
+  }
+
+  /**
+   * Decrease the priority of entry in O(log n).
+   *
+   * @param handle   entry returned by insert
+   * @param priority new priority, no bigger than the current one
+   */
+  @Override
+  public void decreaseKey(Handle<E> handle, long priority) {
+    Entry<E> entry = checkEntry(handle);
+    if (comparator != null) {
+      throw new IllegalStateException("Ordered by comparator, priority is not used");
+    }
+    if (priority > entry.priority) {
+      throw new IllegalArgumentException("Updated priority is bigger than current priority");
+    }
+    entry.priority = priority;
+    BinomialNode<E> node = siftUp(entry.node, false);
+    if (node.parent == null && compare(node.entry, minNode.entry) < 0) {
+      minNode = node;
+    }
+  }
+
+  /**
+   * Delete entry in O(log n).
+   *
+   * @param handle entry returned by insert
+   */
+  @Override
+  public void delete(Handle<E> handle) {
+    Entry<E> entry = checkEntry(handle);
+    removeRoot(siftUp(entry.node, true));
+  }
+
+  /**
+   * Move all entries of other into this heap in O(log n), other becomes empty.
+   * With FIFO tie-breaking the entries of other are renumbered in O(m) to come after
+   * the entries of this heap.
+   *
+   * @param other another BinomialPriorityQueue with the same comparator and FIFO mode
+   */
+  @Override
+  public void meld(PriorityQueueEngine<E> other) {
+    if (!(other instanceof BinomialPriorityQueue) || other == this) {
+      throw new IllegalArgumentException("Can only meld another BinomialPriorityQueue");
+    }
+    BinomialPriorityQueue<E> heap = (BinomialPriorityQueue<E>) other;
+    if (heap.comparator != comparator || heap.fifo != fifo) {
+      throw new IllegalArgumentException("Can only meld a queue with the same order");
+    }
+    if (fifo) {
+      //a constant offset keeps the order among the entries of other
+      renumber(heap.head, sequence);
+      sequence += heap.sequence;
+    }
+    head = union(head, heap.head);
+    size += heap.size;
+    updateMinimum();
+    heap.head = null;
+    heap.minNode = null;
+    heap.size = 0;
+  }
+
+  /**
+   * Add offset to the sequence numbers of the entries in node, its siblings and
+   * their subtrees.
+   *
+   * @param node   first node of a root or child list, can be null
+   * @param offset offset
+   */
+  private static <E> void renumber(BinomialNode<E> node, long offset) {
+    for (; node != null; node = node.next) {
+      node.entry.sequence += offset;
+      renumber(node.child, offset);
+    }
+  }
+
+  private Entry<E> checkEntry(Handle<E> handle) {
+    if (!(handle instanceof Entry) || !handle.isInHeap()) {
+      throw new IllegalArgumentException("Entry is not in the heap");
+    }
+    return (Entry<E>) handle;
+  }
+
+  /**
+   * Move the entry of node upward while it comes before its parent's entry.
+   *
+   * @param node  node
+   * @param force move up to the root regardless of order
+   * @return the node that holds the entry at last
+   */
+  private BinomialNode<E> siftUp(BinomialNode<E> node, boolean force) {
+    BinomialNode<E> child = node;
+    BinomialNode<E> parent = child.parent;
+    while (parent != null && (force || compare(child.entry, parent.entry) < 0)) {
+      Entry<E> tmp = parent.entry;
+      parent.entry = child.entry;
+      child.entry = tmp;
+      child.entry.node = child;
+      parent.entry.node = parent;
+      //move upward
+      child = parent;
+      parent = child.parent;
+    }
+    return child;
+  }
+
+  //remove a root from the root list, its children become roots
+  private Entry<E> removeRoot(BinomialNode<E> root) {
+    if (head == root) {
+      head = head.next;
+    } else {
+      BinomialNode<E> prev = head;
+      while (prev.next != root) {
+        prev = prev.next;
+      }
+      prev.next = root.next;
+    }
+    head = union(head, reverse(root.child));
+    updateMinimum();
+    size--;
+    Entry<E> entry = root.entry;
+    entry.node = null;
+    return entry;
+  }
+
+  private void updateMinimum() {
+    minNode = head;
+    for (BinomialNode<E> tmp = head; tmp != null; tmp = tmp.next) {
+      if (compare(tmp.entry, minNode.entry) < 0) {
+        minNode = tmp;
+      }
+    }
+  }
+
+  //reverse the child list of a removed root, children become roots
+  private BinomialNode<E> reverse(BinomialNode<E> root) {
+    BinomialNode<E> prev = null;
+    while (root != null) {
+      BinomialNode<E> next = root.next;
+      root.parent = null;
+      root.next = prev;
+      prev = root;
+      root = next;
+    }
+    return prev;
+  }
+
+  //merge two root lists by ascending degree
+  private BinomialNode<E> merge(BinomialNode<E> root1, BinomialNode<E> root2) {
+    BinomialNode<E> newRoot = null;
+    BinomialNode<E> prev = null;
+    while (root1 != null || root2 != null) {
+      BinomialNode<E> current;
+      if (root2 == null || (root1 != null && root1.degree <= root2.degree)) {
+        current = root1;
+        root1 = root1.next;
+      } else {
+        current = root2;
+        root2 = root2.next;
+      }
+      if (prev == null) {
+        newRoot = current;
+      } else {
+        prev.next = current;
+      }
+      prev = current;
+    }
+    return newRoot;
+  }
+
+  //child becomes the left-most child of root
+  private void linkChild(BinomialNode<E> child, BinomialNode<E> root) {
+    child.parent = root;
+    child.next = root.child;
+    root.child = child;
+    root.degree++;
+  }
+
+  //combine two root lists, link binomial trees with same degree
+  private BinomialNode<E> union(BinomialNode<E> heapRoot1, BinomialNode<E> heapRoot2) {
+    BinomialNode<E> root = merge(heapRoot1, heapRoot2);
+    if (root == null) {
+      return null;
+    }
+    BinomialNode<E> prev = null;
+    BinomialNode<E> current = root;
+    BinomialNode<E> next = current.next;
+    while (next != null) {
+      if ((current.degree != next.degree)
+              || (next.next != null && next.degree == next.next.degree)) {
+        prev = current;
+        current = next;
+      } else if (compare(current.entry, next.entry) <= 0) {
+        current.next = next.next;
+        linkChild(next, current);
+      } else {
+        if (prev == null) {
+          root = next;
+        } else {
+          prev.next = next;
+        }
+        linkChild(current, next);
+        current = next;
+      }
+      next = current.next;
+    }
+    return root;
+  }
+}
@@ -0,0 +1,82 @@
+package binomialheap;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Compare throughput of BinomialPriorityQueue against java.util.PriorityQueue
+ * with payloads and many equal priorities.
+ */
+public class BinomialPriorityQueueBenchmark {
+
+  /**
+   * Task used as the payload, and as the element of PriorityQueue.
+   */
+  private static final class Task implements Comparable<Task> {
+    final long priority;
+    final int id;
+
+    Task(long priority, int id) {
+      this.priority = priority;
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      return Long.compare(priority, other.priority);
+    }
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of operations] [number of distinct priorities]
+   */
+  public static void main(String[] args) {
+    int operations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    int priorities = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    Random random = new Random(42);
+    Task[] tasks = new Task[operations];
+    for (int i = 0; i < operations; i++) {
+      tasks[i] = new Task(random.nextInt(priorities), i);
+    }
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long checksum = 0;
+      long start = System.nanoTime();
+      BinomialPriorityQueue<Task> heap = new BinomialPriorityQueue<Task>(true);
+      for (int i = 0; i < operations; i++) {
+        heap.insert(tasks[i].priority, tasks[i]);
+        //one extract per two inserts, the queue grows to half of the operations
+        if ((i & 1) == 1) {
+          checksum += heap.extractMin().getPayload().id;
+        }
+      }
+      while (!heap.isEmpty()) {
+        checksum += heap.extractMin().getPayload().id;
+      }
+      long heapTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      PriorityQueue<Task> queue = new PriorityQueue<Task>();
+      for (int i = 0; i < operations; i++) {
+        queue.add(tasks[i]);
+        if ((i & 1) == 1) {
+          checksum -= queue.poll().id;
+        }
+      }
+      while (!queue.isEmpty()) {
+        checksum -= queue.poll().id;
+      }
+      long queueTime = System.nanoTime() - start;
+
+      if (round == 1) {
+        System.out.println("operations = " + operations + ", priorities = " + priorities
+                + ", checksum = " + checksum);
+        System.out.println("BinomialPriorityQueue (FIFO): " + heapTime / operations + " ns/op");
+        System.out.println("PriorityQueue:                " + queueTime / operations + " ns/op");
+      }
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package binomialheap;
+
+import java.util.Arrays;
+
+/**
+ * Implicit d-ary heap in arrays, 4-ary by default.
+ * Priorities are kept in a long array next to the handles, so sift-down compares
+ * d contiguous longs (one cache line for d = 4..8) instead of chasing pointers.
+ *
+ * @param <E> payload type
+ */
+public class DaryHeap<E> implements PriorityQueueEngine<E> {
+
+  private static final int DEFAULT_ARITY = 4;
+
+  private final int arity;
+  private long[] priorities;
+  private Node<E>[] nodes;
+  private int size;
+
+  /**
+   * Handle that knows its current index in the arrays.
+   */
+  private static final class Node<E> implements Handle<E> {
+    final E payload;
+    //index in the heap arrays, -1 once removed
+    int index;
+    long priority;
+
+    Node(long priority, E payload, int index) {
+      this.priority = priority;
+      this.payload = payload;
+      this.index = index;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public E getPayload() {
+      return payload;
+    }
+
+    @Override
+    public boolean isInHeap() {
+      return index >= 0;
+    }
+
+    @Override
+    public String toString() {
+      return "priority = " + priority + ", payload = " + payload;
+    }
+  }
+
+  /**
+   * DaryHeap constructor, 4-ary.
+   */
+  public DaryHeap() {
+    this(DEFAULT_ARITY);
+  }
+
+  /**
+   * DaryHeap constructor.
+   *
+   * @param arity number of children per node
+   */
+  public DaryHeap(int arity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("arity < 2");
+    }
+    this.arity = arity;
+    priorities = new long[16];
+    nodes = newNodes(16);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  //generic arrays can't be created, a Node<?> array is cast instead
+  @SuppressWarnings("unchecked")
+  private static <E> Node<E>[] newNodes(int length) {
+    return (Node<E>[]) new Node<?>[length];
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > nodes.length) {
+      int newLength = Math.max(capacity, nodes.length * 2);
+      priorities = Arrays.copyOf(priorities, newLength);
+      nodes = Arrays.copyOf(nodes, newLength);
+    }
+  }
+
+  //put node at index
+  private void place(Node<E> node, int index) {
+    nodes[index] = node;
+    priorities[index] = node.priority;
+    node.index = index;
+  }
+
+  private void siftUp(int index) {
+    Node<E> node = nodes[index];
+    long priority = priorities[index];
+    while (index > 0) {
+      int parent = (index - 1) / arity;
+      if (priorities[parent] <= priority) {
+        break;
+      }
+      place(nodes[parent], index);
+      index = parent;
+    }
+    place(node, index);
+  }
+
+  private void siftDown(int index) {
+    Node<E> node = nodes[index];
+    long priority = priorities[index];
+    while (true) {
+      int first = index * arity + 1;
+      if (first >= size) {
+        break;
+      }
+      //find the smallest child
+      int last = Math.min(first + arity, size);
+      int min = first;
+      for (int i = first + 1; i < last; i++) {
+        if (priorities[i] < priorities[min]) {
+          min = i;
+        }
+      }
+      if (priorities[min] >= priority) {
+        break;
+      }
+      place(nodes[min], index);
+      index = min;
+    }
+    place(node, index);
+  }
+
+  @Override
+  public Handle<E> insert(long priority, E payload) {
+    ensureCapacity(size + 1);
+    Node<E> node = new Node<E>(priority, payload, size);
+    place(node, size++);
+    siftUp(node.index);
+    return node;
+  }
+
+  @Override
+  public Handle<E> minimum() {
+    return size == 0 ? null : nodes[0];
+  }
+
+  @Override
+  public Handle<E> extractMin() {
+    if (size == 0) {
+      return null;
+    }
+    Node<E> min = nodes[0];
+    removeAt(0);
+    return min;
+  }
+
+  //replace index with the last node, then restore heap order
+  private void removeAt(int index) {
+    Node<E> removed = nodes[index];
+    size--;
+    if (index != size) {
+      Node<E> last = nodes[size];
+      place(last, index);
+      siftUp(index);
+      siftDown(last.index);
+    }
+    nodes[size] = null;
+    removed.index = -1;
+  }
+
+  private Node<E> checkHandle(Handle<E> handle) {
+    if (!(handle instanceof DaryHeap.Node) || !handle.isInHeap()) {
+      throw new IllegalArgumentException("Handle is not in the heap");
+    }
+    Node<E> node = (Node<E>) handle;
+    if (node.index >= size || nodes[node.index] != node) {
+      throw new IllegalArgumentException("Handle belongs to another heap");
+    }
+    return node;
+  }
+
+  @Override
+  public void decreaseKey(Handle<E> handle, long priority) {
+    Node<E> node = checkHandle(handle);
+    if (priority > node.priority) {
+      throw new IllegalArgumentException("Updated priority is bigger than current priority");
+    }
+    node.priority = priority;
+    priorities[node.index] = priority;
+    siftUp(node.index);
+  }
+
+  @Override
+  public void delete(Handle<E> handle) {
+    removeAt(checkHandle(handle).index);
+  }
+
+  /**
+   * Append all nodes of other and rebuild the heap bottom-up in O(n + m).
+   *
+   * @param other another DaryHeap
+   */
+  @Override
+  public void meld(PriorityQueueEngine<E> other) {
+    if (!(other instanceof DaryHeap) || other == this) {
+      throw new IllegalArgumentException("Can only meld another DaryHeap");
+    }
+    DaryHeap<E> heap = (DaryHeap<E>) other;
+    ensureCapacity(size + heap.size);
+    for (int i = 0; i < heap.size; i++) {
+      place(heap.nodes[i], size + i);
+      heap.nodes[i] = null;
+    }
+    size += heap.size;
+    heap.size = 0;
+    //parent of the last node, -1 if there's at most one node
+    int lastParent = size > 1 ? (size - 2) / arity : -1;
+    for (int i = lastParent; i >= 0; i--) {
+      siftDown(i);
+    }
+  }
+}
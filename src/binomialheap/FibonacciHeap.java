@@ -0,0 +1,288 @@
+package binomialheap;
+
+/**
+ * Fibonacci heap as in CLRS: a circular root list, lazy insert and meld in O(1),
+ * decreaseKey in O(1) amortized by cascading cuts, extractMin and delete in
+ * O(log n) amortized by consolidating roots of equal degree.
+ *
+ * @param <E> payload type
+ */
+public class FibonacciHeap<E> implements PriorityQueueEngine<E> {
+
+  //max degree is below log_phi(n) < 1.45 * 32
+  private static final int MAX_DEGREE = 48;
+
+  private Node<E> min;
+  private int size;
+
+  /**
+   * Node class that represents priority, payload, parent, child, left and right.
+   * Siblings form a circular doubly linked list.
+   */
+  private static final class Node<E> implements Handle<E> {
+    long priority;
+    final E payload;
+    Node<E> parent;
+    Node<E> child;
+    Node<E> left;
+    Node<E> right;
+    int degree;
+    //lost a child since it became a child itself
+    boolean mark;
+    boolean inHeap;
+
+    Node(long priority, E payload) {
+      this.priority = priority;
+      this.payload = payload;
+      this.left = this;
+      this.right = this;
+      this.inHeap = true;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public E getPayload() {
+      return payload;
+    }
+
+    @Override
+    public boolean isInHeap() {
+      return inHeap;
+    }
+
+    @Override
+    public String toString() {
+      return "priority = " + priority + ", payload = " + payload;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  //insert node into the circular list right after list
+  private void splice(Node<E> list, Node<E> node) {
+    node.left = list;
+    node.right = list.right;
+    list.right.left = node;
+    list.right = node;
+  }
+
+  //remove node from its circular list
+  private void unlink(Node<E> node) {
+    node.left.right = node.right;
+    node.right.left = node.left;
+    node.left = node;
+    node.right = node;
+  }
+
+  //add a detached node to the root list
+  private void addRoot(Node<E> node) {
+    node.parent = null;
+    node.mark = false;
+    if (min == null) {
+      node.left = node;
+      node.right = node;
+      min = node;
+    } else {
+      splice(min, node);
+      if (node.priority < min.priority) {
+        min = node;
+      }
+    }
+  }
+
+  @Override
+  public Handle<E> insert(long priority, E payload) {
+    Node<E> node = new Node<E>(priority, payload);
+    addRoot(node);
+    size++;
+    return node;
+  }
+
+  @Override
+  public Handle<E> minimum() {
+    return min;
+  }
+
+  @Override
+  public Handle<E> extractMin() {
+    Node<E> z = min;
+    if (z == null) {
+      return null;
+    }
+    //children of z become roots
+    Node<E> child = z.child;
+    while (child != null) {
+      Node<E> next = child.right == child ? null : child.right;
+      unlink(child);
+      child.parent = null;
+      child.mark = false;
+      splice(z, child);
+      child = next;
+    }
+    z.child = null;
+    z.degree = 0;
+    if (z.right == z) {
+      min = null;
+    } else {
+      min = z.right;
+      unlink(z);
+      consolidate();
+    }
+    z.inHeap = false;
+    size--;
+    return z;
+  }
+
+  //generic arrays can't be created, a Node<?> array is cast instead
+  @SuppressWarnings("unchecked")
+  private static <E> Node<E>[] newNodes(int length) {
+    return (Node<E>[]) new Node<?>[length];
+  }
+
+  //link roots of equal degree until all roots have distinct degrees
+  private void consolidate() {
+    Node<E>[] byDegree = newNodes(MAX_DEGREE);
+    Node<E> start = min;
+    //detach every root first, the circular list changes while linking
+    int count = 0;
+    Node<E> tmp = start;
+    do {
+      count++;
+      tmp = tmp.right;
+    } while (tmp != start);
+    Node<E> x = start;
+    for (int i = 0; i < count; i++) {
+      Node<E> next = x.right;
+      unlink(x);
+      int d = x.degree;
+      while (byDegree[d] != null) {
+        Node<E> y = byDegree[d];
+        if (y.priority < x.priority) {
+          Node<E> swap = x;
+          x = y;
+          y = swap;
+        }
+        link(y, x);
+        byDegree[d++] = null;
+      }
+      byDegree[d] = x;
+      x = next;
+    }
+    min = null;
+    for (Node<E> root : byDegree) {
+      if (root != null) {
+        addRoot(root);
+      }
+    }
+  }
+
+  //y becomes a child of x
+  private void link(Node<E> y, Node<E> x) {
+    y.parent = x;
+    y.mark = false;
+    if (x.child == null) {
+      x.child = y;
+    } else {
+      splice(x.child, y);
+    }
+    x.degree++;
+  }
+
+  //move x from the child list of parent to the root list
+  private void cut(Node<E> x, Node<E> parent) {
+    if (parent.child == x) {
+      parent.child = x.right == x ? null : x.right;
+    }
+    unlink(x);
+    parent.degree--;
+    addRoot(x);
+  }
+
+  private void cascadingCut(Node<E> y) {
+    Node<E> z = y.parent;
+    while (z != null) {
+      if (!y.mark) {
+        y.mark = true;
+        return;
+      }
+      cut(y, z);
+      y = z;
+      z = y.parent;
+    }
+  }
+
+  private Node<E> checkHandle(Handle<E> handle) {
+    if (!(handle instanceof FibonacciHeap.Node) || !handle.isInHeap()) {
+      throw new IllegalArgumentException("Handle is not in the heap");
+    }
+    return (Node<E>) handle;
+  }
+
+  @Override
+  public void decreaseKey(Handle<E> handle, long priority) {
+    Node<E> x = checkHandle(handle);
+    if (priority > x.priority) {
+      throw new IllegalArgumentException("Updated priority is bigger than current priority");
+    }
+    x.priority = priority;
+    Node<E> y = x.parent;
+    if (y != null && x.priority < y.priority) {
+      cut(x, y);
+      cascadingCut(y);
+    }
+    if (x.priority < min.priority) {
+      min = x;
+    }
+  }
+
+  /**
+   * Delete handle: cut it to the root list, make it the minimum, then extract it.
+   *
+   * @param handle handle returned by insert
+   */
+  @Override
+  public void delete(Handle<E> handle) {
+    Node<E> x = checkHandle(handle);
+    Node<E> y = x.parent;
+    if (y != null) {
+      cut(x, y);
+      cascadingCut(y);
+    }
+    min = x;
+    extractMin();
+  }
+
+  @Override
+  public void meld(PriorityQueueEngine<E> other) {
+    if (!(other instanceof FibonacciHeap) || other == this) {
+      throw new IllegalArgumentException("Can only meld another FibonacciHeap");
+    }
+    FibonacciHeap<E> heap = (FibonacciHeap<E>) other;
+    if (heap.min != null) {
+      if (min == null) {
+        min = heap.min;
+      } else {
+        //concatenate the two circular root lists
+        Node<E> right = min.right;
+        Node<E> otherLeft = heap.min.left;
+        min.right = heap.min;
+        heap.min.left = min;
+        otherLeft.right = right;
+        right.left = otherLeft;
+        if (heap.min.priority < min.priority) {
+          min = heap.min;
+        }
+      }
+    }
+    size += heap.size;
+    heap.min = null;
+    heap.size = 0;
+  }
+}
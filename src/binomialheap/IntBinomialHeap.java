@@ -0,0 +1,436 @@
+package binomialheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Binomial heap of primitive int keys that doesn't allocate per operation.
+ * Nodes are indices into one int column holding a record of key, degree, child,
+ * parent, next and handle per node instead of objects, removed nodes are recycled
+ * through a free list linked by next. Index 0 is NIL. Records keep the fields of a
+ * node together, a hop touches at most two cache lines where parallel arrays would
+ * take a miss per field.
+ * The columns live in int arrays, or off-heap in direct buffers so a large heap
+ * adds nothing for the garbage collector to trace.
+ * Handles are ints too: a handle keeps naming the same key while sift-up moves the
+ * key between nodes, it's recycled once its key is removed.
+ */
+public class IntBinomialHeap {
+
+  public static final int NIL = 0;
+
+  //fields of a node record, HANDLE is the handle of the key held by the node
+  private static final int KEY = 0;
+  private static final int DEGREE = 1;
+  private static final int CHILD = 2;
+  private static final int PARENT = 3;
+  private static final int NEXT = 4;
+  private static final int HANDLE = 5;
+  //record size, unpadded since neither int arrays nor direct buffers are line aligned
+  private static final int STRIDE = 6;
+
+  private Column nodes;
+  //node holding the key of a handle
+  private Column nodeOf;
+  private final boolean offHeap;
+
+  private int head;
+  private int minNode;
+  private int size;
+  //number of slots of every column
+  private int capacity;
+  //next slot never used before, slots are shared by nodes and handles
+  private int nextSlot;
+  //free nodes linked by next, free handles linked by ~nodeOf so they never look valid
+  private int freeNodes;
+  private int freeHandles;
+
+  /**
+   * Int column stored in an array or a direct buffer.
+   */
+  private abstract static class Column {
+    abstract int get(int i);
+
+    abstract void set(int i, int value);
+
+    //copy of the column with a bigger capacity
+    abstract Column grow(int capacity);
+  }
+
+  private static final class ArrayColumn extends Column {
+    private final int[] values;
+
+    ArrayColumn(int capacity) {
+      values = new int[capacity];
+    }
+
+    @Override
+    int get(int i) {
+      return values[i];
+    }
+
+    @Override
+    void set(int i, int value) {
+      values[i] = value;
+    }
+
+    @Override
+    Column grow(int capacity) {
+      ArrayColumn column = new ArrayColumn(capacity);
+      System.arraycopy(values, 0, column.values, 0, values.length);
+      return column;
+    }
+  }
+
+  private static final class DirectColumn extends Column {
+    private final IntBuffer values;
+
+    DirectColumn(int capacity) {
+      values = ByteBuffer.allocateDirect(capacity * Integer.BYTES)
+              .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    @Override
+    int get(int i) {
+      return values.get(i);
+    }
+
+    @Override
+    void set(int i, int value) {
+      values.put(i, value);
+    }
+
+    @Override
+    Column grow(int capacity) {
+      DirectColumn column = new DirectColumn(capacity);
+      column.values.put(0, values, 0, values.capacity());
+      return column;
+    }
+  }
+
+  /**
+   * IntBinomialHeap constructor, on the Java heap.
+   *
+   * @param capacity number of keys before the columns grow
+   */
+  public IntBinomialHeap(int capacity) {
+    this(capacity, false);
+  }
+
+  /**
+   * IntBinomialHeap constructor.
+   *
+   * @param capacity number of keys before the columns grow
+   * @param offHeap  store the columns in direct buffers
+   */
+  public IntBinomialHeap(int capacity, boolean offHeap) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.offHeap = offHeap;
+    this.capacity = capacity + 1;
+    nodes = newColumn(this.capacity * STRIDE);
+    nodeOf = newColumn(this.capacity);
+    nextSlot = 1;
+  }
+
+  private Column newColumn(int capacity) {
+    return offHeap ? new DirectColumn(capacity) : new ArrayColumn(capacity);
+  }
+
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void grow() {
+    capacity *= 2;
+    nodes = nodes.grow(capacity * STRIDE);
+    nodeOf = nodeOf.grow(capacity);
+  }
+
+  private int get(int x, int field) {
+    return nodes.get(x * STRIDE + field);
+  }
+
+  private void set(int x, int field, int value) {
+    nodes.set(x * STRIDE + field, value);
+  }
+
+  //take a node and a handle from the free lists, or the next new slot for both
+  private int allocate(int k) {
+    int x;
+    int h;
+    if (freeNodes != NIL) {
+      x = freeNodes;
+      freeNodes = get(x, NEXT);
+      h = freeHandles;
+      freeHandles = ~nodeOf.get(h);
+    } else {
+      if (nextSlot == capacity) {
+        grow();
+      }
+      x = nextSlot++;
+      h = x;
+    }
+    set(x, KEY, k);
+    set(x, DEGREE, 0);
+    set(x, CHILD, NIL);
+    set(x, PARENT, NIL);
+    set(x, NEXT, NIL);
+    set(x, HANDLE, h);
+    nodeOf.set(h, x);
+    return x;
+  }
+
+  //free node x and the handle of its key
+  private void free(int x) {
+    int h = get(x, HANDLE);
+    nodeOf.set(h, ~freeHandles);
+    freeHandles = h;
+    set(x, NEXT, freeNodes);
+    freeNodes = x;
+  }
+
+  /**
+   * Insert key, the same key can be inserted more than once.
+   *
+   * @param k key
+   * @return handle for keyOf, decreaseKey and delete
+   */
+  public int insert(int k) {
+    int x = allocate(k);
+    if (minNode == NIL || k < get(minNode, KEY)) {
+      minNode = x;
+    }
+    head = union(head, x);
+    //union may link the old minimum under an equal root, find it again
+    if (get(minNode, PARENT) != NIL) {
+      updateMinimum();
+    }
+    size++;
+    return get(x, HANDLE);
+  }
+
+  /**
+   * Get the minimum key in O(1).
+   *
+   * @return minimum key
+   * @throws NoSuchElementException if the heap is empty
+   */
+  public int minimum() {
+    if (minNode == NIL) {
+      throw new NoSuchElementException();
+    }
+    return get(minNode, KEY);
+  }
+
+  /**
+   * Get the handle of the minimum key in O(1).
+   *
+   * @return handle, NIL if the heap is empty
+   */
+  public int minimumHandle() {
+    return minNode == NIL ? NIL : get(minNode, HANDLE);
+  }
+
+  /**
+   * Remove the minimum key.
+   *
+   * @return minimum key
+   * @throws NoSuchElementException if the heap is empty
+   */
+  public int extractMin() {
+    if (minNode == NIL) {
+      throw new NoSuchElementException();
+    }
+    return removeRoot(minNode);
+  }
+
+  /**
+   * Get the key of handle.
+   *
+   * @param h handle returned by insert, still in the heap
+   * @return key
+   */
+  public int keyOf(int h) {
+    return get(checkHandle(h), KEY);
+  }
+
+  /**
+   * Decrease the key of handle in O(log n).
+   *
+   * @param h handle returned by insert, still in the heap
+   * @param k new key, no bigger than the current one
+   */
+  public void decreaseKey(int h, int k) {
+    int x = checkHandle(h);
+    if (k > get(x, KEY)) {
+      throw new IllegalArgumentException("Updated key is bigger than current key");
+    }
+    set(x, KEY, k);
+    x = siftUp(x, false);
+    if (get(x, PARENT) == NIL && k < get(minNode, KEY)) {
+      minNode = x;
+    }
+  }
+
+  /**
+   * Delete the key of handle in O(log n).
+   *
+   * @param h handle returned by insert, still in the heap
+   */
+  public void delete(int h) {
+    removeRoot(siftUp(checkHandle(h), true));
+  }
+
+  /**
+   * Find the node of handle. Handles are recycled, so a removed handle can only be
+   * detected until it's reused by a later insert.
+   *
+   * @param h handle
+   * @return node holding the key of handle
+   */
+  private int checkHandle(int h) {
+    if (h <= NIL || h >= nextSlot) {
+      throw new IllegalArgumentException("Handle " + h + " is not in the heap");
+    }
+    int x = nodeOf.get(h);
+    if (x <= NIL || x >= nextSlot || get(x, HANDLE) != h) {
+      throw new IllegalArgumentException("Handle " + h + " is not in the heap");
+    }
+    return x;
+  }
+
+  //move the key of x upward, with its handle, while it's smaller than its parent's
+  private int siftUp(int x, boolean force) {
+    int p = get(x, PARENT);
+    while (p != NIL && (force || get(x, KEY) < get(p, KEY))) {
+      int tmp = get(p, KEY);
+      set(p, KEY, get(x, KEY));
+      set(x, KEY, tmp);
+      int hx = get(x, HANDLE);
+      int hp = get(p, HANDLE);
+      set(x, HANDLE, hp);
+      set(p, HANDLE, hx);
+      nodeOf.set(hp, x);
+      nodeOf.set(hx, p);
+      x = p;
+      p = get(x, PARENT);
+    }
+    return x;
+  }
+
+  //remove a root from the root list, its children become roots
+  private int removeRoot(int root) {
+    if (head == root) {
+      head = get(root, NEXT);
+    } else {
+      int prev = head;
+      while (get(prev, NEXT) != root) {
+        prev = get(prev, NEXT);
+      }
+      set(prev, NEXT, get(root, NEXT));
+    }
+    head = union(head, reverse(get(root, CHILD)));
+    updateMinimum();
+    size--;
+    int k = get(root, KEY);
+    free(root);
+    return k;
+  }
+
+  private void updateMinimum() {
+    minNode = head;
+    for (int x = head; x != NIL; x = get(x, NEXT)) {
+      if (get(x, KEY) < get(minNode, KEY)) {
+        minNode = x;
+      }
+    }
+  }
+
+  //reverse the child list of a removed root, children become roots
+  private int reverse(int x) {
+    int prev = NIL;
+    while (x != NIL) {
+      int following = get(x, NEXT);
+      set(x, PARENT, NIL);
+      set(x, NEXT, prev);
+      prev = x;
+      x = following;
+    }
+    return prev;
+  }
+
+  //merge two root lists by ascending degree
+  private int merge(int a, int b) {
+    int first = NIL;
+    int last = NIL;
+    while (a != NIL || b != NIL) {
+      int current;
+      if (b == NIL || (a != NIL && get(a, DEGREE) <= get(b, DEGREE))) {
+        current = a;
+        a = get(a, NEXT);
+      } else {
+        current = b;
+        b = get(b, NEXT);
+      }
+      if (last == NIL) {
+        first = current;
+      } else {
+        set(last, NEXT, current);
+      }
+      last = current;
+    }
+    return first;
+  }
+
+  //c becomes the left-most child of root
+  private void linkChild(int c, int root) {
+    set(c, PARENT, root);
+    set(c, NEXT, get(root, CHILD));
+    set(root, CHILD, c);
+    set(root, DEGREE, get(root, DEGREE) + 1);
+  }
+
+  //combine two root lists, link binomial trees with same degree
+  private int union(int a, int b) {
+    int root = merge(a, b);
+    if (root == NIL) {
+      return NIL;
+    }
+    int prev = NIL;
+    int current = root;
+    int following = get(current, NEXT);
+    while (following != NIL) {
+      int after = get(following, NEXT);
+      if (get(current, DEGREE) != get(following, DEGREE)
+              || (after != NIL && get(after, DEGREE) == get(following, DEGREE))) {
+        prev = current;
+        current = following;
+      } else if (get(current, KEY) <= get(following, KEY)) {
+        set(current, NEXT, after);
+        linkChild(following, current);
+      } else {
+        if (prev == NIL) {
+          root = following;
+        } else {
+          set(prev, NEXT, following);
+        }
+        linkChild(current, following);
+        current = following;
+      }
+      following = get(current, NEXT);
+    }
+    return root;
+  }
+}
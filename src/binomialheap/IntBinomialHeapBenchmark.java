@@ -0,0 +1,83 @@
+package binomialheap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measure time and allocated bytes per operation of BinomialHeap against
+ * IntBinomialHeap on the Java heap and off-heap, in steady state: the heap is
+ * prefilled, then every insert is followed by an extractMin.
+ * Allocation is read from com.sun.management.ThreadMXBean for the current thread.
+ */
+public class IntBinomialHeapBenchmark {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static long allocatedBytes() {
+    return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static void report(String name, long time, long bytes, int operations) {
+    System.out.printf("%-24s %8.1f ns/op %10.2f bytes/op%n", name,
+            (double) time / operations, (double) bytes / operations);
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [prefilled keys] [operations]
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+    Random random = new Random(42);
+    int[] keys = new int[n + operations];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextInt();
+    }
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long checksum = 0;
+      BinomialHeap objects = new BinomialHeap();
+      for (int i = 0; i < n; i++) {
+        objects.insert(keys[i]);
+      }
+      long bytes = allocatedBytes();
+      long start = System.nanoTime();
+      for (int i = n; i < keys.length; i++) {
+        objects.insert(keys[i]);
+        checksum += objects.extractMin().getKey();
+      }
+      long objectsTime = System.nanoTime() - start;
+      long objectsBytes = allocatedBytes() - bytes;
+
+      long[] times = new long[2];
+      long[] allocated = new long[2];
+      for (int offHeap = 0; offHeap < 2; offHeap++) {
+        //capacity for every key, growth isn't part of the steady state
+        IntBinomialHeap heap = new IntBinomialHeap(n + 1, offHeap == 1);
+        for (int i = 0; i < n; i++) {
+          heap.insert(keys[i]);
+        }
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = n; i < keys.length; i++) {
+          heap.insert(keys[i]);
+          checksum -= heap.extractMin();
+        }
+        times[offHeap] = System.nanoTime() - start;
+        allocated[offHeap] = allocatedBytes() - bytes;
+      }
+
+      if (round == 1) {
+        System.out.println("prefilled = " + n + ", operations = " + operations
+                + " (insert + extractMin), checksum = " + checksum);
+        report("BinomialHeap", objectsTime, objectsBytes, operations);
+        report("IntBinomialHeap", times[0], allocated[0], operations);
+        report("IntBinomialHeap off-heap", times[1], allocated[1], operations);
+      }
+    }
+  }
+}
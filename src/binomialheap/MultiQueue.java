@@ -0,0 +1,264 @@
+package binomialheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent priority queue of int keys made of c * P BinomialHeap shards, each
+ * guarded by its own lock.
+ * insert goes to a random shard. In relaxed mode, extractMin takes the smaller of
+ * the minima of two random shards, so it may return a key that is not the global
+ * minimum but threads rarely contend. In strict mode, extractMin locks every shard
+ * and returns the exact minimum.
+ * Optionally the rank error of every extracted key (number of smaller keys in the
+ * queue at that moment) is measured with a Fenwick tree over a bounded key range.
+ */
+public class MultiQueue {
+
+  //minimum of an empty shard
+  private static final long EMPTY = Long.MAX_VALUE;
+
+  private final Shard[] shards;
+  private final boolean strict;
+  private final LongAdder size = new LongAdder();
+  //tryLock failures, a measure of contention
+  private final LongAdder lockFailures = new LongAdder();
+
+  //rank error tracking, null if disabled
+  private final AtomicIntegerArray fenwick;
+  private final LongAdder rankErrorSum = new LongAdder();
+  private final LongAdder rankErrorCount = new LongAdder();
+  private final AtomicLong rankErrorMax = new AtomicLong();
+
+  /**
+   * One heap and its lock. top is read without the lock to choose a shard.
+   */
+  private static final class Shard {
+    final ReentrantLock lock = new ReentrantLock();
+    final BinomialHeap heap = new BinomialHeap();
+    volatile long top = EMPTY;
+
+    //call with the lock held
+    void updateTop() {
+      BinomialHeap.Handle min = heap.minimum();
+      top = min == null ? EMPTY : min.getKey();
+    }
+  }
+
+  /**
+   * MultiQueue constructor.
+   *
+   * @param shardsPerThread c, number of shards per thread, 2 is typical
+   * @param threads         P, expected number of threads
+   * @param strict          extractMin returns the exact minimum
+   */
+  public MultiQueue(int shardsPerThread, int threads, boolean strict) {
+    this(shardsPerThread, threads, strict, 0);
+  }
+
+  /**
+   * MultiQueue constructor.
+   *
+   * @param shardsPerThread c, number of shards per thread, 2 is typical
+   * @param threads         P, expected number of threads
+   * @param strict          extractMin returns the exact minimum
+   * @param keyRange        measure rank errors of keys in [0, keyRange), 0 to disable
+   */
+  public MultiQueue(int shardsPerThread, int threads, boolean strict, int keyRange) {
+    if (shardsPerThread < 1 || threads < 1 || keyRange < 0) {
+      throw new IllegalArgumentException();
+    }
+    shards = new Shard[shardsPerThread * threads];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard();
+    }
+    this.strict = strict;
+    fenwick = keyRange == 0 ? null : new AtomicIntegerArray(keyRange + 1);
+  }
+
+  public boolean isStrict() {
+    return strict;
+  }
+
+  public int shardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Get the number of keys, exact only when no operation is running.
+   *
+   * @return number of keys
+   */
+  public long size() {
+    return size.sum();
+  }
+
+  public long getLockFailures() {
+    return lockFailures.sum();
+  }
+
+  /**
+   * Insert key into a random shard.
+   *
+   * @param key key, in [0, keyRange) if rank errors are measured
+   */
+  public void insert(int key) {
+    if (fenwick != null) {
+      if (key < 0 || key >= fenwick.length() - 1) {
+        throw new IllegalArgumentException("Key " + key + " is out of the measured range");
+      }
+      add(key, 1);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (true) {
+      Shard shard = shards[random.nextInt(shards.length)];
+      if (!shard.lock.tryLock()) {
+        lockFailures.increment();
+        continue;
+      }
+      try {
+        shard.heap.insert(key);
+        if (key < shard.top) {
+          shard.top = key;
+        }
+      } finally {
+        shard.lock.unlock();
+      }
+      size.increment();
+      return;
+    }
+  }
+
+  /**
+   * Remove a small key: the exact minimum in strict mode, otherwise the smaller
+   * minimum of two random shards.
+   *
+   * @return handle of the removed key, null if the queue is empty
+   */
+  public BinomialHeap.Handle extractMin() {
+    BinomialHeap.Handle min = strict ? extractStrict() : extractRelaxed();
+    if (min != null) {
+      size.decrement();
+      if (fenwick != null) {
+        recordRank(min.getKey());
+      }
+    }
+    return min;
+  }
+
+  private BinomialHeap.Handle extractRelaxed() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (true) {
+      Shard first = shards[random.nextInt(shards.length)];
+      Shard second = shards[random.nextInt(shards.length)];
+      Shard shard = first.top <= second.top ? first : second;
+      if (shard.top == EMPTY) {
+        //both are empty, look for any non-empty shard before giving up
+        shard = anyNonEmpty(random.nextInt(shards.length));
+        if (shard == null) {
+          return null;
+        }
+      }
+      if (!shard.lock.tryLock()) {
+        lockFailures.increment();
+        continue;
+      }
+      try {
+        BinomialHeap.Handle min = shard.heap.extractMin();
+        if (min != null) {
+          shard.updateTop();
+          return min;
+        }
+      } finally {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  private Shard anyNonEmpty(int start) {
+    for (int i = 0; i < shards.length; i++) {
+      Shard shard = shards[(start + i) % shards.length];
+      if (shard.top != EMPTY) {
+        return shard;
+      }
+    }
+    return null;
+  }
+
+  //lock all shards in index order so concurrent strict extracts can't deadlock
+  private BinomialHeap.Handle extractStrict() {
+    for (Shard shard : shards) {
+      shard.lock.lock();
+    }
+    try {
+      Shard best = shards[0];
+      for (Shard shard : shards) {
+        if (shard.top < best.top) {
+          best = shard;
+        }
+      }
+      BinomialHeap.Handle min = best.heap.extractMin();
+      best.updateTop();
+      return min;
+    } finally {
+      for (Shard shard : shards) {
+        shard.lock.unlock();
+      }
+    }
+  }
+
+  //Fenwick tree of key counts, index key + 1
+  private void add(int key, int delta) {
+    for (int i = key + 1; i < fenwick.length(); i += i & -i) {
+      fenwick.addAndGet(i, delta);
+    }
+  }
+
+  //number of keys smaller than key
+  private long countBelow(int key) {
+    long count = 0;
+    for (int i = key; i > 0; i -= i & -i) {
+      count += fenwick.get(i);
+    }
+    return count;
+  }
+
+  private void recordRank(int key) {
+    add(key, -1);
+    long rank = Math.max(countBelow(key), 0);
+    rankErrorSum.add(rank);
+    rankErrorCount.increment();
+    rankErrorMax.accumulateAndGet(rank, Math::max);
+  }
+
+  /**
+   * Get the mean rank error of extracted keys, 0 for the exact minimum.
+   * Under concurrency it's approximate, keys in flight may be counted.
+   *
+   * @return mean number of smaller keys left in the queue
+   */
+  public double meanRankError() {
+    checkTracking();
+    long count = rankErrorCount.sum();
+    return count == 0 ? 0 : (double) rankErrorSum.sum() / count;
+  }
+
+  /**
+   * Get the maximum rank error of extracted keys.
+   *
+   * @return maximum number of smaller keys left in the queue
+   */
+  public long maxRankError() {
+    checkTracking();
+    return rankErrorMax.get();
+  }
+
+  private void checkTracking() {
+    if (fenwick == null) {
+      throw new IllegalStateException("Rank errors are not measured, set a key range");
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package binomialheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Throughput scaling of a BinomialHeap behind one global lock against MultiQueue in
+ * strict and relaxed modes, from one thread up to all cores. Every thread alternates
+ * insert and extractMin on a prefilled queue. A second run per configuration
+ * measures the rank error of extracted keys.
+ */
+public class MultiQueueBenchmark {
+
+  private static final int SHARDS_PER_THREAD = 2;
+  private static final int KEY_RANGE = 1 << 24;
+
+  /**
+   * Common view of the queues under test.
+   */
+  private interface Queue {
+    void insert(int key);
+
+    void extractMin();
+  }
+
+  /**
+   * BinomialHeap with one global lock.
+   */
+  private static final class LockedHeap implements Queue {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final BinomialHeap heap = new BinomialHeap();
+
+    @Override
+    public void insert(int key) {
+      lock.lock();
+      try {
+        heap.insert(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void extractMin() {
+      lock.lock();
+      try {
+        heap.extractMin();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static Queue wrap(MultiQueue queue) {
+    return new Queue() {
+      @Override
+      public void insert(int key) {
+        queue.insert(key);
+      }
+
+      @Override
+      public void extractMin() {
+        queue.extractMin();
+      }
+    };
+  }
+
+  /**
+   * Run operations split over threads.
+   *
+   * @return operations per microsecond
+   */
+  private static double run(Queue queue, int threads, int prefill, int operations)
+          throws InterruptedException {
+    Random random = new Random(42);
+    for (int i = 0; i < prefill; i++) {
+      queue.insert(random.nextInt(KEY_RANGE));
+    }
+    List<Thread> workers = new ArrayList<Thread>();
+    int perThread = operations / threads;
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(() -> {
+        ThreadLocalRandom local = ThreadLocalRandom.current();
+        for (int i = 0; i < perThread; i += 2) {
+          queue.insert(local.nextInt(KEY_RANGE));
+          queue.extractMin();
+        }
+      }));
+    }
+    long start = System.nanoTime();
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    long time = System.nanoTime() - start;
+    return (double) perThread * threads * 1000 / time;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [operations per run] [prefilled keys]
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int operations = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+    int prefill = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<Integer> threadCounts = new ArrayList<Integer>();
+    for (int threads = 1; threads < cores; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    threadCounts.add(cores);
+
+    System.out.println("operations = " + operations + ", prefill = " + prefill
+            + ", shards per thread = " + SHARDS_PER_THREAD);
+    System.out.printf("%8s %14s %14s %14s %16s %16s%n", "threads", "locked ops/us",
+            "strict ops/us", "relaxed ops/us", "relaxed mean rank", "relaxed max rank");
+    //warm up the JIT
+    run(new LockedHeap(), 1, prefill, operations);
+    run(wrap(new MultiQueue(SHARDS_PER_THREAD, 1, false)), 1, prefill, operations);
+    for (int threads : threadCounts) {
+      double locked = run(new LockedHeap(), threads, prefill, operations);
+      double strict = run(wrap(new MultiQueue(SHARDS_PER_THREAD, threads, true)),
+              threads, prefill, operations);
+      double relaxed = run(wrap(new MultiQueue(SHARDS_PER_THREAD, threads, false)),
+              threads, prefill, operations);
+      //quality run, rank tracking adds its own contention so its time isn't reported
+      MultiQueue tracked = new MultiQueue(SHARDS_PER_THREAD, threads, false, KEY_RANGE);
+      run(wrap(tracked), threads, prefill, operations);
+      System.out.printf("%8d %14.2f %14.2f %14.2f %16.1f %16d%n", threads, locked, strict,
+              relaxed, tracked.meanRankError(), tracked.maxRankError());
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package binomialheap;
+
+/**
+ * Pairing heap: a single heap-ordered tree, children kept in a doubly linked list.
+ * insert, meld and decreaseKey are O(1), extractMin and delete are O(log n) amortized
+ * by two-pass pairing of the root's children.
+ *
+ * @param <E> payload type
+ */
+public class PairingHeap<E> implements PriorityQueueEngine<E> {
+
+  private Node<E> root;
+  private int size;
+
+  /**
+   * Node class that represents priority, payload, child, next and prev.
+   * prev is the left sibling, or the parent for the left-most child.
+   */
+  private static final class Node<E> implements Handle<E> {
+    long priority;
+    final E payload;
+    Node<E> child;
+    Node<E> next;
+    Node<E> prev;
+    boolean inHeap;
+
+    Node(long priority, E payload) {
+      this.priority = priority;
+      this.payload = payload;
+      this.inHeap = true;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public E getPayload() {
+      return payload;
+    }
+
+    @Override
+    public boolean isInHeap() {
+      return inHeap;
+    }
+
+    @Override
+    public String toString() {
+      return "priority = " + priority + ", payload = " + payload;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  //link two trees, the root with the bigger priority becomes the left-most child
+  private Node<E> link(Node<E> a, Node<E> b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (b.priority < a.priority) {
+      Node<E> tmp = a;
+      a = b;
+      b = tmp;
+    }
+    b.prev = a;
+    b.next = a.child;
+    if (a.child != null) {
+      a.child.prev = b;
+    }
+    a.child = b;
+    a.next = null;
+    a.prev = null;
+    return a;
+  }
+
+  @Override
+  public Handle<E> insert(long priority, E payload) {
+    Node<E> node = new Node<E>(priority, payload);
+    root = link(root, node);
+    size++;
+    return node;
+  }
+
+  @Override
+  public Handle<E> minimum() {
+    return root;
+  }
+
+  @Override
+  public Handle<E> extractMin() {
+    if (root == null) {
+      return null;
+    }
+    Node<E> min = root;
+    root = pair(min.child);
+    remove(min);
+    return min;
+  }
+
+  private void remove(Node<E> node) {
+    node.child = null;
+    node.next = null;
+    node.prev = null;
+    node.inHeap = false;
+    size--;
+  }
+
+  /**
+   * Two-pass pairing: link siblings in pairs from left to right, then link the
+   * pairs from right to left.
+   *
+   * @param first left-most child
+   * @return root of the combined tree
+   */
+  private Node<E> pair(Node<E> first) {
+    if (first == null) {
+      return null;
+    }
+    //first pass, keep the pairs in a list linked by next in reverse order
+    Node<E> pairs = null;
+    while (first != null) {
+      Node<E> a = first;
+      Node<E> b = a.next;
+      first = b == null ? null : b.next;
+      a.next = null;
+      a.prev = null;
+      if (b != null) {
+        b.next = null;
+        b.prev = null;
+      }
+      Node<E> linked = link(a, b);
+      linked.next = pairs;
+      pairs = linked;
+    }
+    //second pass, from the right-most pair
+    Node<E> result = null;
+    while (pairs != null) {
+      Node<E> next = pairs.next;
+      pairs.next = null;
+      result = link(result, pairs);
+      pairs = next;
+    }
+    return result;
+  }
+
+  //detach the subtree of node from its parent or siblings
+  private void cut(Node<E> node) {
+    if (node.prev.child == node) {
+      node.prev.child = node.next;
+    } else {
+      node.prev.next = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.next = null;
+    node.prev = null;
+  }
+
+  private Node<E> checkHandle(Handle<E> handle) {
+    if (!(handle instanceof PairingHeap.Node) || !handle.isInHeap()) {
+      throw new IllegalArgumentException("Handle is not in the heap");
+    }
+    return (Node<E>) handle;
+  }
+
+  @Override
+  public void decreaseKey(Handle<E> handle, long priority) {
+    Node<E> node = checkHandle(handle);
+    if (priority > node.priority) {
+      throw new IllegalArgumentException("Updated priority is bigger than current priority");
+    }
+    node.priority = priority;
+    if (node != root) {
+      cut(node);
+      root = link(root, node);
+    }
+  }
+
+  @Override
+  public void delete(Handle<E> handle) {
+    Node<E> node = checkHandle(handle);
+    if (node == root) {
+      extractMin();
+      return;
+    }
+    cut(node);
+    root = link(root, pair(node.child));
+    remove(node);
+  }
+
+  @Override
+  public void meld(PriorityQueueEngine<E> other) {
+    if (!(other instanceof PairingHeap) || other == this) {
+      throw new IllegalArgumentException("Can only meld another PairingHeap");
+    }
+    PairingHeap<E> heap = (PairingHeap<E>) other;
+    root = link(root, heap.root);
+    size += heap.size;
+    heap.root = null;
+    heap.size = 0;
+  }
+}
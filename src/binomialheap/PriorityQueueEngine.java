@@ -0,0 +1,80 @@
+package binomialheap;
+
+/**
+ * Common interface of meldable priority queues with long priorities, payloads and
+ * handles, so engines can be swapped per workload.
+ *
+ * @param <E> payload type
+ */
+public interface PriorityQueueEngine<E> {
+
+  /**
+   * Handle of an inserted payload, used by decreaseKey and delete.
+   *
+   * @param <E> payload type
+   */
+  interface Handle<E> {
+    long getPriority();
+
+    E getPayload();
+
+    /**
+     * Check if the handle is still in its heap.
+     *
+     * @return false after it was extracted or deleted
+     */
+    boolean isInHeap();
+  }
+
+  /**
+   * Insert payload with priority.
+   *
+   * @param priority priority, smaller is extracted first
+   * @param payload  payload
+   * @return handle
+   */
+  Handle<E> insert(long priority, E payload);
+
+  /**
+   * Get the minimum without removing it.
+   *
+   * @return handle of the minimum, null if the heap is empty
+   */
+  Handle<E> minimum();
+
+  /**
+   * Remove the minimum.
+   *
+   * @return handle of the minimum, null if the heap is empty
+   */
+  Handle<E> extractMin();
+
+  /**
+   * Decrease the priority of handle.
+   *
+   * @param handle   handle returned by insert
+   * @param priority new priority, no bigger than the current one
+   */
+  void decreaseKey(Handle<E> handle, long priority);
+
+  /**
+   * Remove handle from the heap.
+   *
+   * @param handle handle returned by insert
+   */
+  void delete(Handle<E> handle);
+
+  /**
+   * Move all entries of other into this heap, other becomes empty.
+   * Handles of other stay valid in this heap.
+   *
+   * @param other heap of the same engine
+   */
+  void meld(PriorityQueueEngine<E> other);
+
+  int size();
+
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+}
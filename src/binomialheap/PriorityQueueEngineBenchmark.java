@@ -0,0 +1,150 @@
+package binomialheap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark matrix of every PriorityQueueEngine over three operation mixes:
+ * heapsort (insert all, extract all), Dijkstra (extractMin followed by inserts and
+ * decreaseKeys that never go below the extracted priority) and meld (many small
+ * heaps melded into one, then drained). All mixes are monotone so RadixHeap can run them.
+ */
+public class PriorityQueueEngineBenchmark {
+
+  private static final String[] NAMES = {
+    "BinomialPriorityQueue", "PairingHeap", "DaryHeap(4)", "FibonacciHeap", "RadixHeap"
+  };
+
+  private static final List<Supplier<PriorityQueueEngine<Integer>>> ENGINES = Arrays.asList(
+          BinomialPriorityQueue::new, PairingHeap::new, DaryHeap::new, FibonacciHeap::new,
+          RadixHeap::new);
+
+  /**
+   * Check that minimum only peeks: inserts and decreaseKeys below the peeked minimum
+   * but not below the last extracted priority must be accepted and come out first.
+   */
+  private static void checkPeek(Supplier<PriorityQueueEngine<Integer>> engine, String name) {
+    PriorityQueueEngine<Integer> heap = engine.get();
+    heap.insert(10, 0);
+    heap.insert(20, 1);
+    long peeked = heap.minimum().getPriority();
+    heap.insert(5, 2);
+    long first = heap.extractMin().getPriority();
+    PriorityQueueEngine.Handle<Integer> handle = heap.insert(30, 3);
+    heap.minimum();
+    heap.decreaseKey(handle, 7);
+    long second = heap.extractMin().getPriority();
+    if (peeked != 10 || first != 5 || second != 7 || heap.minimum().getPriority() != 10) {
+      throw new IllegalStateException(name + " changes state on minimum");
+    }
+  }
+
+  private static long heapsort(Supplier<PriorityQueueEngine<Integer>> engine, long[] priorities) {
+    PriorityQueueEngine<Integer> heap = engine.get();
+    for (int i = 0; i < priorities.length; i++) {
+      heap.insert(priorities[i], i);
+    }
+    long checksum = 0;
+    while (!heap.isEmpty()) {
+      checksum += heap.extractMin().getPriority();
+    }
+    return checksum;
+  }
+
+  /**
+   * Simulate Dijkstra on a random graph: each extracted vertex relaxes degree
+   * edges, unseen vertices are inserted, seen ones get a decreaseKey if shorter.
+   */
+  private static long dijkstra(Supplier<PriorityQueueEngine<Integer>> engine, int vertices,
+                               int degree, long seed) {
+    Random random = new Random(seed);
+    PriorityQueueEngine<Integer> heap = engine.get();
+    @SuppressWarnings("unchecked")
+    PriorityQueueEngine.Handle<Integer>[] handles =
+            (PriorityQueueEngine.Handle<Integer>[]) new PriorityQueueEngine.Handle<?>[vertices];
+    boolean[] done = new boolean[vertices];
+    handles[0] = heap.insert(0, 0);
+    long checksum = 0;
+    while (!heap.isEmpty()) {
+      PriorityQueueEngine.Handle<Integer> min = heap.extractMin();
+      int u = min.getPayload();
+      long distance = min.getPriority();
+      done[u] = true;
+      checksum += distance;
+      for (int e = 0; e < degree; e++) {
+        int v = random.nextInt(vertices);
+        long candidate = distance + 1 + random.nextInt(1000);
+        if (done[v]) {
+          continue;
+        }
+        if (handles[v] == null) {
+          handles[v] = heap.insert(candidate, v);
+        } else if (candidate < handles[v].getPriority()) {
+          heap.decreaseKey(handles[v], candidate);
+        }
+      }
+    }
+    return checksum;
+  }
+
+  private static long meld(Supplier<PriorityQueueEngine<Integer>> engine, long[] priorities,
+                           int heapSize) {
+    PriorityQueueEngine<Integer> result = engine.get();
+    for (int i = 0; i < priorities.length; i += heapSize) {
+      PriorityQueueEngine<Integer> heap = engine.get();
+      for (int j = i; j < Math.min(i + heapSize, priorities.length); j++) {
+        heap.insert(priorities[j], j);
+      }
+      result.meld(heap);
+    }
+    long checksum = 0;
+    while (!result.isEmpty()) {
+      checksum += result.extractMin().getPriority();
+    }
+    return checksum;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of entries] [graph degree] [meld heap size]
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int degree = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int heapSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+    Random random = new Random(42);
+    long[] priorities = new long[n];
+    for (int i = 0; i < n; i++) {
+      priorities[i] = random.nextInt(Integer.MAX_VALUE);
+    }
+
+    for (int e = 0; e < ENGINES.size(); e++) {
+      checkPeek(ENGINES.get(e), NAMES[e]);
+    }
+
+    System.out.println("n = " + n + ", degree = " + degree + ", meld heap size = " + heapSize);
+    System.out.printf("%-22s %12s %12s %12s%n", "engine (ms)", "heapsort", "dijkstra", "meld");
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      for (int e = 0; e < ENGINES.size(); e++) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        checksum += heapsort(ENGINES.get(e), priorities);
+        long sortTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        checksum += dijkstra(ENGINES.get(e), n, degree, 7);
+        long dijkstraTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        checksum += meld(ENGINES.get(e), priorities, heapSize);
+        long meldTime = System.nanoTime() - start;
+        if (round == 1) {
+          System.out.printf("%-22s %12d %12d %12d   checksum = %d%n", NAMES[e],
+                  sortTime / 1_000_000, dijkstraTime / 1_000_000, meldTime / 1_000_000, checksum);
+        }
+      }
+    }
+  }
+}
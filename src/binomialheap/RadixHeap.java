@@ -0,0 +1,236 @@
+package binomialheap;
+
+/**
+ * Monotone radix heap for integer priorities: no priority may be smaller than the
+ * last extracted one, as in Dijkstra's algorithm.
+ * Bucket i holds priorities whose highest bit different from the last extracted
+ * priority is bit i - 1, bucket 0 holds priorities equal to it. extractMin
+ * redistributes the first non-empty bucket into lower buckets, every entry moves
+ * down at most 64 times, so all operations are O(1) amortized except meld.
+ * minimum doesn't extract, so it leaves the buckets alone and scans the first
+ * non-empty one if bucket 0 is empty.
+ *
+ * @param <E> payload type
+ */
+public class RadixHeap<E> implements PriorityQueueEngine<E> {
+
+  private static final int BUCKETS = Long.SIZE + 1;
+
+  //head of each bucket's doubly linked list
+  private final Node<E>[] buckets = newNodes(BUCKETS);
+  //last extracted priority, lower bound of all priorities in the heap
+  private long last = Long.MIN_VALUE;
+  private int size;
+
+  /**
+   * Node class that represents priority, payload and the links in its bucket.
+   */
+  private static final class Node<E> implements Handle<E> {
+    long priority;
+    final E payload;
+    Node<E> next;
+    Node<E> prev;
+    //bucket index, -1 once removed
+    int bucket;
+
+    Node(long priority, E payload) {
+      this.priority = priority;
+      this.payload = payload;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public E getPayload() {
+      return payload;
+    }
+
+    @Override
+    public boolean isInHeap() {
+      return bucket >= 0;
+    }
+
+    @Override
+    public String toString() {
+      return "priority = " + priority + ", payload = " + payload;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  //generic arrays can't be created, a Node<?> array is cast instead
+  @SuppressWarnings("unchecked")
+  private static <E> Node<E>[] newNodes(int length) {
+    return (Node<E>[]) new Node<?>[length];
+  }
+
+  //bucket of priority relative to the last extracted priority
+  private int bucketOf(long priority) {
+    return priority == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(priority ^ last);
+  }
+
+  private void push(Node<E> node) {
+    int b = bucketOf(node.priority);
+    node.bucket = b;
+    node.prev = null;
+    node.next = buckets[b];
+    if (buckets[b] != null) {
+      buckets[b].prev = node;
+    }
+    buckets[b] = node;
+  }
+
+  private void unlink(Node<E> node) {
+    if (node.prev == null) {
+      buckets[node.bucket] = node.next;
+    } else {
+      node.prev.next = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.next = null;
+    node.prev = null;
+  }
+
+  private void checkPriority(long priority) {
+    if (priority < last) {
+      throw new IllegalArgumentException("Priority " + priority
+              + " is smaller than the last extracted priority " + last);
+    }
+  }
+
+  @Override
+  public Handle<E> insert(long priority, E payload) {
+    checkPriority(priority);
+    Node<E> node = new Node<E>(priority, payload);
+    push(node);
+    size++;
+    return node;
+  }
+
+  /**
+   * Make bucket 0 non-empty: take the first non-empty bucket, make its minimum
+   * the last extracted priority and redistribute the bucket.
+   */
+  private void refill() {
+    if (buckets[0] != null || size == 0) {
+      return;
+    }
+    int b = 1;
+    while (buckets[b] == null) {
+      b++;
+    }
+    long min = Long.MAX_VALUE;
+    for (Node<E> node = buckets[b]; node != null; node = node.next) {
+      min = Math.min(min, node.priority);
+    }
+    last = min;
+    Node<E> node = buckets[b];
+    buckets[b] = null;
+    while (node != null) {
+      Node<E> next = node.next;
+      push(node);
+      node = next;
+    }
+  }
+
+  @Override
+  public Handle<E> minimum() {
+    if (buckets[0] != null || size == 0) {
+      return buckets[0];
+    }
+    int b = 1;
+    while (buckets[b] == null) {
+      b++;
+    }
+    Node<E> min = buckets[b];
+    for (Node<E> node = min.next; node != null; node = node.next) {
+      if (node.priority < min.priority) {
+        min = node;
+      }
+    }
+    return min;
+  }
+
+  @Override
+  public Handle<E> extractMin() {
+    refill();
+    Node<E> node = buckets[0];
+    if (node == null) {
+      return null;
+    }
+    unlink(node);
+    node.bucket = -1;
+    size--;
+    return node;
+  }
+
+  private Node<E> checkHandle(Handle<E> handle) {
+    if (!(handle instanceof RadixHeap.Node) || !handle.isInHeap()) {
+      throw new IllegalArgumentException("Handle is not in the heap");
+    }
+    return (Node<E>) handle;
+  }
+
+  @Override
+  public void decreaseKey(Handle<E> handle, long priority) {
+    Node<E> node = checkHandle(handle);
+    if (priority > node.priority) {
+      throw new IllegalArgumentException("Updated priority is bigger than current priority");
+    }
+    checkPriority(priority);
+    unlink(node);
+    node.priority = priority;
+    push(node);
+  }
+
+  @Override
+  public void delete(Handle<E> handle) {
+    Node<E> node = checkHandle(handle);
+    unlink(node);
+    node.bucket = -1;
+    size--;
+  }
+
+  /**
+   * Re-bucket all entries of other into this heap in O(n + m). The lower bound
+   * becomes the smaller one of both heaps.
+   *
+   * @param other another RadixHeap
+   */
+  @Override
+  public void meld(PriorityQueueEngine<E> other) {
+    if (!(other instanceof RadixHeap) || other == this) {
+      throw new IllegalArgumentException("Can only meld another RadixHeap");
+    }
+    RadixHeap<E> heap = (RadixHeap<E>) other;
+    if (heap.last < last) {
+      last = heap.last;
+      rebucket(this);
+    }
+    rebucket(heap);
+    size += heap.size;
+    heap.size = 0;
+    heap.last = Long.MIN_VALUE;
+  }
+
+  //move every node of heap into the buckets of this heap
+  private void rebucket(RadixHeap<E> heap) {
+    for (int b = 0; b < BUCKETS; b++) {
+      Node<E> node = heap.buckets[b];
+      heap.buckets[b] = null;
+      while (node != null) {
+        Node<E> next = node.next;
+        push(node);
+        node = next;
+      }
+    }
+  }
+}
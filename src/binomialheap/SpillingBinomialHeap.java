@@ -0,0 +1,571 @@
+package binomialheap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of int keys that spills to disk when it outgrows its memory budget.
+ * The smallest keys live in an in-memory BinomialHeap, every key in memory is no
+ * bigger than any key on disk, so extractMin only touches the disk when the heap
+ * runs empty. The rest lives in sorted segment files, merged through an
+ * IntBinomialHeap of segment heads read with read-ahead buffers.
+ * When the heap outgrows its budget it's drained in order: the smaller half is
+ * rebuilt with BinomialHeap.of, the bigger half is written as a segment. Keys not
+ * smaller than the smallest key on disk go to a spill buffer, written as a sorted
+ * segment when full. An empty heap is refilled with the next keys of the merge.
+ * Past maxSegments segments the smallest half is merged into one, which keeps the
+ * read-ahead memory bounded and tiers the segments by size: a key is rewritten
+ * about log base maxSegments / 2 of the backlog times, not on every compaction.
+ * I/O errors are thrown as UncheckedIOException, the queue keeps all of its keys and
+ * stays usable after one, and a partly written segment file is deleted.
+ */
+public class SpillingBinomialHeap implements AutoCloseable {
+
+  private static final int READ_AHEAD_BYTES = 1 << 16;
+  private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+  private final int memoryKeys;
+  private final int maxSegments;
+  private final Path dir;
+
+  private BinomialHeap heap = new BinomialHeap();
+  private int heapSize;
+  //keys bound for disk, not smaller than the smallest key on disk when they came
+  private final int[] spillBuffer;
+  private int spillSize;
+  private int spillMin = Integer.MAX_VALUE;
+
+  //heads of the segments, segmentOf maps a head's handle to its segment
+  private final IntBinomialHeap heads = new IntBinomialHeap(16);
+  private Segment[] segmentOf = new Segment[17];
+  //open segments in no order, Segment.slot is the index
+  private Segment[] open = new Segment[16];
+  private int segments;
+  private long diskSize;
+  //one writer at a time, they share the write buffer
+  private ByteBuffer writeBuffer;
+  //read-ahead buffers of deleted segments
+  private final ArrayDeque<ByteBuffer> freeReadBuffers = new ArrayDeque<ByteBuffer>();
+
+  private long spills;
+  private long refills;
+  private long compactions;
+  private long bytesWritten;
+
+  /**
+   * Sorted segment file read through a read-ahead buffer, deleted once read.
+   * Reads are positional and only advance once they succeed, so a failed read can
+   * be retried.
+   */
+  private static final class Segment {
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean eof;
+    //file offset past the bytes read into the buffer
+    private long offset;
+    //keys not merged yet, the head included
+    private long keys;
+    //handle of the head in its merge heap, index in open
+    private int handle;
+    private int slot;
+
+    Segment(Path path, ByteBuffer buffer, long keys) throws IOException {
+      this.path = path;
+      this.buffer = buffer;
+      this.keys = keys;
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+      buffer.clear().flip();
+    }
+
+    boolean hasNext() throws IOException {
+      if (buffer.hasRemaining()) {
+        return true;
+      }
+      if (eof) {
+        return false;
+      }
+      buffer.clear();
+      try {
+        //segments hold whole ints, fill until the buffer is full or the file ends
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, offset + buffer.position()) < 0) {
+            eof = true;
+            break;
+          }
+        }
+      } catch (IOException e) {
+        buffer.clear().flip();
+        throw e;
+      }
+      offset += buffer.position();
+      buffer.flip();
+      return buffer.hasRemaining();
+    }
+
+    int next() {
+      return buffer.getInt();
+    }
+
+    //file offset of the next key after the head
+    long mark() {
+      return offset - buffer.remaining();
+    }
+
+    //read again from a mark, dropping what was read since
+    void reset(long mark) {
+      offset = mark;
+      eof = false;
+      buffer.clear().flip();
+    }
+
+    void delete() throws IOException {
+      channel.close();
+      Files.deleteIfExists(path);
+    }
+  }
+
+  /**
+   * Writer of a new segment file.
+   */
+  private final class SegmentWriter {
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    SegmentWriter() throws IOException {
+      path = Files.createTempFile(dir, "segment", ".ints");
+      try {
+        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+      } catch (IOException e) {
+        deleteAfterFailure(path, e);
+        throw e;
+      }
+      if (writeBuffer == null) {
+        writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.nativeOrder());
+      }
+      buffer = writeBuffer;
+      buffer.clear();
+    }
+
+    void write(int key) throws IOException {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.putInt(key);
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      bytesWritten += buffer.remaining();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+
+    //close and delete the file after e, errors doing so are suppressed into e
+    void discard(Exception e) {
+      closeAfterFailure(channel, e);
+      deleteAfterFailure(path, e);
+    }
+  }
+
+  private static void closeAfterFailure(Closeable closeable, Exception e) {
+    try {
+      closeable.close();
+    } catch (IOException suppressed) {
+      e.addSuppressed(suppressed);
+    }
+  }
+
+  private static void deleteAfterFailure(Path path, Exception e) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException suppressed) {
+      e.addSuppressed(suppressed);
+    }
+  }
+
+  /**
+   * SpillingBinomialHeap constructor, with up to 64 segments.
+   *
+   * @param memoryKeys keys kept in the in-memory heap, the spill buffer holds half as many
+   * @param dir        directory for segment files
+   */
+  public SpillingBinomialHeap(int memoryKeys, Path dir) {
+    this(memoryKeys, 64, dir);
+  }
+
+  /**
+   * SpillingBinomialHeap constructor.
+   *
+   * @param memoryKeys  keys kept in the in-memory heap, the spill buffer holds half as many
+   * @param maxSegments segments on disk, past it the smallest half is merged, at least 2
+   * @param dir         directory for segment files
+   */
+  public SpillingBinomialHeap(int memoryKeys, int maxSegments, Path dir) {
+    if (memoryKeys < 2 || maxSegments < 2) {
+      throw new IllegalArgumentException();
+    }
+    this.memoryKeys = memoryKeys;
+    this.maxSegments = maxSegments;
+    this.dir = dir;
+    spillBuffer = new int[memoryKeys / 2];
+  }
+
+  public long size() {
+    return heapSize + spillSize + diskSize;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Get the number of keys in the in-memory heap.
+   *
+   * @return keys in memory, not counting the spill buffer
+   */
+  public int memorySize() {
+    return heapSize;
+  }
+
+  /**
+   * Get the number of keys on disk or waiting in the spill buffer.
+   *
+   * @return keys outside the in-memory heap
+   */
+  public long spilledSize() {
+    return spillSize + diskSize;
+  }
+
+  public int getSegments() {
+    return segments;
+  }
+
+  public long getSpills() {
+    return spills;
+  }
+
+  public long getRefills() {
+    return refills;
+  }
+
+  public long getCompactions() {
+    return compactions;
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  //smallest key outside the heap, MAX_VALUE if there is none
+  private int outsideMinimum() {
+    int min = spillMin;
+    if (!heads.isEmpty() && heads.minimum() < min) {
+      min = heads.minimum();
+    }
+    return min;
+  }
+
+  /**
+   * Insert key, O(log n) amortized in memory.
+   *
+   * @param k key
+   */
+  public void insert(int k) {
+    try {
+      if (spillSize + diskSize > 0 && k > outsideMinimum()) {
+        if (spillSize == spillBuffer.length) {
+          flushSpillBuffer();
+        }
+        spillBuffer[spillSize++] = k;
+        spillMin = Math.min(spillMin, k);
+        return;
+      }
+      heap.insert(k);
+      if (++heapSize > memoryKeys) {
+        spill();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Get the minimum key, refilling the heap from disk if it's empty.
+   *
+   * @return minimum key
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int minimum() {
+    refillIfEmpty();
+    return heap.minimum().getKey();
+  }
+
+  /**
+   * Remove the minimum key, refilling the heap from disk if it's empty.
+   *
+   * @return minimum key
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int extractMin() {
+    refillIfEmpty();
+    heapSize--;
+    return heap.extractMin().getKey();
+  }
+
+  private void refillIfEmpty() {
+    if (heapSize > 0) {
+      return;
+    }
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      refill();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  //keep the smaller half of the heap, write the bigger half as a segment
+  private void spill() throws IOException {
+    int[] drained = new int[heapSize];
+    for (int i = 0; i < drained.length; i++) {
+      drained[i] = heap.extractMin().getKey();
+    }
+    int keep = memoryKeys / 2;
+    try {
+      writeSegment(drained, keep, drained.length);
+    } catch (IOException | RuntimeException e) {
+      //put the keys back, the next insert over the budget spills again
+      heap = BinomialHeap.of(drained);
+      throw e;
+    }
+    heap = BinomialHeap.of(Arrays.copyOf(drained, keep));
+    heapSize = keep;
+    diskSize += drained.length - keep;
+    spills++;
+    compactIfNeeded();
+  }
+
+  private void flushSpillBuffer() throws IOException {
+    Arrays.sort(spillBuffer, 0, spillSize);
+    writeSegment(spillBuffer, 0, spillSize);
+    diskSize += spillSize;
+    spillSize = 0;
+    spillMin = Integer.MAX_VALUE;
+    compactIfNeeded();
+  }
+
+  //write sorted keys[from..to) as a segment and open it, the file is deleted on failure
+  private void writeSegment(int[] keys, int from, int to) throws IOException {
+    SegmentWriter writer = new SegmentWriter();
+    try {
+      for (int i = from; i < to; i++) {
+        writer.write(keys[i]);
+      }
+      writer.close();
+      openSegment(writer.path, to - from);
+    } catch (IOException | RuntimeException e) {
+      writer.discard(e);
+      throw e;
+    }
+  }
+
+  private void compactIfNeeded() throws IOException {
+    if (segments > maxSegments) {
+      compact();
+    }
+  }
+
+  //open a written segment, on failure the caller still owns the file
+  private void openSegment(Path path, long keys) throws IOException {
+    ByteBuffer buffer = freeReadBuffers.poll();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(READ_AHEAD_BYTES).order(ByteOrder.nativeOrder());
+    }
+    Segment segment = null;
+    boolean empty;
+    try {
+      segment = new Segment(path, buffer, keys);
+      empty = !segment.hasNext();
+    } catch (IOException | RuntimeException e) {
+      if (segment != null) {
+        closeAfterFailure(segment.channel, e);
+      }
+      freeReadBuffers.add(buffer);
+      throw e;
+    }
+    if (empty) {
+      deleteSegment(segment);
+      return;
+    }
+    segment.handle = heads.insert(segment.next());
+    segmentOf = mapHandle(segmentOf, segment.handle, segment);
+    if (segments == open.length) {
+      open = Arrays.copyOf(open, segments * 2);
+    }
+    segment.slot = segments;
+    open[segments++] = segment;
+  }
+
+  //set map[h], growing map if needed
+  private static Segment[] mapHandle(Segment[] map, int h, Segment segment) {
+    if (h >= map.length) {
+      map = Arrays.copyOf(map, h * 2);
+    }
+    map[h] = segment;
+    return map;
+  }
+
+  private void deleteSegment(Segment segment) throws IOException {
+    try {
+      segment.delete();
+    } finally {
+      freeReadBuffers.add(segment.buffer);
+    }
+  }
+
+  //remove segment from open, its head must be out of heads
+  private void closeSegment(Segment segment) {
+    Segment last = open[--segments];
+    open[segment.slot] = last;
+    last.slot = segment.slot;
+    open[segments] = null;
+  }
+
+  /**
+   * Merge the smallest half of the segments into one. They stay in heads until the
+   * merged segment is open, a failure rewinds them to where the merge started.
+   */
+  private void compact() throws IOException {
+    Segment[] smallest = Arrays.copyOf(open, segments);
+    Arrays.sort(smallest, Comparator.comparingLong((Segment segment) -> segment.keys));
+    int count = Math.max(2, maxSegments / 2);
+    IntBinomialHeap merge = new IntBinomialHeap(count);
+    Segment[] mergeOf = new Segment[count + 1];
+    long[] marks = new long[count];
+    long keys = 0;
+    for (int i = 0; i < count; i++) {
+      Segment segment = smallest[i];
+      marks[i] = segment.mark();
+      mergeOf = mapHandle(mergeOf, merge.insert(heads.keyOf(segment.handle)), segment);
+      keys += segment.keys;
+    }
+    SegmentWriter writer = new SegmentWriter();
+    try {
+      while (!merge.isEmpty()) {
+        Segment segment = mergeOf[merge.minimumHandle()];
+        writer.write(merge.extractMin());
+        if (segment.hasNext()) {
+          mergeOf[merge.insert(segment.next())] = segment;
+        }
+      }
+      writer.close();
+      openSegment(writer.path, keys);
+    } catch (IOException | RuntimeException e) {
+      for (int i = 0; i < count; i++) {
+        smallest[i].reset(marks[i]);
+      }
+      writer.discard(e);
+      throw e;
+    }
+    compactions++;
+    IOException failure = null;
+    for (int i = 0; i < count; i++) {
+      Segment segment = smallest[i];
+      heads.delete(segment.handle);
+      closeSegment(segment);
+      try {
+        deleteSegment(segment);
+      } catch (IOException e) {
+        //the keys are in the merged segment, only the stale file is left
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  //move the spill buffer to disk and the next half budget of keys from disk to the heap
+  private void refill() throws IOException {
+    if (spillSize > 0) {
+      flushSpillBuffer();
+    }
+    int[] keys = new int[(int) Math.min(memoryKeys / 2, diskSize)];
+    int taken = 0;
+    try {
+      while (taken < keys.length) {
+        Segment segment = segmentOf[heads.minimumHandle()];
+        //read ahead before taking the head, a failed read takes nothing
+        boolean more = segment.hasNext();
+        keys[taken++] = heads.extractMin();
+        segment.keys--;
+        if (more) {
+          segment.handle = heads.insert(segment.next());
+          segmentOf[segment.handle] = segment;
+        } else {
+          closeSegment(segment);
+          deleteSegment(segment);
+        }
+      }
+    } finally {
+      //keys taken before a failure are the smallest ones, they go to the heap
+      heap = BinomialHeap.of(taken == keys.length ? keys : Arrays.copyOf(keys, taken));
+      heapSize = taken;
+      diskSize -= taken;
+    }
+    refills++;
+  }
+
+  /**
+   * Delete the segment files, the queue is empty afterwards.
+   */
+  @Override
+  public void close() {
+    try {
+      while (!heads.isEmpty()) {
+        Segment segment = segmentOf[heads.minimumHandle()];
+        heads.extractMin();
+        closeSegment(segment);
+        deleteSegment(segment);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      heap = new BinomialHeap();
+      heapSize = 0;
+      spillSize = 0;
+      spillMin = Integer.MAX_VALUE;
+      segments = 0;
+      diskSize = 0;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package binomialheap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compare SpillingBinomialHeap with an in-memory BinomialHeap on an incident
+ * backlog: a burst of inserts far bigger than the memory budget, then a drain where
+ * every third operation is a new insert. Reports ns/op of both phases and the live
+ * Java heap after the burst, measured after a full GC.
+ */
+public class SpillingBinomialHeapBenchmark {
+
+  private static long liveHeapBytes() {
+    System.gc();
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [backlog keys] [memory keys]
+   */
+  public static void main(String[] args) throws IOException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    int memoryKeys = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    Random random = new Random(42);
+    int[] keys = new int[n + n / 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextInt();
+    }
+    Path dir = Files.createTempDirectory("spill");
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long checksum = 0;
+      long base = liveHeapBytes();
+      SpillingBinomialHeap spilling = new SpillingBinomialHeap(memoryKeys, dir);
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        spilling.insert(keys[i]);
+      }
+      long spillingBurst = System.nanoTime() - start;
+      long spillingBytes = liveHeapBytes() - base;
+      start = System.nanoTime();
+      int next = n;
+      for (int i = 0; spilling.size() > 0; i++) {
+        if (i % 3 == 2 && next < keys.length) {
+          spilling.insert(keys[next++]);
+        } else {
+          checksum += spilling.extractMin();
+        }
+      }
+      long spillingDrain = System.nanoTime() - start;
+      String spillCounters = "spills = " + spilling.getSpills() + ", refills = "
+              + spilling.getRefills() + ", compactions = " + spilling.getCompactions()
+              + ", written = " + (spilling.getBytesWritten() >> 20) + " MiB";
+      spilling.close();
+
+      base = liveHeapBytes();
+      BinomialHeap heap = new BinomialHeap();
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        heap.insert(keys[i]);
+      }
+      long heapBurst = System.nanoTime() - start;
+      long heapBytes = liveHeapBytes() - base;
+      start = System.nanoTime();
+      next = n;
+      for (int i = 0; heap.minimum() != null; i++) {
+        if (i % 3 == 2 && next < keys.length) {
+          heap.insert(keys[next++]);
+        } else {
+          checksum -= heap.extractMin().getKey();
+        }
+      }
+      long heapDrain = System.nanoTime() - start;
+
+      if (round == 1) {
+        int drainOps = keys.length - n + keys.length;
+        System.out.println("backlog = " + n + ", memory keys = " + memoryKeys
+                + ", checksum = " + checksum);
+        System.out.println(spillCounters);
+        System.out.printf("%-22s %10s %10s %14s%n", "", "burst ns", "drain ns", "live heap MiB");
+        System.out.printf("%-22s %10.1f %10.1f %14d%n", "SpillingBinomialHeap",
+                (double) spillingBurst / n, (double) spillingDrain / drainOps,
+                spillingBytes >> 20);
+        System.out.printf("%-22s %10.1f %10.1f %14d%n", "BinomialHeap",
+                (double) heapBurst / n, (double) heapDrain / drainOps, heapBytes >> 20);
+      }
+    }
+    Files.delete(dir);
+  }
+}
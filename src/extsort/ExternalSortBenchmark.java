@@ -0,0 +1,109 @@
+package extsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Sort a generated file of random ints bigger than the sort memory and compare the
+ * throughput with the raw disk bandwidth, measured by copying the file once with
+ * the same buffers. An external sort reads and writes every byte once per pass, so
+ * with one merge pass it moves the file through the disk four times (read and write
+ * for run generation, read and write for the merge) where the copy moves it twice.
+ * Its throughput can't beat half the file rate of the copy, which is a quarter of
+ * the printed bandwidth since that counts both the read and the written bytes.
+ * The "% of disk" line compares the bytes the sort moves with the bandwidth, so
+ * 100% means the sort keeps the disk as busy as the copy.
+ * Page cache makes both numbers optimistic for files smaller than RAM.
+ */
+public class ExternalSortBenchmark {
+
+  /**
+   * Main method.
+   *
+   * @param args [file MiB] [memory MiB] [threads] [fan-in] [directory]
+   */
+  public static void main(String[] args) throws IOException {
+    long fileMiB = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+    long memoryMiB = args.length > 1 ? Long.parseLong(args[1]) : 64;
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+    int fanIn = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+    Path dir = Files.createTempDirectory(args.length > 4 ? Paths.get(args[4])
+            : Paths.get(System.getProperty("java.io.tmpdir")), "extsort");
+    Path input = dir.resolve("input.ints");
+    Path copy = dir.resolve("copy.ints");
+    Path output = dir.resolve("output.ints");
+    long bytes = fileMiB << 20;
+    generate(input, bytes, new Random(42));
+
+    ExternalSorter sorter = new ExternalSorter(memoryMiB << 20, threads, fanIn, 1 << 20, dir);
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      copy(input, copy);
+      long copyTime = System.nanoTime() - start;
+      Files.delete(copy);
+      SortStats stats = sorter.sortInts(input, output);
+      if (round == 1) {
+        double bandwidth = mibPerSecond(2 * bytes, copyTime);
+        double sortRate = mibPerSecond(bytes, stats.getTotalNanos());
+        double ioRate = mibPerSecond(stats.getBytesRead() + stats.getBytesWritten(),
+                stats.getTotalNanos());
+        System.out.println("file = " + fileMiB + " MiB, memory = " + memoryMiB
+                + " MiB, threads = " + threads + ", fan-in = " + fanIn);
+        System.out.println(stats);
+        System.out.printf("disk bandwidth (copy, read + write) %8.1f MiB/s%n", bandwidth);
+        System.out.printf("sort throughput                     %8.1f MiB/s%n", sortRate);
+        System.out.printf("sort I/O rate (read + written)      %8.1f MiB/s, %.0f%% of disk%n",
+                ioRate, 100 * ioRate / bandwidth);
+      }
+      Files.delete(output);
+    }
+    Files.delete(input);
+    Files.delete(dir);
+  }
+
+  private static double mibPerSecond(long bytes, long nanos) {
+    return bytes / (double) (1 << 20) / (nanos / 1e9);
+  }
+
+  private static void generate(Path path, long bytes, Random random) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (long written = 0; written < bytes; written += buffer.capacity()) {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+          buffer.putInt(random.nextInt());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+    }
+  }
+
+  //sequential read and write of the whole file through one direct buffer
+  private static void copy(Path from, Path to) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 22);
+    try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+         FileChannel out = FileChannel.open(to, StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (in.read(buffer) >= 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          out.write(buffer);
+        }
+        buffer.clear();
+      }
+    }
+  }
+}
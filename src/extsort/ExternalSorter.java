@@ -0,0 +1,637 @@
+package extsort;
+
+import binomialheap.BinomialPriorityQueue;
+import binomialheap.IntBinomialHeap;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * External k-way merge sort for files bigger than memory.
+ * Run generation reads memory-sized chunks, sorts them on worker threads and writes
+ * them as runs through direct NIO buffers. The merge keeps the head of every run in
+ * a heap and reads each run through its own read-ahead buffer. With more runs than
+ * the fan-in, groups of runs are merged in parallel into longer runs first, one
+ * pass per level.
+ * Two formats are sorted: binary files of little-endian ints, and word-count text
+ * files of "word count" lines, sorted by word with the counts of equal words summed.
+ */
+public class ExternalSorter {
+
+  private static final int WRITE_BUFFER_BYTES = 1 << 22;
+  //estimated memory of one word-count entry besides its characters
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  private final long memoryBytes;
+  private final int threads;
+  private final int fanIn;
+  private final int readAheadBytes;
+  private final Path tempDir;
+
+  /**
+   * ExternalSorter constructor.
+   *
+   * @param memoryBytes    memory for run generation, shared by the worker threads
+   * @param threads        worker threads for run generation and merge groups
+   * @param fanIn          runs merged at once, at least 2
+   * @param readAheadBytes read buffer of each run during the merge
+   * @param tempDir        directory for runs
+   */
+  public ExternalSorter(long memoryBytes, int threads, int fanIn, int readAheadBytes,
+                        Path tempDir) {
+    if (threads < 1 || fanIn < 2 || readAheadBytes < Integer.BYTES
+            || memoryBytes / threads < Integer.BYTES) {
+      throw new IllegalArgumentException();
+    }
+    this.memoryBytes = memoryBytes;
+    this.threads = threads;
+    this.fanIn = fanIn;
+    this.readAheadBytes = readAheadBytes & -Integer.BYTES;
+    this.tempDir = tempDir;
+  }
+
+  /**
+   * Merge runs into out.
+   */
+  private interface Merger {
+    long merge(List<Path> runs, Path out) throws IOException;
+  }
+
+  /**
+   * Sort a file of little-endian ints.
+   *
+   * @param input  input file
+   * @param output sorted file
+   * @return counters
+   * @throws IOException if a file can't be read or written
+   */
+  public SortStats sortInts(Path input, Path output) throws IOException {
+    SortStats stats = new SortStats();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long start = System.nanoTime();
+      List<Path> runs = generateIntRuns(input, executor, stats);
+      stats.runNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      mergeAll(runs, output, executor, stats, this::mergeInts);
+      stats.mergeNanos = System.nanoTime() - start;
+    } finally {
+      executor.shutdownNow();
+    }
+    return stats;
+  }
+
+  /**
+   * Sort a word-count file by word, summing the counts of equal words.
+   *
+   * @param input  input file of "word count" lines
+   * @param output sorted file of "word count" lines, one per word
+   * @return counters
+   * @throws IOException if a file can't be read or written, or a line is malformed
+   */
+  public SortStats sortWordCounts(Path input, Path output) throws IOException {
+    SortStats stats = new SortStats();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long start = System.nanoTime();
+      List<Path> runs = generateWordRuns(input, executor, stats);
+      stats.runNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      mergeAll(runs, output, executor, stats, this::mergeWordCounts);
+      stats.mergeNanos = System.nanoTime() - start;
+    } finally {
+      executor.shutdownNow();
+    }
+    return stats;
+  }
+
+  /**
+   * Wait for run writers and collect runs in order. If one failed, the runs of the
+   * others are deleted and the first failure is thrown, later ones are suppressed.
+   */
+  private static List<Path> collect(List<Future<Path>> futures) throws IOException {
+    List<Path> runs = new ArrayList<Path>();
+    IOException failure = null;
+    for (Future<Path> future : futures) {
+      IOException e;
+      try {
+        runs.add(future.get());
+        continue;
+      } catch (InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        e = new IOException("Interrupted", interrupted);
+      } catch (ExecutionException failed) {
+        e = failed.getCause() instanceof UncheckedIOException
+                ? ((UncheckedIOException) failed.getCause()).getCause()
+                : new IOException(failed.getCause());
+      }
+      if (failure == null) {
+        failure = e;
+      } else {
+        failure.addSuppressed(e);
+      }
+    }
+    if (failure != null) {
+      delete(runs, failure);
+      throw failure;
+    }
+    return runs;
+  }
+
+  //delete the runs of a failed sort, errors are added to failure
+  private static void delete(List<Path> runs, Throwable failure) {
+    for (Path run : runs) {
+      try {
+        Files.deleteIfExists(run);
+      } catch (IOException e) {
+        failure.addSuppressed(e);
+      }
+    }
+  }
+
+  //wait for the run writers of a failed run generation and delete their runs
+  private static void discard(List<Future<Path>> futures, Throwable failure) {
+    try {
+      delete(collect(futures), failure);
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  private static synchronized void count(SortStats stats, long read, long written) {
+    stats.bytesRead += read;
+    stats.bytesWritten += written;
+  }
+
+  /**
+   * Read chunks of ints while up to threads chunks are sorted and written, the
+   * semaphore keeps the chunks in memory within the budget.
+   */
+  private List<Path> generateIntRuns(Path input, ExecutorService executor, SortStats stats)
+          throws IOException {
+    int chunkInts = (int) Math.min(memoryBytes / threads / Integer.BYTES,
+            Integer.MAX_VALUE - 8);
+    Semaphore permits = new Semaphore(threads);
+    List<Future<Path>> futures = new ArrayList<Future<Path>>();
+    try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+      if (channel.size() % Integer.BYTES != 0) {
+        throw new IOException(input + " is not a file of ints");
+      }
+      ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      long remaining = channel.size() / Integer.BYTES;
+      while (remaining > 0) {
+        int length = (int) Math.min(chunkInts, remaining);
+        permits.acquireUninterruptibly();
+        int[] chunk = new int[length];
+        int filled = 0;
+        while (filled < length) {
+          buffer.clear();
+          buffer.limit((int) Math.min(buffer.capacity(),
+                  (long) (length - filled) * Integer.BYTES));
+          while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+              throw new IOException(input + " ended early");
+            }
+          }
+          buffer.flip();
+          IntBuffer ints = buffer.asIntBuffer();
+          int count = ints.remaining();
+          ints.get(chunk, filled, count);
+          filled += count;
+        }
+        remaining -= length;
+        count(stats, (long) length * Integer.BYTES, 0);
+        futures.add(executor.submit(() -> {
+          try {
+            Arrays.sort(chunk);
+            Path run = Files.createTempFile(tempDir, "run", ".ints");
+            try {
+              writeInts(run, chunk, chunk.length);
+            } catch (IOException e) {
+              delete(Arrays.asList(run), e);
+              throw e;
+            }
+            count(stats, 0, (long) chunk.length * Integer.BYTES);
+            return run;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          } finally {
+            permits.release();
+          }
+        }));
+      }
+    } catch (IOException | RuntimeException e) {
+      discard(futures, e);
+      throw e;
+    }
+    List<Path> runs = collect(futures);
+    stats.runs = runs.size();
+    return runs;
+  }
+
+  private static void writeInts(Path path, int[] values, int length) throws IOException {
+    try (IntWriter writer = new IntWriter(path)) {
+      for (int i = 0; i < length; i++) {
+        writer.write(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Merge groups of fanIn runs in parallel until at most fanIn runs are left, then
+   * merge those into output. Merged runs are deleted, and so are all runs if a merge
+   * fails.
+   */
+  private void mergeAll(List<Path> runs, Path output, ExecutorService executor,
+                        SortStats stats, Merger merger) throws IOException {
+    while (runs.size() > fanIn) {
+      List<Future<Path>> futures = new ArrayList<Future<Path>>();
+      for (int i = 0; i < runs.size(); i += fanIn) {
+        List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+        futures.add(executor.submit(() -> {
+          try {
+            Path merged = Files.createTempFile(tempDir, "merge", ".run");
+            try {
+              mergeAndCount(group, merged, stats, merger);
+            } catch (IOException | RuntimeException e) {
+              delete(Arrays.asList(merged), e);
+              throw e;
+            }
+            return merged;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }));
+      }
+      try {
+        runs = collect(futures);
+      } catch (IOException e) {
+        //groups that merged deleted their runs already
+        delete(runs, e);
+        throw e;
+      }
+      stats.mergePasses++;
+    }
+    try {
+      mergeAndCount(runs, output, stats, merger);
+    } catch (IOException | RuntimeException e) {
+      delete(runs, e);
+      throw e;
+    }
+    if (!runs.isEmpty()) {
+      stats.mergePasses++;
+    }
+  }
+
+  private static void mergeAndCount(List<Path> runs, Path out, SortStats stats, Merger merger)
+          throws IOException {
+    long read = 0;
+    for (Path run : runs) {
+      read += Files.size(run);
+    }
+    long written = merger.merge(runs, out);
+    for (Path run : runs) {
+      Files.delete(run);
+    }
+    count(stats, read, written);
+  }
+
+  /**
+   * Merge int runs with the run heads in an IntBinomialHeap, runOf maps the handle
+   * of a head to its run. Handles are recycled, so every extractMin frees the handle
+   * the next insert gets.
+   *
+   * @return bytes written
+   */
+  private long mergeInts(List<Path> runs, Path out) throws IOException {
+    IntReader[] readers = new IntReader[runs.size()];
+    IntWriter writer = new IntWriter(out);
+    try {
+      IntBinomialHeap heap = new IntBinomialHeap(Math.max(runs.size(), 1));
+      int[] runOf = new int[runs.size() + 1];
+      for (int i = 0; i < readers.length; i++) {
+        readers[i] = new IntReader(runs.get(i), readAheadBytes);
+        if (readers[i].hasNext()) {
+          runOf[heap.insert(readers[i].next())] = i;
+        }
+      }
+      while (!heap.isEmpty()) {
+        int run = runOf[heap.minimumHandle()];
+        writer.write(heap.extractMin());
+        if (readers[run].hasNext()) {
+          runOf[heap.insert(readers[run].next())] = run;
+        }
+      }
+    } finally {
+      writer.close();
+      for (IntReader reader : readers) {
+        if (reader != null) {
+          reader.close();
+        }
+      }
+    }
+    //counted once close flushed the last buffer
+    return writer.written;
+  }
+
+  /**
+   * Writer of little-endian ints through a direct buffer.
+   */
+  private static final class IntWriter implements AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    long written;
+
+    IntWriter(Path path) throws IOException {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+      buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void write(int value) throws IOException {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.putInt(value);
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      written += buffer.remaining();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Reader of little-endian ints with a read-ahead buffer.
+   */
+  private static final class IntReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean eof;
+
+    IntReader(Path path, int readAheadBytes) throws IOException {
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+      buffer = ByteBuffer.allocateDirect(readAheadBytes).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.flip();
+    }
+
+    boolean hasNext() throws IOException {
+      if (buffer.hasRemaining()) {
+        return true;
+      }
+      if (eof) {
+        return false;
+      }
+      buffer.clear();
+      //runs hold whole ints, fill until the buffer is full or the run ends
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          eof = true;
+          break;
+        }
+      }
+      buffer.flip();
+      return buffer.hasRemaining();
+    }
+
+    int next() {
+      return buffer.getInt();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * Read lines, sum counts per word in a map until the chunk's memory estimate is
+   * used, then sort and write the map as a run on a worker thread.
+   */
+  private List<Path> generateWordRuns(Path input, ExecutorService executor, SortStats stats)
+          throws IOException {
+    long chunkBytes = memoryBytes / threads;
+    Semaphore permits = new Semaphore(threads);
+    List<Future<Path>> futures = new ArrayList<Future<Path>>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            Files.newInputStream(input), StandardCharsets.UTF_8), readAheadBytes)) {
+      Map<String, Long> counts = new HashMap<String, Long>();
+      long used = 0;
+      String line;
+      int lineNumber = 0;
+      permits.acquireUninterruptibly();
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isEmpty()) {
+          continue;
+        }
+        int space = line.lastIndexOf(' ');
+        long count;
+        try {
+          count = Long.parseLong(line.substring(space + 1));
+        } catch (NumberFormatException e) {
+          throw new IOException(input + ":" + lineNumber + ": expected \"word count\"", e);
+        }
+        if (space <= 0) {
+          throw new IOException(input + ":" + lineNumber + ": expected \"word count\"");
+        }
+        String word = line.substring(0, space);
+        Long old = counts.get(word);
+        if (old == null) {
+          used += 2L * word.length() + ENTRY_OVERHEAD_BYTES;
+          counts.put(word, count);
+        } else {
+          counts.put(word, old + count);
+        }
+        if (used >= chunkBytes) {
+          futures.add(submitWordRun(counts, executor, stats, permits));
+          counts = new HashMap<String, Long>();
+          used = 0;
+          permits.acquireUninterruptibly();
+        }
+      }
+      if (!counts.isEmpty()) {
+        futures.add(submitWordRun(counts, executor, stats, permits));
+      } else {
+        permits.release();
+      }
+      //the encoded size, lines are decoded to chars
+      count(stats, Files.size(input), 0);
+    } catch (IOException | RuntimeException e) {
+      discard(futures, e);
+      throw e;
+    }
+    List<Path> runs = collect(futures);
+    stats.runs = runs.size();
+    return runs;
+  }
+
+  private Future<Path> submitWordRun(Map<String, Long> counts, ExecutorService executor,
+                                     SortStats stats, Semaphore permits) {
+    return executor.submit(() -> {
+      try {
+        String[] words = counts.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        Path run = Files.createTempFile(tempDir, "run", ".words");
+        try (BufferedWriter writer = newWriter(run)) {
+          for (String word : words) {
+            writer.write(word + ' ' + counts.get(word));
+            writer.newLine();
+          }
+        } catch (IOException e) {
+          delete(Arrays.asList(run), e);
+          throw e;
+        }
+        count(stats, 0, Files.size(run));
+        return run;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        permits.release();
+      }
+    });
+  }
+
+  private static BufferedWriter newWriter(Path path) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path),
+            StandardCharsets.UTF_8), WRITE_BUFFER_BYTES);
+  }
+
+  /**
+   * Line reader of a word-count run, the current line is the run's head.
+   */
+  private static final class WordReader implements AutoCloseable {
+    private final BufferedReader reader;
+    String word;
+    long count;
+
+    WordReader(Path path, int readAheadBytes) throws IOException {
+      reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path),
+              StandardCharsets.UTF_8), readAheadBytes);
+    }
+
+    boolean advance() throws IOException {
+      String line = reader.readLine();
+      if (line == null) {
+        return false;
+      }
+      int space = line.lastIndexOf(' ');
+      word = line.substring(0, space);
+      count = Long.parseLong(line.substring(space + 1));
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Merge word-count runs with the run heads in a BinomialPriorityQueue ordered by
+   * word, counts of equal words from different runs are summed.
+   *
+   * @return bytes written, as encoded
+   */
+  private long mergeWordCounts(List<Path> runs, Path out) throws IOException {
+    List<WordReader> readers = new ArrayList<WordReader>();
+    try (BufferedWriter writer = newWriter(out)) {
+      BinomialPriorityQueue<WordReader> heap = new BinomialPriorityQueue<WordReader>(
+              Comparator.comparing((WordReader reader) -> reader.word), false);
+      for (Path run : runs) {
+        WordReader reader = new WordReader(run, readAheadBytes);
+        readers.add(reader);
+        if (reader.advance()) {
+          heap.insert(reader);
+        }
+      }
+      String word = null;
+      long count = 0;
+      while (!heap.isEmpty()) {
+        WordReader reader = heap.extractMin().getPayload();
+        if (!reader.word.equals(word)) {
+          if (word != null) {
+            writer.write(word + ' ' + count);
+            writer.newLine();
+          }
+          word = reader.word;
+          count = 0;
+        }
+        count += reader.count;
+        if (reader.advance()) {
+          heap.insert(reader);
+        }
+      }
+      if (word != null) {
+        writer.write(word + ' ' + count);
+        writer.newLine();
+      }
+    } finally {
+      for (WordReader reader : readers) {
+        reader.close();
+      }
+    }
+    return Files.size(out);
+  }
+
+  /**
+   * Sort a file from the command line.
+   *
+   * @param args ints|words input output [memory MiB] [threads] [fan-in]
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.out.println("usage: ExternalSorter ints|words input output"
+              + " [memory MiB] [threads] [fan-in]");
+      return;
+    }
+    long memory = (args.length > 3 ? Long.parseLong(args[3]) : 256) << 20;
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+    int fanIn = args.length > 5 ? Integer.parseInt(args[5]) : 64;
+    Path output = Paths.get(args[2]);
+    Path tempDir = output.toAbsolutePath().getParent();
+    ExternalSorter sorter = new ExternalSorter(memory, threads, fanIn, 1 << 20, tempDir);
+    SortStats stats = args[0].equals("words")
+            ? sorter.sortWordCounts(Paths.get(args[1]), output)
+            : sorter.sortInts(Paths.get(args[1]), output);
+    System.out.println(stats);
+  }
+}
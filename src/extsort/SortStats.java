@@ -0,0 +1,69 @@
+package extsort;
+
+/**
+ * Counters of one external sort.
+ */
+public class SortStats {
+
+  int runs;
+  int mergePasses;
+  long bytesRead;
+  long bytesWritten;
+  long runNanos;
+  long mergeNanos;
+
+  /**
+   * Get the number of sorted runs written by run generation.
+   *
+   * @return initial runs
+   */
+  public int getRuns() {
+    return runs;
+  }
+
+  /**
+   * Get the number of merge passes, the last one writes the output.
+   *
+   * @return merge passes, 0 if the input was empty
+   */
+  public int getMergePasses() {
+    return mergePasses;
+  }
+
+  /**
+   * Get the bytes read from the input and from runs.
+   *
+   * @return bytes read
+   */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * Get the bytes written to runs and to the output.
+   *
+   * @return bytes written
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public long getRunNanos() {
+    return runNanos;
+  }
+
+  public long getMergeNanos() {
+    return mergeNanos;
+  }
+
+  public long getTotalNanos() {
+    return runNanos + mergeNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "runs = " + runs + ", merge passes = " + mergePasses + ", read = " + bytesRead
+            + " B, written = " + bytesWritten + " B, run generation = " + runNanos / 1_000_000
+            + " ms, merge = " + mergeNanos / 1_000_000 + " ms";
+  }
+}
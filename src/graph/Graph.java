@@ -0,0 +1,163 @@
+package graph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Weighted directed graph in compressed sparse row (CSR) form.
+ * The edges of vertex v are the indices offsets[v] .. offsets[v + 1] - 1 of the
+ * targets and weights arrays, so a graph with n vertices and m edges takes
+ * 4(n + 1) + 8m bytes and scanning the edges of a vertex is a sequential read.
+ */
+public class Graph {
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+
+  private Graph(int[] offsets, int[] targets, int[] weights) {
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+  }
+
+  /**
+   * Build a graph from parallel edge arrays.
+   *
+   * @param vertexCount number of vertices, ids are 0 .. vertexCount - 1
+   * @param from        source of each edge
+   * @param to          target of each edge
+   * @param weight      non-negative weight of each edge
+   * @param edgeCount   number of edges used in the arrays
+   * @param undirected  add every edge in both directions
+   * @return graph
+   */
+  public static Graph fromEdges(int vertexCount, int[] from, int[] to, int[] weight,
+                                int edgeCount, boolean undirected) {
+    int[] offsets = new int[vertexCount + 1];
+    for (int e = 0; e < edgeCount; e++) {
+      if (from[e] < 0 || from[e] >= vertexCount || to[e] < 0 || to[e] >= vertexCount) {
+        throw new IllegalArgumentException("Edge " + from[e] + " -> " + to[e]
+                + " has a vertex out of range");
+      }
+      if (weight[e] < 0) {
+        throw new IllegalArgumentException("Edge " + from[e] + " -> " + to[e]
+                + " has a negative weight");
+      }
+      offsets[from[e] + 1]++;
+      if (undirected) {
+        offsets[to[e] + 1]++;
+      }
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    int[] targets = new int[offsets[vertexCount]];
+    int[] weights = new int[offsets[vertexCount]];
+    //next free slot of each vertex
+    int[] fill = Arrays.copyOf(offsets, vertexCount);
+    for (int e = 0; e < edgeCount; e++) {
+      int slot = fill[from[e]]++;
+      targets[slot] = to[e];
+      weights[slot] = weight[e];
+      if (undirected) {
+        slot = fill[to[e]]++;
+        targets[slot] = from[e];
+        weights[slot] = weight[e];
+      }
+    }
+    return new Graph(offsets, targets, weights);
+  }
+
+  /**
+   * Load a graph from an edge list file, one "from to weight" edge per line with
+   * 0-based vertex ids. Blank lines and lines starting with # are skipped, the
+   * number of vertices is the biggest id plus one.
+   *
+   * @param path       file path
+   * @param undirected add every edge in both directions
+   * @return graph
+   * @throws IOException if the file can't be read or a line is malformed
+   */
+  public static Graph fromEdgeList(Path path, boolean undirected) throws IOException {
+    int[] from = new int[1024];
+    int[] to = new int[1024];
+    int[] weight = new int[1024];
+    int edgeCount = 0;
+    int vertexCount = 0;
+    try (BufferedReader reader = Files.newBufferedReader(path)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.charAt(0) == '#') {
+          continue;
+        }
+        String[] fields = line.split("\\s+");
+        if (fields.length != 3) {
+          throw new IOException(path + ":" + lineNumber + ": expected \"from to weight\"");
+        }
+        if (edgeCount == from.length) {
+          from = Arrays.copyOf(from, edgeCount * 2);
+          to = Arrays.copyOf(to, edgeCount * 2);
+          weight = Arrays.copyOf(weight, edgeCount * 2);
+        }
+        try {
+          from[edgeCount] = Integer.parseInt(fields[0]);
+          to[edgeCount] = Integer.parseInt(fields[1]);
+          weight[edgeCount] = Integer.parseInt(fields[2]);
+        } catch (NumberFormatException e) {
+          throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+        }
+        vertexCount = Math.max(vertexCount,
+                Math.max(from[edgeCount], to[edgeCount]) + 1);
+        edgeCount++;
+      }
+    }
+    try {
+      return fromEdges(vertexCount, from, to, weight, edgeCount, undirected);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(path + ": " + e.getMessage(), e);
+    }
+  }
+
+  public int vertexCount() {
+    return offsets.length - 1;
+  }
+
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Get the index of the first edge of vertex v.
+   *
+   * @param v vertex
+   * @return first edge index
+   */
+  public int edgeStart(int v) {
+    return offsets[v];
+  }
+
+  /**
+   * Get the index past the last edge of vertex v.
+   *
+   * @param v vertex
+   * @return end edge index
+   */
+  public int edgeEnd(int v) {
+    return offsets[v + 1];
+  }
+
+  public int target(int edge) {
+    return targets[edge];
+  }
+
+  public int weight(int edge) {
+    return weights[edge];
+  }
+}
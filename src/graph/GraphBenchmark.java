@@ -0,0 +1,130 @@
+package graph;
+
+import binomialheap.BinomialPriorityQueue;
+import binomialheap.DaryHeap;
+import binomialheap.FibonacciHeap;
+import binomialheap.PairingHeap;
+import binomialheap.PriorityQueueEngine;
+import binomialheap.RadixHeap;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Run Dijkstra, A* and Prim with every heap engine on a synthetic road-like graph
+ * and report wall time and heap-operation counts.
+ * The road-like graph is a side x side grid with about 10% of its streets removed,
+ * edge weights are 10 to 109 per unit of grid distance, so 10 times the Manhattan
+ * distance is a consistent A* heuristic.
+ */
+public class GraphBenchmark {
+
+  private static final int MIN_WEIGHT = 10;
+
+  private static final String[] NAMES = {
+    "BinomialPriorityQueue", "PairingHeap", "DaryHeap(4)", "FibonacciHeap", "RadixHeap"
+  };
+
+  private static final List<Supplier<PriorityQueueEngine<Integer>>> ENGINES = Arrays.asList(
+          BinomialPriorityQueue::new, PairingHeap::new, DaryHeap::new, FibonacciHeap::new,
+          RadixHeap::new);
+
+  /**
+   * Build the road-like grid graph, vertex v is at (v % side, v / side).
+   *
+   * @param side grid side
+   * @param seed random seed
+   * @return undirected graph
+   */
+  static Graph roadGrid(int side, long seed) {
+    Random random = new Random(seed);
+    int n = side * side;
+    int capacity = 2 * n;
+    int[] from = new int[capacity];
+    int[] to = new int[capacity];
+    int[] weight = new int[capacity];
+    int m = 0;
+    for (int v = 0; v < n; v++) {
+      int x = v % side;
+      int y = v / side;
+      //keep 90% of the streets to the east and to the south
+      if (x + 1 < side && random.nextInt(10) != 0) {
+        from[m] = v;
+        to[m] = v + 1;
+        weight[m++] = MIN_WEIGHT + random.nextInt(100);
+      }
+      if (y + 1 < side && random.nextInt(10) != 0) {
+        from[m] = v;
+        to[m] = v + side;
+        weight[m++] = MIN_WEIGHT + random.nextInt(100);
+      }
+    }
+    return Graph.fromEdges(n, from, to, weight, m, true);
+  }
+
+  private static void report(String name, String algorithm, long time, SearchResult result,
+                             long value) {
+    System.out.printf("%-22s %-9s %8d ms  %s, result = %d%n", name, algorithm,
+            time / 1_000_000, result, value);
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [grid side] or [edge list file], a file is loaded as undirected and
+   *             runs without the A* heuristic
+   */
+  public static void main(String[] args) throws IOException {
+    Graph graph;
+    IntToLongFunction heuristic;
+    int source = 0;
+    int target;
+    if (args.length > 0 && !args[0].matches("\\d+")) {
+      graph = Graph.fromEdgeList(Paths.get(args[0]), true);
+      heuristic = v -> 0;
+      target = graph.vertexCount() - 1;
+    } else {
+      int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+      graph = roadGrid(side, 42);
+      target = side * side - 1;
+      heuristic = v -> (long) MIN_WEIGHT * (Math.abs(v % side - target % side)
+              + Math.abs(v / side - target / side));
+    }
+    System.out.println("vertices = " + graph.vertexCount() + ", edges = " + graph.edgeCount()
+            + ", source = " + source + ", target = " + target);
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      for (int e = 0; e < ENGINES.size(); e++) {
+        long start = System.nanoTime();
+        SearchResult dijkstra = GraphSearch.dijkstra(graph, source, ENGINES.get(e));
+        long dijkstraTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        SearchResult aStar = GraphSearch.aStar(graph, source, target, heuristic, ENGINES.get(e));
+        long aStarTime = System.nanoTime() - start;
+        if (round == 1) {
+          report(NAMES[e], "Dijkstra", dijkstraTime, dijkstra, dijkstra.key(target));
+          report(NAMES[e], "A*", aStarTime, aStar, aStar.key(target));
+        }
+        //Prim's keys aren't monotone, RadixHeap can't run it
+        if (ENGINES.get(e).get() instanceof RadixHeap) {
+          continue;
+        }
+        start = System.nanoTime();
+        SearchResult prim = GraphSearch.prim(graph, ENGINES.get(e));
+        long primTime = System.nanoTime() - start;
+        if (round == 1) {
+          long total = 0;
+          for (int v = 0; v < graph.vertexCount(); v++) {
+            total += prim.key(v);
+          }
+          report(NAMES[e], "Prim", primTime, prim, total);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package graph;
+
+import binomialheap.BinomialPriorityQueue;
+import binomialheap.PriorityQueueEngine;
+import binomialheap.PriorityQueueEngine.Handle;
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Dijkstra, A* and Prim over a CSR graph, each vertex enters the heap once and is
+ * moved by decreaseKey through its handle. The heap engine is supplied by the
+ * caller, BinomialPriorityQueue by default.
+ */
+public final class GraphSearch {
+
+  private GraphSearch() {
+  }
+
+  private static Supplier<PriorityQueueEngine<Integer>> defaultEngine() {
+    return BinomialPriorityQueue::new;
+  }
+
+  /**
+   * Shortest paths from source with a BinomialPriorityQueue.
+   *
+   * @param graph  graph with non-negative weights
+   * @param source source vertex
+   * @return distances and shortest-path tree
+   */
+  public static SearchResult dijkstra(Graph graph, int source) {
+    return dijkstra(graph, source, defaultEngine());
+  }
+
+  /**
+   * Shortest paths from source.
+   *
+   * @param graph  graph with non-negative weights
+   * @param source source vertex
+   * @param engine creates the heap
+   * @return distances and shortest-path tree
+   */
+  public static SearchResult dijkstra(Graph graph, int source,
+                                      Supplier<PriorityQueueEngine<Integer>> engine) {
+    return aStar(graph, source, -1, v -> 0, engine);
+  }
+
+  /**
+   * Shortest path from source to target with a BinomialPriorityQueue.
+   *
+   * @param graph     graph with non-negative weights
+   * @param source    source vertex
+   * @param target    target vertex
+   * @param heuristic consistent lower bound of the distance from a vertex to target
+   * @return distances of the settled vertices and their shortest-path tree
+   */
+  public static SearchResult aStar(Graph graph, int source, int target,
+                                   IntToLongFunction heuristic) {
+    return aStar(graph, source, target, heuristic, defaultEngine());
+  }
+
+  /**
+   * Shortest path from source to target, the heap is ordered by distance plus
+   * heuristic and the search stops when target is extracted.
+   * With a consistent heuristic the extracted priorities never decrease, so a
+   * monotone engine such as RadixHeap works too.
+   *
+   * @param graph     graph with non-negative weights
+   * @param source    source vertex
+   * @param target    target vertex, -1 to settle every reachable vertex
+   * @param heuristic consistent lower bound of the distance from a vertex to target
+   * @param engine    creates the heap
+   * @return distances of the settled vertices and their shortest-path tree
+   */
+  public static SearchResult aStar(Graph graph, int source, int target,
+                                   IntToLongFunction heuristic,
+                                   Supplier<PriorityQueueEngine<Integer>> engine) {
+    int n = graph.vertexCount();
+    checkVertex(graph, source);
+    if (target != -1) {
+      checkVertex(graph, target);
+    }
+    long[] distance = new long[n];
+    int[] parent = new int[n];
+    Arrays.fill(distance, SearchResult.UNREACHED);
+    Arrays.fill(parent, SearchResult.NO_PARENT);
+    SearchResult result = new SearchResult(distance, parent);
+    Handle<Integer>[] handles = newHandles(n);
+    boolean[] settled = new boolean[n];
+
+    PriorityQueueEngine<Integer> heap = engine.get();
+    distance[source] = 0;
+    handles[source] = heap.insert(heuristic.applyAsLong(source), source);
+    result.inserts++;
+    while (!heap.isEmpty()) {
+      int u = heap.extractMin().getPayload();
+      result.extractMins++;
+      settled[u] = true;
+      if (u == target) {
+        break;
+      }
+      for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+        int v = graph.target(e);
+        long candidate = distance[u] + graph.weight(e);
+        if (settled[v] || candidate >= distance[v]) {
+          continue;
+        }
+        distance[v] = candidate;
+        parent[v] = u;
+        long priority = candidate + heuristic.applyAsLong(v);
+        if (handles[v] == null) {
+          handles[v] = heap.insert(priority, v);
+          result.inserts++;
+        } else {
+          heap.decreaseKey(handles[v], priority);
+          result.decreaseKeys++;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Minimum spanning forest with a BinomialPriorityQueue.
+   *
+   * @param graph undirected graph, every edge stored in both directions
+   * @return edge weight to the parent of each vertex and the forest
+   */
+  public static SearchResult prim(Graph graph) {
+    return prim(graph, defaultEngine());
+  }
+
+  /**
+   * Minimum spanning forest by Prim's algorithm, started again from every vertex
+   * not reached yet. The key of a vertex is the lightest edge that connects it to
+   * the tree, the keys extracted are not monotone so RadixHeap can't be used.
+   *
+   * @param graph  undirected graph, every edge stored in both directions
+   * @param engine creates the heap
+   * @return edge weight to the parent of each vertex and the forest
+   */
+  public static SearchResult prim(Graph graph, Supplier<PriorityQueueEngine<Integer>> engine) {
+    int n = graph.vertexCount();
+    long[] key = new long[n];
+    int[] parent = new int[n];
+    Arrays.fill(key, SearchResult.UNREACHED);
+    Arrays.fill(parent, SearchResult.NO_PARENT);
+    SearchResult result = new SearchResult(key, parent);
+    Handle<Integer>[] handles = newHandles(n);
+    boolean[] inTree = new boolean[n];
+
+    PriorityQueueEngine<Integer> heap = engine.get();
+    for (int root = 0; root < n; root++) {
+      if (inTree[root]) {
+        continue;
+      }
+      key[root] = 0;
+      handles[root] = heap.insert(0, root);
+      result.inserts++;
+      while (!heap.isEmpty()) {
+        int u = heap.extractMin().getPayload();
+        result.extractMins++;
+        inTree[u] = true;
+        for (int e = graph.edgeStart(u), end = graph.edgeEnd(u); e < end; e++) {
+          int v = graph.target(e);
+          long w = graph.weight(e);
+          if (inTree[v] || w >= key[v]) {
+            continue;
+          }
+          key[v] = w;
+          parent[v] = u;
+          if (handles[v] == null) {
+            handles[v] = heap.insert(w, v);
+            result.inserts++;
+          } else {
+            heap.decreaseKey(handles[v], w);
+            result.decreaseKeys++;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  //handle of every vertex, generic arrays can't be created so a Handle<?> array is cast
+  @SuppressWarnings("unchecked")
+  private static Handle<Integer>[] newHandles(int n) {
+    return (Handle<Integer>[]) new Handle<?>[n];
+  }
+
+  private static void checkVertex(Graph graph, int v) {
+    if (v < 0 || v >= graph.vertexCount()) {
+      throw new IllegalArgumentException("Vertex " + v + " is out of range");
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package graph;
+
+/**
+ * Result of a heap-driven graph search: the key and parent of every vertex, and
+ * how many heap operations the search made.
+ */
+public class SearchResult {
+
+  //key of an unreached vertex
+  public static final long UNREACHED = Long.MAX_VALUE;
+  //parent of a root or an unreached vertex
+  public static final int NO_PARENT = -1;
+
+  private final long[] keys;
+  private final int[] parents;
+  long inserts;
+  long extractMins;
+  long decreaseKeys;
+
+  SearchResult(long[] keys, int[] parents) {
+    this.keys = keys;
+    this.parents = parents;
+  }
+
+  /**
+   * Get the key of vertex v: its distance for Dijkstra and A*, the weight of the
+   * edge to its parent for Prim.
+   *
+   * @param v vertex
+   * @return key, UNREACHED if v wasn't reached
+   */
+  public long key(int v) {
+    return keys[v];
+  }
+
+  /**
+   * Get the parent of vertex v in the shortest-path tree or spanning tree.
+   *
+   * @param v vertex
+   * @return parent, NO_PARENT for the source, a root or an unreached vertex
+   */
+  public int parent(int v) {
+    return parents[v];
+  }
+
+  /**
+   * Get the path from the root of v's tree to v.
+   *
+   * @param v vertex
+   * @return vertices of the path, empty if v wasn't reached
+   */
+  public int[] pathTo(int v) {
+    if (keys[v] == UNREACHED) {
+      return new int[0];
+    }
+    int length = 1;
+    for (int u = parents[v]; u != NO_PARENT; u = parents[u]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int u = v; u != NO_PARENT; u = parents[u]) {
+      path[--length] = u;
+    }
+    return path;
+  }
+
+  public long getInserts() {
+    return inserts;
+  }
+
+  public long getExtractMins() {
+    return extractMins;
+  }
+
+  public long getDecreaseKeys() {
+    return decreaseKeys;
+  }
+
+  @Override
+  public String toString() {
+    return "inserts = " + inserts + ", extractMins = " + extractMins
+            + ", decreaseKeys = " + decreaseKeys;
+  }
+}
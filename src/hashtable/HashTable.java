@@ -3,6 +3,8 @@ package hashtable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import metrics.HashTableResizeEvent;
+import metrics.Instrumentation;
 
 /**
  * HashTable class.
@@ -15,6 +17,14 @@ public class HashTable {
   private final double peakLoad;
   private int arraySize;
 
+  //estimated bytes of a node: header, key, data, next, prev and outer instance
+  private static final int NODE_BYTES = 32;
+  //nodes compared per find, recorded while instrumentation is enabled
+  private final long[] lookupLengths = new long[16];
+  private long resizes;
+  private long resizeNanos;
+  private long maxResizeNanos;
+
   /**
    * Node class that represents key, data next and prev.
    */
@@ -79,11 +89,13 @@ public class HashTable {
    * Extend current hash table when keyAmount / arraySize  > peakLoad
    */
   public void resize() {
+    long start = System.nanoTime();
+    HashTableResizeEvent event =
+            Instrumentation.isEnabled() ? HashTableResizeEvent.start(arraySize) : null;
     //extend the length of the array to twice the original length
     Node[] newHeadArray = new Node[headArray.length * 2];
     arraySize = arraySize * 2;
     keyAmount = 0;
-    System.out.println("resize the hash table, new arraySize = " + arraySize);
     //iterate original hash table, insert every key-value pair into new hash table
     for (int i = 0; i < headArray.length; i++) {
       if (headArray[i] != null) {
@@ -103,7 +115,13 @@ public class HashTable {
     }
     //update reference to headArray
     headArray = newHeadArray;
-
+    if (event != null) {
+      long nanos = System.nanoTime() - start;
+      resizes++;
+      resizeNanos += nanos;
+      maxResizeNanos = Math.max(maxResizeNanos, nanos);
+      event.finish(arraySize, keyAmount);
+    }
   }
 
   /**
@@ -168,24 +186,100 @@ public class HashTable {
     Node tmp = headArray[index];
     //list is empty
     if (tmp == null) {
+      recordLookup(0);
       return null;
     } else {
+      int compared = 1;
       //check the head
       if (tmp.key.equals(key)) {
+        recordLookup(compared);
         return tmp;
       }
       //traverse the list
       while (tmp.next != null) {
         tmp = tmp.next;
+        compared++;
         if (tmp.key.equals(key)) {
+          recordLookup(compared);
           return tmp;
         }
       }
+      recordLookup(compared);
     }
     //find no key
     return null;
   }
 
+  private void recordLookup(int compared) {
+    if (Instrumentation.isEnabled()) {
+      lookupLengths[Math.min(compared, lookupLengths.length - 1)]++;
+    }
+  }
+
+  /**
+   * Get the number of keys.
+   *
+   * @return keys
+   */
+  public int size() {
+    return keyAmount;
+  }
+
+  public int getCapacity() {
+    return arraySize;
+  }
+
+  /**
+   * Get the number of buckets per chain length by scanning the table.
+   *
+   * @param maxLength last bucket of the histogram, it counts longer chains too
+   * @return buckets with 0, 1 ... maxLength keys
+   */
+  public long[] chainLengthHistogram(int maxLength) {
+    long[] histogram = new long[maxLength + 1];
+    Node[] array = headArray;
+    for (Node head : array) {
+      int length = 0;
+      for (Node tmp = head; tmp != null; tmp = tmp.next) {
+        length++;
+      }
+      histogram[Math.min(length, maxLength)]++;
+    }
+    return histogram;
+  }
+
+  /**
+   * Get the number of finds per number of nodes compared, recorded while
+   * instrumentation is enabled. Delete and increase find too.
+   *
+   * @return finds that compared 0, 1 ... 15 or more nodes
+   */
+  public long[] getLookupLengthHistogram() {
+    return lookupLengths.clone();
+  }
+
+  public long getResizes() {
+    return resizes;
+  }
+
+  public long getTotalResizeNanos() {
+    return resizeNanos;
+  }
+
+  public long getMaxResizeNanos() {
+    return maxResizeNanos;
+  }
+
+  /**
+   * Estimate the bytes per key, a node plus its share of the bucket array with
+   * compressed references, the key strings aren't counted.
+   *
+   * @return bytes per key
+   */
+  public double estimatedBytesPerEntry() {
+    return NODE_BYTES + (double) Integer.BYTES * headArray.length / Math.max(keyAmount, 1);
+  }
+
   /**
    * List all elements in the hashtable.
    */
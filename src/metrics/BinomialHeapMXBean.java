@@ -0,0 +1,34 @@
+package metrics;
+
+/**
+ * Metrics of a BinomialHeap.
+ */
+public interface BinomialHeapMXBean {
+
+  int getKeys();
+
+  boolean isLazy();
+
+  /**
+   * Get the number of roots, computed by walking the root list.
+   *
+   * @return roots
+   */
+  int getRootListLength();
+
+  /**
+   * Get the number of trees linked by union and consolidate, recorded while enabled.
+   *
+   * @return links
+   */
+  long getLinks();
+
+  /**
+   * Get the number of unions and consolidations, recorded while enabled.
+   *
+   * @return consolidations
+   */
+  long getConsolidations();
+
+  double getEstimatedBytesPerEntry();
+}
@@ -0,0 +1,38 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Root-list length and linking work of a registered BinomialHeap, sampled once per
+ * period of a recording while instrumentation is enabled.
+ */
+@Name("datastructure.BinomialHeapStatistics")
+@Label("BinomialHeap Statistics")
+@Category({"Data Structures", "BinomialHeap"})
+@Description("Size, root list and consolidation work of a registered BinomialHeap")
+@Period("1 s")
+public class BinomialHeapStatisticsEvent extends Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Keys")
+  int keys;
+
+  @Label("Root List Length")
+  int rootListLength;
+
+  @Label("Links")
+  long links;
+
+  @Label("Consolidations")
+  long consolidations;
+
+  @Label("Estimated Bytes per Entry")
+  double bytesPerEntry;
+}
@@ -0,0 +1,36 @@
+package metrics;
+
+/**
+ * Metrics of a HashTable. Histograms are indexed by length, the last bucket counts
+ * everything longer.
+ */
+public interface HashTableMXBean {
+
+  int getKeys();
+
+  int getCapacity();
+
+  double getLoadFactor();
+
+  /**
+   * Get the number of buckets per chain length, computed by scanning the table.
+   *
+   * @return buckets with 0, 1, 2... keys
+   */
+  long[] getChainLengthHistogram();
+
+  /**
+   * Get the number of finds per number of nodes compared, recorded while enabled.
+   *
+   * @return finds that compared 0, 1, 2... nodes
+   */
+  long[] getLookupLengthHistogram();
+
+  long getResizes();
+
+  long getTotalResizeNanos();
+
+  long getMaxResizeNanos();
+
+  double getEstimatedBytesPerEntry();
+}
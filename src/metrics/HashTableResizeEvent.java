@@ -0,0 +1,60 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a HashTable resize, its duration is the rehash.
+ */
+@Name("datastructure.HashTableResize")
+@Label("HashTable Resize")
+@Category({"Data Structures", "HashTable"})
+@Description("Bucket array doubled and every key rehashed")
+public class HashTableResizeEvent extends Event {
+
+  @Label("Old Capacity")
+  int oldCapacity;
+
+  @Label("New Capacity")
+  int newCapacity;
+
+  @Label("Keys")
+  int keys;
+
+  @Label("New Array Size")
+  @DataAmount
+  long arrayBytes;
+
+  /**
+   * Start timing a resize.
+   *
+   * @param oldCapacity buckets before the resize
+   * @return event, pass it to finish
+   */
+  public static HashTableResizeEvent start(int oldCapacity) {
+    HashTableResizeEvent event = new HashTableResizeEvent();
+    event.oldCapacity = oldCapacity;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Commit the resize, if the event is enabled in a recording and over its threshold.
+   *
+   * @param newCapacity buckets after the resize
+   * @param keys        keys rehashed
+   */
+  public void finish(int newCapacity, int keys) {
+    end();
+    if (shouldCommit()) {
+      this.newCapacity = newCapacity;
+      this.keys = keys;
+      arrayBytes = (long) newCapacity * Integer.BYTES;
+      commit();
+    }
+  }
+}
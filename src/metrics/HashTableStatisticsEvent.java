@@ -0,0 +1,44 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+/**
+ * Load and resize history of a registered HashTable, sampled once per period of a
+ * recording while instrumentation is enabled. Chain lengths are left to JMX, the
+ * histogram walks every bucket.
+ */
+@Name("datastructure.HashTableStatistics")
+@Label("HashTable Statistics")
+@Category({"Data Structures", "HashTable"})
+@Description("Size, load and resizes of a registered HashTable")
+@Period("1 s")
+public class HashTableStatisticsEvent extends Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Keys")
+  int keys;
+
+  @Label("Capacity")
+  int capacity;
+
+  @Label("Load Factor")
+  double loadFactor;
+
+  @Label("Resizes")
+  long resizes;
+
+  @Label("Max Resize Duration")
+  @Timespan
+  long maxResizeNanos;
+
+  @Label("Estimated Bytes per Entry")
+  double bytesPerEntry;
+}
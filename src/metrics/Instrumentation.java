@@ -0,0 +1,428 @@
+package metrics;
+
+import binomialheap.BinomialHeap;
+import hashtable.HashTable;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import jdk.jfr.FlightRecorder;
+import rbtree.RBTree;
+import skiplist.SkipList;
+
+/**
+ * Switch and registry of the hot-path instrumentation of HashTable, SkipList, RBTree
+ * and BinomialHeap.
+ * Structures always keep their counters, but only count while the switch is on: a
+ * disabled hot path costs one read of a volatile boolean. The switch starts from the
+ * system property datastructure.instrumentation and can be flipped at runtime, from
+ * code or through the datastructure:type=Instrumentation MBean.
+ * Registered structures are exposed as MXBeans named
+ * datastructure:type=&lt;structure&gt;,name=&lt;name&gt;, and emit a statistics JFR
+ * event every second of a recording while the switch is on. The structures aren't
+ * thread-safe, so values read by JMX and JFR threads are snapshots of racing reads.
+ */
+public final class Instrumentation {
+
+  private static final String DOMAIN = "datastructure";
+
+  private static volatile boolean enabled = Boolean.getBoolean("datastructure.instrumentation");
+  //MXBean adapters of registered structures
+  private static final Map<ObjectName, Object> REGISTERED = new ConcurrentHashMap<>();
+  private static boolean initialized;
+
+  private Instrumentation() {
+  }
+
+  /**
+   * Check if structures record hot-path metrics.
+   *
+   * @return true if enabled
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switch recording of hot-path metrics, counters keep their values while disabled.
+   *
+   * @param on enable
+   */
+  public static void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  /**
+   * Register a HashTable for JMX and JFR.
+   *
+   * @param name  name of the table
+   * @param table table
+   * @return MBean name, for unregister
+   */
+  public static ObjectName register(String name, HashTable table) {
+    return register("HashTable", name, new HashTableBean(name, table), HashTableMXBean.class);
+  }
+
+  /**
+   * Register a SkipList for JMX and JFR.
+   *
+   * @param name name of the list
+   * @param list list
+   * @return MBean name, for unregister
+   */
+  public static ObjectName register(String name, SkipList list) {
+    return register("SkipList", name, new SkipListBean(name, list), SkipListMXBean.class);
+  }
+
+  /**
+   * Register an RBTree for JMX and JFR.
+   *
+   * @param name name of the tree
+   * @param tree tree
+   * @return MBean name, for unregister
+   */
+  public static ObjectName register(String name, RBTree<?> tree) {
+    return register("RBTree", name, new RBTreeBean(name, tree), RBTreeMXBean.class);
+  }
+
+  /**
+   * Register a BinomialHeap for JMX and JFR.
+   *
+   * @param name name of the heap
+   * @param heap heap
+   * @return MBean name, for unregister
+   */
+  public static ObjectName register(String name, BinomialHeap heap) {
+    return register("BinomialHeap", name, new BinomialHeapBean(name, heap),
+            BinomialHeapMXBean.class);
+  }
+
+  private static <B> ObjectName register(String type, String name, B bean, Class<B> mxbean) {
+    init();
+    try {
+      ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name="
+              + ObjectName.quote(name));
+      server().registerMBean(new StandardMBean(bean, mxbean, true), objectName);
+      REGISTERED.put(objectName, bean);
+      return objectName;
+    } catch (InstanceAlreadyExistsException e) {
+      throw new IllegalArgumentException(type + " " + name + " is already registered", e);
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalArgumentException("Invalid name " + name, e);
+    } catch (JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Unregister a structure, so it can be garbage collected.
+   *
+   * @param objectName name returned by register
+   */
+  public static void unregister(ObjectName objectName) {
+    REGISTERED.remove(objectName);
+    try {
+      server().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      throw new IllegalArgumentException(objectName + " is not registered", e);
+    } catch (JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MBeanServer server() {
+    return ManagementFactory.getPlatformMBeanServer();
+  }
+
+  //register the control MBean and the periodic JFR events on the first registration
+  private static synchronized void init() {
+    if (initialized) {
+      return;
+    }
+    initialized = true;
+    try {
+      server().registerMBean(new StandardMBean(new Control(),
+              InstrumentationControlMXBean.class, true),
+              new ObjectName(DOMAIN + ":type=Instrumentation"));
+    } catch (InstanceAlreadyExistsException e) {
+      //registered by another class loader, it switches that copy
+    } catch (JMException e) {
+      throw new IllegalStateException(e);
+    }
+    FlightRecorder.addPeriodicEvent(HashTableStatisticsEvent.class, () -> {
+      for (Object bean : beans()) {
+        if (bean instanceof HashTableBean) {
+          ((HashTableBean) bean).emit();
+        }
+      }
+    });
+    FlightRecorder.addPeriodicEvent(SkipListStatisticsEvent.class, () -> {
+      for (Object bean : beans()) {
+        if (bean instanceof SkipListBean) {
+          ((SkipListBean) bean).emit();
+        }
+      }
+    });
+    FlightRecorder.addPeriodicEvent(RBTreeStatisticsEvent.class, () -> {
+      for (Object bean : beans()) {
+        if (bean instanceof RBTreeBean) {
+          ((RBTreeBean) bean).emit();
+        }
+      }
+    });
+    FlightRecorder.addPeriodicEvent(BinomialHeapStatisticsEvent.class, () -> {
+      for (Object bean : beans()) {
+        if (bean instanceof BinomialHeapBean) {
+          ((BinomialHeapBean) bean).emit();
+        }
+      }
+    });
+  }
+
+  //registered beans, none while disabled so periodic events stay quiet
+  private static Iterable<Object> beans() {
+    return enabled ? REGISTERED.values() : Collections.emptyList();
+  }
+
+  private static final class Control implements InstrumentationControlMXBean {
+    @Override
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean on) {
+      enabled = on;
+    }
+
+    @Override
+    public int getRegistered() {
+      return REGISTERED.size();
+    }
+  }
+
+  private static final class HashTableBean implements HashTableMXBean {
+    private final String name;
+    private final HashTable table;
+
+    HashTableBean(String name, HashTable table) {
+      this.name = name;
+      this.table = table;
+    }
+
+    @Override
+    public int getKeys() {
+      return table.size();
+    }
+
+    @Override
+    public int getCapacity() {
+      return table.getCapacity();
+    }
+
+    @Override
+    public double getLoadFactor() {
+      return (double) table.size() / table.getCapacity();
+    }
+
+    @Override
+    public long[] getChainLengthHistogram() {
+      return table.chainLengthHistogram(15);
+    }
+
+    @Override
+    public long[] getLookupLengthHistogram() {
+      return table.getLookupLengthHistogram();
+    }
+
+    @Override
+    public long getResizes() {
+      return table.getResizes();
+    }
+
+    @Override
+    public long getTotalResizeNanos() {
+      return table.getTotalResizeNanos();
+    }
+
+    @Override
+    public long getMaxResizeNanos() {
+      return table.getMaxResizeNanos();
+    }
+
+    @Override
+    public double getEstimatedBytesPerEntry() {
+      return table.estimatedBytesPerEntry();
+    }
+
+    void emit() {
+      HashTableStatisticsEvent event = new HashTableStatisticsEvent();
+      event.name = name;
+      event.keys = getKeys();
+      event.capacity = getCapacity();
+      event.loadFactor = getLoadFactor();
+      event.resizes = getResizes();
+      event.maxResizeNanos = getMaxResizeNanos();
+      event.bytesPerEntry = getEstimatedBytesPerEntry();
+      event.commit();
+    }
+  }
+
+  private static final class SkipListBean implements SkipListMXBean {
+    private final String name;
+    private final SkipList list;
+
+    SkipListBean(String name, SkipList list) {
+      this.name = name;
+      this.list = list;
+    }
+
+    @Override
+    public int getKeys() {
+      return list.size();
+    }
+
+    @Override
+    public int getLevels() {
+      return list.getLevel() + 1;
+    }
+
+    @Override
+    public long[] getLevelHistogram() {
+      return list.levelHistogram();
+    }
+
+    @Override
+    public long[] getSearchHopHistogram() {
+      return list.getSearchHopHistogram();
+    }
+
+    @Override
+    public double getMeanSearchHops() {
+      return list.getMeanSearchHops();
+    }
+
+    @Override
+    public double getEstimatedBytesPerEntry() {
+      return list.estimatedBytesPerEntry();
+    }
+
+    //no bytes per entry, it walks every level
+    void emit() {
+      SkipListStatisticsEvent event = new SkipListStatisticsEvent();
+      event.name = name;
+      event.keys = getKeys();
+      event.levels = getLevels();
+      event.meanSearchHops = getMeanSearchHops();
+      event.commit();
+    }
+  }
+
+  private static final class RBTreeBean implements RBTreeMXBean {
+    private final String name;
+    private final RBTree<?> tree;
+
+    RBTreeBean(String name, RBTree<?> tree) {
+      this.name = name;
+      this.tree = tree;
+    }
+
+    @Override
+    public int getKeys() {
+      return tree.size();
+    }
+
+    @Override
+    public int getHeight() {
+      return heightOf(tree);
+    }
+
+    private static <T extends Comparable<T>> int heightOf(RBTree<T> tree) {
+      return tree.getHeight(tree.getRoot());
+    }
+
+    @Override
+    public long getRotations() {
+      return tree.getRotations();
+    }
+
+    @Override
+    public long getRecolors() {
+      return tree.getRecolors();
+    }
+
+    @Override
+    public double getEstimatedBytesPerEntry() {
+      return tree.estimatedBytesPerEntry();
+    }
+
+    void emit() {
+      RBTreeStatisticsEvent event = new RBTreeStatisticsEvent();
+      event.name = name;
+      event.keys = getKeys();
+      event.height = getHeight();
+      event.rotations = getRotations();
+      event.recolors = getRecolors();
+      event.bytesPerEntry = getEstimatedBytesPerEntry();
+      event.commit();
+    }
+  }
+
+  private static final class BinomialHeapBean implements BinomialHeapMXBean {
+    private final String name;
+    private final BinomialHeap heap;
+
+    BinomialHeapBean(String name, BinomialHeap heap) {
+      this.name = name;
+      this.heap = heap;
+    }
+
+    @Override
+    public int getKeys() {
+      return heap.size();
+    }
+
+    @Override
+    public boolean isLazy() {
+      return heap.isLazy();
+    }
+
+    @Override
+    public int getRootListLength() {
+      return heap.rootListLength();
+    }
+
+    @Override
+    public long getLinks() {
+      return heap.getLinks();
+    }
+
+    @Override
+    public long getConsolidations() {
+      return heap.getConsolidations();
+    }
+
+    @Override
+    public double getEstimatedBytesPerEntry() {
+      return heap.estimatedBytesPerEntry();
+    }
+
+    void emit() {
+      BinomialHeapStatisticsEvent event = new BinomialHeapStatisticsEvent();
+      event.name = name;
+      event.keys = getKeys();
+      event.rootListLength = getRootListLength();
+      event.links = getLinks();
+      event.consolidations = getConsolidations();
+      event.bytesPerEntry = getEstimatedBytesPerEntry();
+      event.commit();
+    }
+  }
+}
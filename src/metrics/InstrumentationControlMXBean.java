@@ -0,0 +1,18 @@
+package metrics;
+
+/**
+ * Switch of the instrumentation, registered as datastructure:type=Instrumentation.
+ */
+public interface InstrumentationControlMXBean {
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  /**
+   * Get the number of structures registered for JMX and JFR.
+   *
+   * @return registered structures
+   */
+  int getRegistered();
+}
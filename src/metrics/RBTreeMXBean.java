@@ -0,0 +1,32 @@
+package metrics;
+
+/**
+ * Metrics of an RBTree.
+ */
+public interface RBTreeMXBean {
+
+  int getKeys();
+
+  /**
+   * Get the height of the tree, maintained in the nodes like the subtree sizes.
+   *
+   * @return height, 0 for an empty tree
+   */
+  int getHeight();
+
+  /**
+   * Get the number of rotations, recorded while enabled.
+   *
+   * @return rotations
+   */
+  long getRotations();
+
+  /**
+   * Get the number of color changes by the fix-ups, recorded while enabled.
+   *
+   * @return recolors
+   */
+  long getRecolors();
+
+  double getEstimatedBytesPerEntry();
+}
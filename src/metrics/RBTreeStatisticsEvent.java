@@ -0,0 +1,37 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Height and rebalancing work of a registered RBTree, sampled once per period.
+ */
+@Name("datastructure.RBTreeStatistics")
+@Label("RBTree Statistics")
+@Category({"Data Structures", "RBTree"})
+@Description("Size, height and fix-up work of a registered RBTree")
+@Period("1 s")
+public class RBTreeStatisticsEvent extends Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Keys")
+  int keys;
+
+  @Label("Height")
+  int height;
+
+  @Label("Rotations")
+  long rotations;
+
+  @Label("Recolors")
+  long recolors;
+
+  @Label("Estimated Bytes per Entry")
+  double bytesPerEntry;
+}
@@ -0,0 +1,30 @@
+package metrics;
+
+/**
+ * Metrics of a SkipList.
+ */
+public interface SkipListMXBean {
+
+  int getKeys();
+
+  int getLevels();
+
+  /**
+   * Get the number of nodes per level, computed by walking every level.
+   *
+   * @return nodes at level 0 (every key), 1, 2...
+   */
+  long[] getLevelHistogram();
+
+  /**
+   * Get the number of searches per number of hops, right and down moves, recorded
+   * while enabled. The last bucket counts everything longer.
+   *
+   * @return searches that took 0, 1, 2... hops
+   */
+  long[] getSearchHopHistogram();
+
+  double getMeanSearchHops();
+
+  double getEstimatedBytesPerEntry();
+}
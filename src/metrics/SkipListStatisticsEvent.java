@@ -0,0 +1,31 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Levels and search cost of a registered SkipList, sampled once per period.
+ */
+@Name("datastructure.SkipListStatistics")
+@Label("SkipList Statistics")
+@Category({"Data Structures", "SkipList"})
+@Description("Size, levels and search hops of a registered SkipList")
+@Period("1 s")
+public class SkipListStatisticsEvent extends Event {
+
+  @Label("Name")
+  String name;
+
+  @Label("Keys")
+  int keys;
+
+  @Label("Levels")
+  int levels;
+
+  @Label("Mean Search Hops")
+  double meanSearchHops;
+}
@@ -0,0 +1,473 @@
+package rbtree;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * In-memory B+-tree with the same operations as RBTree: search, minimum, maximum,
+ * successor, predecessor, insert, delete and ordered scan.
+ * Every node keeps up to order keys in a sorted array searched by binary search,
+ * so one node visit replaces several pointer hops of a binary tree. Keys live in
+ * leaves, and leaves are linked in both directions for scans.
+ */
+public class BPlusTree<T extends Comparable<T>> implements Iterable<T> {
+
+  //enough keys to fill a few cache lines of references
+  private static final int DEFAULT_ORDER = 64;
+
+  private final int order;
+  //minimum number of keys in a node other than root
+  private final int minKeys;
+  private Node root;
+  //the left-most leaf, merging always removes the right node so it never changes
+  private final Leaf head;
+  private int size;
+  //key pushed up by the last split
+  private Object promoted;
+
+  /**
+   * Node class that represents a sorted key array.
+   */
+  private abstract static class Node {
+    //one extra slot holds the overflowing key before a split
+    final Object[] keys;
+    int count;
+
+    Node(int order) {
+      keys = new Object[order + 1];
+    }
+  }
+
+  /**
+   * Leaf node that holds keys and links to neighbouring leaves.
+   */
+  private static final class Leaf extends Node {
+    Leaf next;
+    Leaf prev;
+
+    Leaf(int order) {
+      super(order);
+    }
+  }
+
+  /**
+   * Inner node, children[i] holds keys smaller than keys[i],
+   * children[i + 1] holds keys no smaller than keys[i].
+   */
+  private static final class Inner extends Node {
+    final Node[] children;
+
+    Inner(int order) {
+      super(order);
+      children = new Node[order + 2];
+    }
+  }
+
+  /**
+   * BPlusTree constructor.
+   */
+  public BPlusTree() {
+    this(DEFAULT_ORDER);
+  }
+
+  /**
+   * BPlusTree constructor.
+   *
+   * @param order maximum number of keys in a node
+   */
+  public BPlusTree(int order) {
+    if (order < 3) {
+      throw new IllegalArgumentException("order < 3");
+    }
+    this.order = order;
+    this.minKeys = order / 2;
+    this.head = new Leaf(order);
+    this.root = head;
+    this.size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T keyAt(Node node, int index) {
+    return (T) node.keys[index];
+  }
+
+  //index of key in node, or -(insertion point) - 1
+  private int indexOf(Node node, T key) {
+    return Arrays.binarySearch(node.keys, 0, node.count, key);
+  }
+
+  //index of the child that may contain key
+  private int childIndex(Inner node, T key) {
+    int index = indexOf(node, key);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  private Leaf findLeaf(T key) {
+    Node node = root;
+    while (node instanceof Inner) {
+      Inner inner = (Inner) node;
+      node = inner.children[childIndex(inner, key)];
+    }
+    return (Leaf) node;
+  }
+
+  /**
+   * Search the key.
+   *
+   * @param key key
+   * @return the stored key, null if key doesn't exist
+   */
+  public T search(T key) {
+    Leaf leaf = findLeaf(key);
+    int index = indexOf(leaf, key);
+    return index >= 0 ? keyAt(leaf, index) : null;
+  }
+
+  public boolean contains(T key) {
+    return search(key) != null;
+  }
+
+  /**
+   * Get the minimum key.
+   *
+   * @return minimum key, null if the tree is empty
+   */
+  public T minimum() {
+    return size == 0 ? null : keyAt(head, 0);
+  }
+
+  /**
+   * Get the maximum key.
+   *
+   * @return maximum key, null if the tree is empty
+   */
+  public T maximum() {
+    if (size == 0) {
+      return null;
+    }
+    Node node = root;
+    while (node instanceof Inner) {
+      node = ((Inner) node).children[node.count];
+    }
+    return keyAt(node, node.count - 1);
+  }
+
+  /**
+   * Get the smallest key bigger than key, key doesn't need to exist.
+   *
+   * @param key key
+   * @return successor, null if no key is bigger
+   */
+  public T successor(T key) {
+    Leaf leaf = findLeaf(key);
+    int index = indexOf(leaf, key);
+    index = index >= 0 ? index + 1 : -index - 1;
+    if (index < leaf.count) {
+      return keyAt(leaf, index);
+    }
+    //only the root leaf can be empty, other leaves have at least one key
+    return leaf.next == null ? null : keyAt(leaf.next, 0);
+  }
+
+  /**
+   * Get the biggest key smaller than key, key doesn't need to exist.
+   *
+   * @param key key
+   * @return predecessor, null if no key is smaller
+   */
+  public T predecessor(T key) {
+    Leaf leaf = findLeaf(key);
+    int index = indexOf(leaf, key);
+    index = (index >= 0 ? index : -index - 1) - 1;
+    if (index >= 0) {
+      return keyAt(leaf, index);
+    }
+    return leaf.prev == null ? null : keyAt(leaf.prev, leaf.prev.count - 1);
+  }
+
+  /**
+   * Insert key.
+   *
+   * @param key key
+   * @return false if key already exists
+   */
+  public boolean insert(T key) {
+    int oldSize = size;
+    Node sibling = insert(root, key);
+    if (sibling != null) {
+      //root was split, grow a new root
+      Inner newRoot = new Inner(order);
+      newRoot.keys[0] = promoted;
+      newRoot.children[0] = root;
+      newRoot.children[1] = sibling;
+      newRoot.count = 1;
+      root = newRoot;
+    }
+    return size != oldSize;
+  }
+
+  /**
+   * Insert key into the subtree of node.
+   *
+   * @param node root of subtree
+   * @param key  key
+   * @return the new right sibling if node was split, with its separator in promoted
+   */
+  private Node insert(Node node, T key) {
+    if (node instanceof Leaf) {
+      int index = indexOf(node, key);
+      if (index >= 0) {
+        return null;
+      }
+      insertAt(node, -index - 1, key);
+      size++;
+      return node.count > order ? splitLeaf((Leaf) node) : null;
+    }
+
+    Inner inner = (Inner) node;
+    int index = childIndex(inner, key);
+    Node sibling = insert(inner.children[index], key);
+    if (sibling == null) {
+      return null;
+    }
+    insertAt(inner, index, promoted);
+    System.arraycopy(inner.children, index + 1, inner.children, index + 2,
+            inner.count - index - 1);
+    inner.children[index + 1] = sibling;
+    return inner.count > order ? splitInner(inner) : null;
+  }
+
+  //insert key at index, shift bigger keys right
+  private void insertAt(Node node, int index, Object key) {
+    System.arraycopy(node.keys, index, node.keys, index + 1, node.count - index);
+    node.keys[index] = key;
+    node.count++;
+  }
+
+  private Leaf splitLeaf(Leaf leaf) {
+    Leaf right = new Leaf(order);
+    int leftCount = leaf.count / 2;
+    right.count = leaf.count - leftCount;
+    System.arraycopy(leaf.keys, leftCount, right.keys, 0, right.count);
+    Arrays.fill(leaf.keys, leftCount, leaf.count, null);
+    leaf.count = leftCount;
+    //link right after leaf
+    right.next = leaf.next;
+    right.prev = leaf;
+    if (leaf.next != null) {
+      leaf.next.prev = right;
+    }
+    leaf.next = right;
+    promoted = right.keys[0];
+    return right;
+  }
+
+  private Inner splitInner(Inner inner) {
+    Inner right = new Inner(order);
+    int mid = inner.count / 2;
+    promoted = inner.keys[mid];
+    right.count = inner.count - mid - 1;
+    System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+    System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+    Arrays.fill(inner.keys, mid, inner.count, null);
+    Arrays.fill(inner.children, mid + 1, inner.count + 1, null);
+    inner.count = mid;
+    return right;
+  }
+
+  /**
+   * Delete key.
+   *
+   * @param key key
+   * @return false if key doesn't exist
+   */
+  public boolean delete(T key) {
+    if (!delete(root, key)) {
+      return false;
+    }
+    //root has a single child, shrink the tree
+    if (root instanceof Inner && root.count == 0) {
+      root = ((Inner) root).children[0];
+    }
+    return true;
+  }
+
+  private boolean delete(Node node, T key) {
+    if (node instanceof Leaf) {
+      int index = indexOf(node, key);
+      if (index < 0) {
+        return false;
+      }
+      removeAt(node, index);
+      size--;
+      return true;
+    }
+
+    Inner inner = (Inner) node;
+    int index = childIndex(inner, key);
+    if (!delete(inner.children[index], key)) {
+      return false;
+    }
+    //separators may keep a deleted key, it still routes correctly
+    if (inner.children[index].count < minKeys) {
+      rebalance(inner, index);
+    }
+    return true;
+  }
+
+  //remove key at index, shift bigger keys left
+  private void removeAt(Node node, int index) {
+    System.arraycopy(node.keys, index + 1, node.keys, index, node.count - index - 1);
+    node.count--;
+    node.keys[node.count] = null;
+  }
+
+  /**
+   * Fix the underflow of parent.children[index] by borrowing from or merging
+   * with a sibling.
+   *
+   * @param parent parent node
+   * @param index  index of the child
+   */
+  private void rebalance(Inner parent, int index) {
+    Node child = parent.children[index];
+    Node left = index > 0 ? parent.children[index - 1] : null;
+    Node right = index < parent.count ? parent.children[index + 1] : null;
+
+    if (left != null && left.count > minKeys) {
+      //borrow the biggest key of left sibling
+      if (child instanceof Leaf) {
+        insertAt(child, 0, left.keys[left.count - 1]);
+        removeAt(left, left.count - 1);
+        parent.keys[index - 1] = child.keys[0];
+      } else {
+        Inner inner = (Inner) child;
+        Inner leftInner = (Inner) left;
+        insertAt(inner, 0, parent.keys[index - 1]);
+        System.arraycopy(inner.children, 0, inner.children, 1, inner.count);
+        inner.children[0] = leftInner.children[left.count];
+        leftInner.children[left.count] = null;
+        parent.keys[index - 1] = left.keys[left.count - 1];
+        removeAt(left, left.count - 1);
+      }
+    } else if (right != null && right.count > minKeys) {
+      //borrow the smallest key of right sibling
+      if (child instanceof Leaf) {
+        insertAt(child, child.count, right.keys[0]);
+        removeAt(right, 0);
+        parent.keys[index] = right.keys[0];
+      } else {
+        Inner inner = (Inner) child;
+        Inner rightInner = (Inner) right;
+        insertAt(inner, inner.count, parent.keys[index]);
+        inner.children[inner.count] = rightInner.children[0];
+        parent.keys[index] = right.keys[0];
+        System.arraycopy(rightInner.children, 1, rightInner.children, 0, right.count);
+        rightInner.children[right.count] = null;
+        removeAt(right, 0);
+      }
+    } else if (left != null) {
+      merge(parent, index - 1);
+    } else {
+      merge(parent, index);
+    }
+  }
+
+  /**
+   * Merge parent.children[index + 1] into parent.children[index].
+   *
+   * @param parent parent node
+   * @param index  index of the left child
+   */
+  private void merge(Inner parent, int index) {
+    Node left = parent.children[index];
+    Node right = parent.children[index + 1];
+    if (left instanceof Leaf) {
+      Leaf leftLeaf = (Leaf) left;
+      Leaf rightLeaf = (Leaf) right;
+      System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+      left.count += right.count;
+      leftLeaf.next = rightLeaf.next;
+      if (rightLeaf.next != null) {
+        rightLeaf.next.prev = leftLeaf;
+      }
+    } else {
+      //the separator comes down between the two key arrays
+      Inner leftInner = (Inner) left;
+      left.keys[left.count] = parent.keys[index];
+      System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+      System.arraycopy(((Inner) right).children, 0, leftInner.children, left.count + 1,
+              right.count + 1);
+      left.count += right.count + 1;
+    }
+    removeAt(parent, index);
+    System.arraycopy(parent.children, index + 2, parent.children, index + 1,
+            parent.count - index);
+    parent.children[parent.count + 1] = null;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new LeafIterator(head, 0, null);
+  }
+
+  /**
+   * Iterate keys in [lo, hi] by ascending order along the leaf links.
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return iterator
+   */
+  public Iterator<T> range(T lo, T hi) {
+    Leaf leaf = findLeaf(lo);
+    int index = indexOf(leaf, lo);
+    return new LeafIterator(leaf, index >= 0 ? index : -index - 1, hi);
+  }
+
+  /**
+   * Iterator that scans leaves from a start position until the bound.
+   */
+  private class LeafIterator implements Iterator<T> {
+    private Leaf leaf;
+    private int index;
+    private final T bound;
+
+    LeafIterator(Leaf leaf, int index, T bound) {
+      this.leaf = leaf;
+      this.index = index;
+      this.bound = bound;
+      skipEmpty();
+    }
+
+    //move to the next leaf when the current one is used up
+    private void skipEmpty() {
+      while (leaf != null && index >= leaf.count) {
+        leaf = leaf.next;
+        index = 0;
+      }
+      if (leaf != null && bound != null && keyAt(leaf, index).compareTo(bound) > 0) {
+        leaf = null;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return leaf != null;
+    }
+
+    @Override
+    public T next() {
+      if (leaf == null) {
+        throw new NoSuchElementException();
+      }
+      T key = keyAt(leaf, index++);
+      skipEmpty();
+      return key;
+    }
+  }
+}
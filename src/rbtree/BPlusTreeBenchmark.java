@@ -0,0 +1,96 @@
+package rbtree;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Head-to-head comparison of BPlusTree and RBTree: insert, search, ordered scan
+ * and delete of the same random keys.
+ */
+public class BPlusTreeBenchmark {
+
+  /**
+   * Main method.
+   *
+   * @param args [number of keys] [order of B+-tree]
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    Random random = new Random(42);
+    Integer[] keys = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt();
+    }
+
+    BPlusTree<Integer> bTree = new BPlusTree<Integer>(order);
+    RBTree<Integer> rbTree = new RBTree<Integer>();
+    long[] bTimes = new long[4];
+    long[] rbTimes = new long[4];
+    long checksum = 0;
+
+    long start = System.nanoTime();
+    for (Integer key : keys) {
+      bTree.insert(key);
+    }
+    bTimes[0] = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (Integer key : keys) {
+      if (rbTree.search(rbTree.getRoot(), key) == null) {
+        rbTree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+      }
+    }
+    rbTimes[0] = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (Integer key : keys) {
+      if (bTree.contains(key)) {
+        checksum++;
+      }
+    }
+    bTimes[1] = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (Integer key : keys) {
+      if (rbTree.search(rbTree.getRoot(), key) != null) {
+        checksum--;
+      }
+    }
+    rbTimes[1] = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (Integer key : bTree) {
+      checksum += key;
+    }
+    bTimes[2] = System.nanoTime() - start;
+    start = System.nanoTime();
+    Iterator<Integer> iterator = rbTree.iterator();
+    while (iterator.hasNext()) {
+      checksum -= iterator.next();
+    }
+    rbTimes[2] = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (Integer key : keys) {
+      bTree.delete(key);
+    }
+    bTimes[3] = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (Integer key : keys) {
+      RBTree.RBTNode<Integer> node = rbTree.search(rbTree.getRoot(), key);
+      if (node != null) {
+        rbTree.delete(node);
+      }
+    }
+    rbTimes[3] = System.nanoTime() - start;
+
+    if (checksum != 0) {
+      throw new IllegalStateException("BPlusTree disagrees with RBTree");
+    }
+    String[] names = {"insert", "search", "scan", "delete"};
+    System.out.println("keys = " + size + ", order = " + order + " (ns/key)");
+    for (int i = 0; i < names.length; i++) {
+      System.out.println(names[i] + ": BPlusTree " + bTimes[i] / size + ", RBTree "
+              + rbTimes[i] / size);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package rbtree;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe RBTree for read-heavy workloads.
+ * Writers serialize on a StampedLock, whose version changes around every insert
+ * and delete (including their rotations). Readers traverse without locking and
+ * retry when the version changed, after a few failures they take the read lock.
+ */
+public class ConcurrentRBTree<T extends Comparable<T>> {
+
+  //optimistic attempts before falling back to the read lock
+  private static final int OPTIMISTIC_ATTEMPTS = 4;
+  //no valid path in a red-black tree of int-sized count is longer than this
+  private static final int MAX_STEPS = 128;
+
+  private final RBTree<T> tree;
+  private final StampedLock lock;
+
+  /**
+   * ConcurrentRBTree constructor.
+   */
+  public ConcurrentRBTree() {
+    tree = new RBTree<T>();
+    lock = new StampedLock();
+  }
+
+  /**
+   * Run reader optimistically, retry if a writer changed the tree meanwhile.
+   *
+   * @param reader read-only traversal
+   * @return result of reader
+   */
+  private <R> R read(Supplier<R> reader) {
+    for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp == 0) {
+        //a writer holds the lock
+        Thread.onSpinWait();
+        continue;
+      }
+      try {
+        R result = reader.get();
+        if (lock.validate(stamp)) {
+          return result;
+        }
+      } catch (RuntimeException e) {
+        //a torn read can follow a half-updated pointer, only valid reads may fail
+        if (lock.validate(stamp)) {
+          throw e;
+        }
+      }
+    }
+    long stamp = lock.readLock();
+    try {
+      return reader.get();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  //find the node with key, without recursion so that a torn read can't overflow the stack
+  private RBTree.RBTNode<T> find(T key) {
+    RBTree.RBTNode<T> x = tree.getRoot();
+    for (int steps = 0; x != null; steps++) {
+      if (steps > MAX_STEPS) {
+        throw new IllegalStateException("Path too long");
+      }
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) {
+        return x;
+      }
+      x = cmp < 0 ? x.left : x.right;
+    }
+    return null;
+  }
+
+  //walk to the end of the left or right spine
+  private RBTree.RBTNode<T> spine(RBTree.RBTNode<T> x, boolean leftSpine) {
+    for (int steps = 0; x != null; steps++) {
+      if (steps > MAX_STEPS) {
+        throw new IllegalStateException("Path too long");
+      }
+      RBTree.RBTNode<T> next = leftSpine ? x.left : x.right;
+      if (next == null) {
+        return x;
+      }
+      x = next;
+    }
+    return null;
+  }
+
+  //successor (next = true) or predecessor (next = false) through parent links
+  private T neighbour(T key, boolean next) {
+    RBTree.RBTNode<T> x = find(key);
+    if (x == null) {
+      return null;
+    }
+    RBTree.RBTNode<T> child = next ? x.right : x.left;
+    if (child != null) {
+      return spine(child, next).key;
+    }
+    RBTree.RBTNode<T> y = x.parent;
+    for (int steps = 0; y != null && x == (next ? y.right : y.left); steps++) {
+      if (steps > MAX_STEPS) {
+        throw new IllegalStateException("Path too long");
+      }
+      x = y;
+      y = y.parent;
+    }
+    return y == null ? null : y.key;
+  }
+
+  /**
+   * Check if the tree contains key, lock-free unless writers keep interfering.
+   *
+   * @param key key
+   * @return true if key exists
+   */
+  public boolean contains(T key) {
+    return read(() -> find(key) != null);
+  }
+
+  /**
+   * Get the successor of key.
+   *
+   * @param key key
+   * @return successor key, null if key doesn't exist or has no successor
+   */
+  public T successor(T key) {
+    return read(() -> neighbour(key, true));
+  }
+
+  /**
+   * Get the predecessor of key.
+   *
+   * @param key key
+   * @return predecessor key, null if key doesn't exist or has no predecessor
+   */
+  public T predecessor(T key) {
+    return read(() -> neighbour(key, false));
+  }
+
+  /**
+   * Get the minimum key.
+   *
+   * @return minimum key, null if the tree is empty
+   */
+  public T minimum() {
+    return read(() -> {
+      RBTree.RBTNode<T> x = spine(tree.getRoot(), true);
+      return x == null ? null : x.key;
+    });
+  }
+
+  /**
+   * Get the maximum key.
+   *
+   * @return maximum key, null if the tree is empty
+   */
+  public T maximum() {
+    return read(() -> {
+      RBTree.RBTNode<T> x = spine(tree.getRoot(), false);
+      return x == null ? null : x.key;
+    });
+  }
+
+  /**
+   * Get the number of keys.
+   *
+   * @return number of keys
+   */
+  public int size() {
+    return read(tree::size);
+  }
+
+  /**
+   * Insert key if it doesn't exist.
+   *
+   * @param key key
+   * @return false if key already exists
+   */
+  public boolean insert(T key) {
+    long stamp = lock.writeLock();
+    try {
+      if (tree.search(tree.getRoot(), key) != null) {
+        return false;
+      }
+      tree.insert(new RBTree.RBTNode<T>(key, false, null, null, null));
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Delete key.
+   *
+   * @param key key
+   * @return false if key doesn't exist
+   */
+  public boolean delete(T key) {
+    long stamp = lock.writeLock();
+    try {
+      RBTree.RBTNode<T> node = tree.search(tree.getRoot(), key);
+      if (node == null) {
+        return false;
+      }
+      tree.delete(node);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+}
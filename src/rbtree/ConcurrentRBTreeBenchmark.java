@@ -0,0 +1,93 @@
+package rbtree;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compare read throughput of ConcurrentRBTree against an RBTree behind a global lock,
+ * with 95% contains/successor and 5% insert/delete, from 1 thread up to all cores.
+ */
+public class ConcurrentRBTreeBenchmark {
+
+  private static final int WRITE_PERCENT = 5;
+
+  private interface Workload {
+    void run(int key, int op);
+  }
+
+  private static long measure(int threads, long millis, Workload workload, int range)
+          throws InterruptedException {
+    LongAdder ops = new LongAdder();
+    CountDownLatch done = new CountDownLatch(threads);
+    long deadline = System.nanoTime() + millis * 1_000_000;
+    for (int i = 0; i < threads; i++) {
+      new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long count = 0;
+        while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+          workload.run(random.nextInt(range), random.nextInt(100));
+          count++;
+        }
+        ops.add(count);
+        done.countDown();
+      }).start();
+    }
+    done.await();
+    return ops.sum() * 1000 / millis;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of keys] [milliseconds per run]
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+    int range = size * 2;
+
+    ConcurrentRBTree<Integer> concurrentTree = new ConcurrentRBTree<Integer>();
+    RBTree<Integer> lockedTree = new RBTree<Integer>();
+    for (int i = 0; i < size; i++) {
+      int key = ThreadLocalRandom.current().nextInt(range);
+      if (concurrentTree.insert(key)) {
+        lockedTree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+      }
+    }
+
+    Workload optimistic = (key, op) -> {
+      if (op < WRITE_PERCENT) {
+        if (!concurrentTree.delete(key)) {
+          concurrentTree.insert(key);
+        }
+      } else if (op % 2 == 0) {
+        concurrentTree.contains(key);
+      } else {
+        concurrentTree.successor(key);
+      }
+    };
+    Workload globalLock = (key, op) -> {
+      synchronized (lockedTree) {
+        RBTree.RBTNode<Integer> node = lockedTree.search(lockedTree.getRoot(), key);
+        if (op < WRITE_PERCENT) {
+          if (node != null) {
+            lockedTree.delete(node);
+          } else {
+            lockedTree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+          }
+        } else if (op % 2 == 1) {
+          lockedTree.successor(node);
+        }
+      }
+    };
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1
+            : Math.min(threads * 2, cores)) {
+      System.out.println("threads = " + threads
+              + ", optimistic: " + measure(threads, millis, optimistic, range) + " ops/s"
+              + ", global lock: " + measure(threads, millis, globalLock, range) + " ops/s");
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package rbtree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only sorted int index in Eytzinger (BFS) layout.
+ * Slot 1 is the root, the children of slot k are 2k and 2k + 1, so the top levels
+ * of every search share a few cache lines and there are no pointers to chase.
+ * Searches return a slot, 0 means no such key.
+ * The keys are in an int array, or in the mapping of an index file.
+ */
+public class EytzingerIndex {
+
+  private static final int MAGIC = 0x45595a54;
+  //header: magic and number of keys
+  private static final int HEADER_BYTES = 8;
+
+  //keys.get(k) is the key in slot k, slot 0 is unused
+  private final IntBuffer keys;
+  private final int size;
+  //prefetch slots wrap around a power of two, then clamp to the last slot
+  private final int mask;
+  private final int last;
+
+  private EytzingerIndex(IntBuffer keys, int size) {
+    this.keys = keys;
+    this.size = size;
+    this.mask = capacity(size) - 1;
+    this.last = keys.limit() - 1;
+  }
+
+  /**
+   * Build the index from keys sorted by ascending order.
+   *
+   * @param sorted sorted keys
+   * @return index
+   */
+  public static EytzingerIndex fromSorted(int[] sorted) {
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i - 1] > sorted[i]) {
+        throw new IllegalArgumentException("Keys are not sorted at index " + i);
+      }
+    }
+    int[] keys = new int[capacity(sorted.length)];
+    fill(sorted, keys, 0, 1, sorted.length);
+    return new EytzingerIndex(IntBuffer.wrap(keys), sorted.length);
+  }
+
+  //smallest power of two bigger than size, slot 0 is unused
+  private static int capacity(int size) {
+    return Integer.highestOneBit(Math.max(size, 1)) << 1;
+  }
+
+  /**
+   * Fill the subtree of slot k by in-order traversal.
+   *
+   * @param sorted sorted keys
+   * @param keys   Eytzinger array
+   * @param next   index of the next sorted key
+   * @param k      slot
+   * @param size   number of keys
+   * @return index of the next sorted key after the subtree
+   */
+  private static int fill(int[] sorted, int[] keys, int next, int k, int size) {
+    if (k <= size) {
+      next = fill(sorted, keys, next, 2 * k, size);
+      keys[k] = sorted[next++];
+      next = fill(sorted, keys, next, 2 * k + 1, size);
+    }
+    return next;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the key in slot.
+   *
+   * @param slot slot returned by a search
+   * @return key
+   */
+  public int keyAt(int slot) {
+    if (slot < 1 || slot > size) {
+      throw new IndexOutOfBoundsException("slot " + slot);
+    }
+    return keys.get(slot);
+  }
+
+  /**
+   * Descend from the root, going right while keys[k] < key (or <= key if inclusive).
+   * Besides the next node, touch the node four levels below so its cache line
+   * is loaded while the current comparisons run.
+   *
+   * @param key       key
+   * @param inclusive go right on equal keys
+   * @return slot past the last level, its bits are the path taken
+   */
+  private int descend(int key, boolean inclusive) {
+    IntBuffer keys = this.keys;
+    int mask = this.mask;
+    int last = this.last;
+    int sink = 0;
+    int k = 1;
+    int bias = inclusive ? 1 : 0;
+    while (k <= size) {
+      sink += keys.get(Math.min((k << 4) & mask, last));
+      //keys[k] < key + bias, without a branch the JIT can't predict
+      k = (k << 1) + (int) (((long) keys.get(k) - key - bias) >>> 63);
+    }
+    //k is positive so this adds nothing, but the JIT can't prove it and keeps the loads
+    return k | (sink & k >>> 31);
+  }
+
+  /**
+   * Get the slot of the smallest key no smaller than key.
+   *
+   * @param key key
+   * @return slot, 0 if all keys are smaller
+   */
+  public int ceiling(int key) {
+    int k = descend(key, false);
+    //the last left turn
+    return k >> (Integer.numberOfTrailingZeros(~k) + 1);
+  }
+
+  /**
+   * Get the slot of the smallest key bigger than key.
+   *
+   * @param key key
+   * @return slot, 0 if no key is bigger
+   */
+  public int successor(int key) {
+    int k = descend(key, true);
+    return k >> (Integer.numberOfTrailingZeros(~k) + 1);
+  }
+
+  /**
+   * Get the slot of the biggest key no bigger than key.
+   *
+   * @param key key
+   * @return slot, 0 if all keys are bigger
+   */
+  public int floor(int key) {
+    int k = descend(key, true);
+    //the last right turn
+    return k >> (Integer.numberOfTrailingZeros(k) + 1);
+  }
+
+  /**
+   * Get the slot of the biggest key smaller than key.
+   *
+   * @param key key
+   * @return slot, 0 if no key is smaller
+   */
+  public int predecessor(int key) {
+    int k = descend(key, false);
+    return k >> (Integer.numberOfTrailingZeros(k) + 1);
+  }
+
+  /**
+   * Check if the index contains key.
+   *
+   * @param key key
+   * @return true if key exists
+   */
+  public boolean contains(int key) {
+    int slot = ceiling(key);
+    return slot != 0 && keys.get(slot) == key;
+  }
+
+  /**
+   * Write the index as a flat little-endian file: magic, size, keys in slot order.
+   *
+   * @param path file path
+   * @throws IOException if the file can't be written
+   */
+  public void writeTo(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC).putInt(size);
+      for (int k = 1; k <= size; k++) {
+        if (buffer.remaining() < Integer.BYTES) {
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          buffer.clear();
+        }
+        buffer.putInt(keys.get(k));
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Memory-map a file written by writeTo, searches read the keys from the mapping so
+   * the page cache holds them instead of the Java heap. The file must not change
+   * while the index is used.
+   *
+   * @param path file path
+   * @return index
+   * @throws IOException if the file can't be read or isn't an index file
+   */
+  public static EytzingerIndex load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      mapped.order(ByteOrder.LITTLE_ENDIAN);
+      if (channel.size() < HEADER_BYTES || mapped.getInt() != MAGIC) {
+        throw new IOException("Not an Eytzinger index file: " + path);
+      }
+      int size = mapped.getInt();
+      if (size < 0 || channel.size() != HEADER_BYTES + (long) size * Integer.BYTES) {
+        throw new IOException("Corrupted Eytzinger index file: " + path);
+      }
+      //start the view at the size field so slot k is at index k
+      mapped.position(Integer.BYTES);
+      return new EytzingerIndex(mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+              size);
+    }
+  }
+}
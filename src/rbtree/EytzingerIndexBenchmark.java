@@ -0,0 +1,67 @@
+package rbtree;
+
+import java.util.Random;
+
+/**
+ * Compare lookup latency of a frozen EytzingerIndex against RBTree and IntRBTree.
+ */
+public class EytzingerIndexBenchmark {
+
+  /**
+   * Main method.
+   *
+   * @param args [number of keys] [number of lookups]
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+    Random random = new Random(42);
+    Integer[] keys = new Integer[size];
+    IntRBTree intTree = new IntRBTree(size);
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt();
+      intTree.insert(keys[i]);
+    }
+    RBTree<Integer> tree = RBTree.fromUnsorted(keys);
+    EytzingerIndex index = tree.freeze(Integer::intValue);
+    int[] probes = new int[lookups];
+    for (int i = 0; i < lookups; i++) {
+      probes[i] = random.nextBoolean() ? keys[random.nextInt(size)] : random.nextInt();
+    }
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      int[] found = new int[3];
+      long start = System.nanoTime();
+      for (int key : probes) {
+        if (tree.search(tree.getRoot(), key) != null) {
+          found[0]++;
+        }
+      }
+      long treeTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int key : probes) {
+        if (intTree.contains(key)) {
+          found[1]++;
+        }
+      }
+      long intTreeTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int key : probes) {
+        if (index.contains(key)) {
+          found[2]++;
+        }
+      }
+      long indexTime = System.nanoTime() - start;
+      if (found[0] != found[1] || found[1] != found[2]) {
+        throw new IllegalStateException("EytzingerIndex disagrees with RBTree");
+      }
+      if (round == 1) {
+        System.out.println("keys = " + index.size() + " (ns/lookup)");
+        System.out.println("RBTree:         " + treeTime / lookups);
+        System.out.println("IntRBTree:      " + intTreeTime / lookups);
+        System.out.println("EytzingerIndex: " + indexTime / lookups);
+      }
+    }
+  }
+}
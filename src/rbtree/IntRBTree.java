@@ -0,0 +1,519 @@
+package rbtree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Red-black tree of primitive int keys.
+ * Nodes are indices into parallel int arrays (key, left, right, parent) instead of
+ * objects, the color is packed into the sign bit of parent. Index 0 is the NIL
+ * sentinel, removed slots are recycled through a free list linked by left.
+ */
+public class IntRBTree {
+
+  //sentinel node, always black
+  public static final int NIL = 0;
+  private static final int RED_BIT = Integer.MIN_VALUE;
+  private static final int INDEX_MASK = Integer.MAX_VALUE;
+
+  private int[] keys;
+  private int[] left;
+  private int[] right;
+  //parent index, sign bit set if the node is red
+  private int[] parent;
+
+  private int root;
+  //number of keys
+  private int size;
+  //next slot never used before
+  private int nextSlot;
+  //head of recycled slots
+  private int freeList;
+
+  /**
+   * IntRBTree constructor.
+   */
+  public IntRBTree() {
+    this(16);
+  }
+
+  /**
+   * IntRBTree constructor.
+   *
+   * @param capacity initial number of keys
+   */
+  public IntRBTree(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException();
+    }
+    keys = new int[capacity + 1];
+    left = new int[capacity + 1];
+    right = new int[capacity + 1];
+    parent = new int[capacity + 1];
+    root = NIL;
+    size = 0;
+    nextSlot = 1;
+    freeList = NIL;
+  }
+
+  public int getRoot() {
+    return root;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the key of node.
+   *
+   * @param x node index
+   * @return key
+   */
+  public int keyOf(int x) {
+    if (x == NIL) {
+      throw new NoSuchElementException();
+    }
+    return keys[x];
+  }
+
+  private int parentOf(int x) {
+    return parent[x] & INDEX_MASK;
+  }
+
+  private void setParent(int x, int p) {
+    //keep the color bit
+    parent[x] = (parent[x] & RED_BIT) | p;
+  }
+
+  private boolean isRed(int x) {
+    return parent[x] < 0;
+  }
+
+  private boolean isBlack(int x) {
+    return parent[x] >= 0;
+  }
+
+  private void setRed(int x) {
+    parent[x] |= RED_BIT;
+  }
+
+  private void setBlack(int x) {
+    parent[x] &= INDEX_MASK;
+  }
+
+  private void setColor(int x, boolean red) {
+    if (red) {
+      setRed(x);
+    } else {
+      setBlack(x);
+    }
+  }
+
+  /**
+   * Take a slot from the free list, or a new slot at the end of arrays.
+   *
+   * @param key key
+   * @return node index
+   */
+  private int allocate(int key) {
+    int x;
+    if (freeList != NIL) {
+      x = freeList;
+      freeList = left[x];
+    } else {
+      if (nextSlot == keys.length) {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+      }
+      x = nextSlot++;
+    }
+    keys[x] = key;
+    left[x] = NIL;
+    right[x] = NIL;
+    parent[x] = NIL;
+    return x;
+  }
+
+  //put the slot back to free list
+  private void free(int x) {
+    left[x] = freeList;
+    freeList = x;
+  }
+
+  /**
+   * Search the node with input key, one comparison per level.
+   *
+   * @param key key
+   * @return node index, NIL if key doesn't exist
+   */
+  public int search(int key) {
+    int x = root;
+    while (x != NIL) {
+      int k = keys[x];
+      if (key < k) {
+        x = left[x];
+      } else if (key > k) {
+        x = right[x];
+      } else {
+        return x;
+      }
+    }
+    return NIL;
+  }
+
+  /**
+   * Check if the tree contains key.
+   *
+   * @param key key
+   * @return true if key exists
+   */
+  public boolean contains(int key) {
+    return search(key) != NIL;
+  }
+
+  /**
+   * Get the minimum node in the subtree.
+   *
+   * @param x node index
+   * @return minimum node, NIL if the subtree is empty
+   */
+  public int minimum(int x) {
+    if (x == NIL) {
+      return NIL;
+    }
+    while (left[x] != NIL) {
+      x = left[x];
+    }
+    return x;
+  }
+
+  /**
+   * Get the maximum node in the subtree.
+   *
+   * @param x node index
+   * @return maximum node, NIL if the subtree is empty
+   */
+  public int maximum(int x) {
+    if (x == NIL) {
+      return NIL;
+    }
+    while (right[x] != NIL) {
+      x = right[x];
+    }
+    return x;
+  }
+
+  /**
+   * Get the successor of node.
+   *
+   * @param x node index
+   * @return successor, NIL if x is the maximum
+   */
+  public int successor(int x) {
+    if (right[x] != NIL) {
+      return minimum(right[x]);
+    }
+    int y = parentOf(x);
+    while (y != NIL && x == right[y]) {
+      x = y;
+      y = parentOf(y);
+    }
+    return y;
+  }
+
+  /**
+   * Get the predecessor of node.
+   *
+   * @param x node index
+   * @return predecessor, NIL if x is the minimum
+   */
+  public int predecessor(int x) {
+    if (left[x] != NIL) {
+      return maximum(left[x]);
+    }
+    int y = parentOf(x);
+    while (y != NIL && x == left[y]) {
+      x = y;
+      y = parentOf(y);
+    }
+    return y;
+  }
+
+  private void leftRotate(int x) {
+    int y = right[x];
+    //turn y's left subtree into x's right subtree
+    right[x] = left[y];
+    if (left[y] != NIL) {
+      setParent(left[y], x);
+    }
+    //link x's parent to y
+    int xParent = parentOf(x);
+    setParent(y, xParent);
+    if (xParent == NIL) {
+      root = y;
+    } else if (x == left[xParent]) {
+      left[xParent] = y;
+    } else {
+      right[xParent] = y;
+    }
+    //put x on y's left
+    left[y] = x;
+    setParent(x, y);
+  }
+
+  private void rightRotate(int x) {
+    int y = left[x];
+    //turn y's right subtree into x's left subtree
+    left[x] = right[y];
+    if (right[y] != NIL) {
+      setParent(right[y], x);
+    }
+    //link x's parent to y
+    int xParent = parentOf(x);
+    setParent(y, xParent);
+    if (xParent == NIL) {
+      root = y;
+    } else if (x == left[xParent]) {
+      left[xParent] = y;
+    } else {
+      right[xParent] = y;
+    }
+    //put x on y's right
+    right[y] = x;
+    setParent(x, y);
+  }
+
+  /**
+   * Insert key into the tree.
+   *
+   * @param key key
+   * @return false if key already exists
+   */
+  public boolean insert(int key) {
+    int y = NIL;
+    int x = root;
+    while (x != NIL) {
+      y = x;
+      int k = keys[x];
+      if (key < k) {
+        x = left[x];
+      } else if (key > k) {
+        x = right[x];
+      } else {
+        return false;
+      }
+    }
+    int z = allocate(key);
+    setParent(z, y);
+    if (y == NIL) {
+      root = z;
+    } else if (key < keys[y]) {
+      left[y] = z;
+    } else {
+      right[y] = z;
+    }
+    setRed(z);
+    insertFixUp(z);
+    size++;
+    return true;
+  }
+
+  private void insertFixUp(int z) {
+    while (isRed(parentOf(z))) {
+      int p = parentOf(z);
+      int g = parentOf(p);
+      if (p == left[g]) {
+        int uncle = right[g];
+        if (isRed(uncle)) {
+          //case 1: uncle node is red
+          setBlack(p);
+          setBlack(uncle);
+          setRed(g);
+          z = g;
+          continue;
+        }
+        if (z == right[p]) {
+          //case 2: z is the right child and uncle is black
+          z = p;
+          leftRotate(z);
+          p = parentOf(z);
+        }
+        //case 3: z is the left child and uncle is black
+        setBlack(p);
+        setRed(g);
+        rightRotate(g);
+      } else {
+        int uncle = left[g];
+        if (isRed(uncle)) {
+          //case 1: uncle node is red
+          setBlack(p);
+          setBlack(uncle);
+          setRed(g);
+          z = g;
+          continue;
+        }
+        if (z == left[p]) {
+          //case 2: z is the left child and uncle is black
+          z = p;
+          rightRotate(z);
+          p = parentOf(z);
+        }
+        //case 3: z is the right child and uncle is black
+        setBlack(p);
+        setRed(g);
+        leftRotate(g);
+      }
+    }
+    setBlack(root);
+  }
+
+  //replace the subtree rooted at u with the subtree rooted at v, v can be NIL
+  private void transplant(int u, int v) {
+    int uParent = parentOf(u);
+    if (uParent == NIL) {
+      root = v;
+    } else if (u == left[uParent]) {
+      left[uParent] = v;
+    } else {
+      right[uParent] = v;
+    }
+    //the sentinel's parent is set too, deleteFixUp relies on it
+    setParent(v, uParent);
+  }
+
+  /**
+   * Delete key from the tree, the slot is recycled.
+   *
+   * @param key key
+   * @return false if key doesn't exist
+   */
+  public boolean delete(int key) {
+    int z = search(key);
+    if (z == NIL) {
+      return false;
+    }
+    int y = z;
+    boolean yOriginalRed = isRed(y);
+    int x;
+    if (left[z] == NIL) {
+      x = right[z];
+      transplant(z, right[z]);
+    } else if (right[z] == NIL) {
+      x = left[z];
+      transplant(z, left[z]);
+    } else {
+      //z has two children, y is z's successor
+      y = minimum(right[z]);
+      yOriginalRed = isRed(y);
+      x = right[y];
+      if (parentOf(y) == z) {
+        setParent(x, y);
+      } else {
+        transplant(y, right[y]);
+        right[y] = right[z];
+        setParent(right[y], y);
+      }
+      transplant(z, y);
+      left[y] = left[z];
+      setParent(left[y], y);
+      setColor(y, isRed(z));
+    }
+    if (!yOriginalRed) {
+      deleteFixUp(x);
+    }
+    free(z);
+    size--;
+    return true;
+  }
+
+  private void deleteFixUp(int x) {
+    while (x != root && isBlack(x)) {
+      int p = parentOf(x);
+      if (x == left[p]) {
+        int w = right[p];
+        if (isRed(w)) {
+          //case 1: sibling is red
+          setBlack(w);
+          setRed(p);
+          leftRotate(p);
+          w = right[p];
+        }
+        if (isBlack(left[w]) && isBlack(right[w])) {
+          //case 2: sibling is black, both of its children are black
+          setRed(w);
+          x = p;
+        } else {
+          if (isBlack(right[w])) {
+            //case 3: sibling is black, its left child is red, right child is black
+            setBlack(left[w]);
+            setRed(w);
+            rightRotate(w);
+            w = right[p];
+          }
+          //case 4: sibling is black, its right child is red
+          setColor(w, isRed(p));
+          setBlack(p);
+          setBlack(right[w]);
+          leftRotate(p);
+          x = root;
+        }
+      } else {
+        int w = left[p];
+        if (isRed(w)) {
+          //case 1: sibling is red
+          setBlack(w);
+          setRed(p);
+          rightRotate(p);
+          w = left[p];
+        }
+        if (isBlack(right[w]) && isBlack(left[w])) {
+          //case 2: sibling is black, both of its children are black
+          setRed(w);
+          x = p;
+        } else {
+          if (isBlack(left[w])) {
+            //case 3: sibling is black, its right child is red, left child is black
+            setBlack(right[w]);
+            setRed(w);
+            leftRotate(w);
+            w = left[p];
+          }
+          //case 4: sibling is black, its left child is red
+          setColor(w, isRed(p));
+          setBlack(p);
+          setBlack(left[w]);
+          rightRotate(p);
+          x = root;
+        }
+      }
+    }
+    setBlack(x);
+  }
+
+  /**
+   * Copy all keys by ascending order.
+   *
+   * @return sorted keys
+   */
+  public int[] toArray() {
+    int[] result = new int[size];
+    int i = 0;
+    for (int x = minimum(root); x != NIL; x = successor(x)) {
+      result[i++] = keys[x];
+    }
+    return result;
+  }
+
+  /**
+   * Copy all keys into a read-only Eytzinger index.
+   *
+   * @return frozen index
+   */
+  public EytzingerIndex freeze() {
+    return EytzingerIndex.fromSorted(toArray());
+  }
+}
@@ -0,0 +1,77 @@
+package rbtree;
+
+import java.util.Random;
+
+/**
+ * Compare memory per key and search time of IntRBTree against RBTree of Integer.
+ * Run with a large heap for 10M keys, e.g. -Xmx4g.
+ */
+public class IntRBTreeBenchmark {
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of keys] [number of searches]
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    int searches = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+    Random random = new Random(42);
+    int[] keys = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt();
+    }
+    int[] probes = new int[searches];
+    for (int i = 0; i < searches; i++) {
+      probes[i] = keys[random.nextInt(size)];
+    }
+
+    long before = usedMemory();
+    IntRBTree intTree = new IntRBTree(size);
+    for (int key : keys) {
+      intTree.insert(key);
+    }
+    long intBytes = usedMemory() - before;
+    long start = System.nanoTime();
+    int found = 0;
+    for (int key : probes) {
+      if (intTree.contains(key)) {
+        found++;
+      }
+    }
+    long intTime = System.nanoTime() - start;
+    int count = intTree.size();
+    intTree = null;
+
+    before = usedMemory();
+    RBTree<Integer> tree = new RBTree<Integer>();
+    for (int key : keys) {
+      tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+    }
+    long treeBytes = usedMemory() - before;
+    start = System.nanoTime();
+    for (int key : probes) {
+      if (tree.search(tree.getRoot(), key) != null) {
+        found--;
+      }
+    }
+    long treeTime = System.nanoTime() - start;
+    if (found != 0) {
+      throw new IllegalStateException("IntRBTree disagrees with RBTree");
+    }
+
+    System.out.println("keys = " + count + ", searches = " + searches);
+    System.out.println("IntRBTree: " + intBytes / count + " bytes/key, "
+            + intTime / searches + " ns/search");
+    System.out.println("RBTree:    " + treeBytes / count + " bytes/key, "
+            + treeTime / searches + " ns/search");
+  }
+}
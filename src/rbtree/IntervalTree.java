@@ -0,0 +1,180 @@
+package rbtree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interval tree on top of RBTree.
+ * Intervals are ordered by start (then end), and every node keeps the maximum end of
+ * its subtree as the monoid summary, so rotations in insert and delete maintain it.
+ */
+public class IntervalTree {
+
+  /**
+   * Closed interval [start, end].
+   */
+  public static final class Interval implements Comparable<Interval> {
+    private final long start;
+    private final long end;
+
+    /**
+     * Interval constructor.
+     *
+     * @param start start, inclusive
+     * @param end   end, inclusive
+     */
+    public Interval(long start, long end) {
+      if (start > end) {
+        throw new IllegalArgumentException("start > end");
+      }
+      this.start = start;
+      this.end = end;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    /**
+     * Check if this interval overlaps [a, b].
+     *
+     * @param a start, inclusive
+     * @param b end, inclusive
+     * @return true if they share a point
+     */
+    public boolean overlaps(long a, long b) {
+      return start <= b && a <= end;
+    }
+
+    @Override
+    public int compareTo(Interval other) {
+      if (start != other.start) {
+        return Long.compare(start, other.start);
+      }
+      return Long.compare(end, other.end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Interval)) {
+        return false;
+      }
+      Interval other = (Interval) o;
+      return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+      return "[" + start + ", " + end + "]";
+    }
+  }
+
+  //maximum end of a subtree
+  private static final Monoid<Interval, Long> MAX_END = new Monoid<Interval, Long>() {
+    @Override
+    public Long identity() {
+      return Long.MIN_VALUE;
+    }
+
+    @Override
+    public Long lift(Interval key) {
+      return key.end;
+    }
+
+    @Override
+    public Long combine(Long left, Long right) {
+      return Math.max(left, right);
+    }
+  };
+
+  private final RBTree<Interval> tree;
+
+  /**
+   * IntervalTree constructor.
+   */
+  public IntervalTree() {
+    tree = new RBTree<Interval>(MAX_END);
+  }
+
+  public int size() {
+    return tree.size();
+  }
+
+  /**
+   * Insert interval [start, end], the same interval can be inserted more than once.
+   *
+   * @param start start, inclusive
+   * @param end   end, inclusive
+   */
+  public void insert(long start, long end) {
+    tree.insert(new RBTree.RBTNode<Interval>(new Interval(start, end), false, null, null,
+            null));
+  }
+
+  /**
+   * Delete one copy of interval [start, end].
+   *
+   * @param start start, inclusive
+   * @param end   end, inclusive
+   * @return false if the interval doesn't exist
+   */
+  public boolean delete(long start, long end) {
+    RBTree.RBTNode<Interval> node = tree.search(tree.getRoot(), new Interval(start, end));
+    if (node == null) {
+      return false;
+    }
+    tree.delete(node);
+    return true;
+  }
+
+  /**
+   * Find all intervals overlapping [a, b], ordered by start.
+   * Subtrees whose maximum end is before a, or whose starts are after b, are skipped.
+   *
+   * @param a start, inclusive
+   * @param b end, inclusive
+   * @return overlapping intervals
+   */
+  public List<Interval> overlapping(long a, long b) {
+    List<Interval> result = new ArrayList<Interval>();
+    if (a <= b) {
+      collect(tree.getRoot(), a, b, result);
+    }
+    return result;
+  }
+
+  /**
+   * Find all intervals containing point.
+   *
+   * @param point point
+   * @return intervals containing point, ordered by start
+   */
+  public List<Interval> stab(long point) {
+    return overlapping(point, point);
+  }
+
+  private void collect(RBTree.RBTNode<Interval> node, long a, long b, List<Interval> result) {
+    //no interval in this subtree ends at or after a
+    if (node == null || (Long) node.summary < a) {
+      return;
+    }
+    collect(node.left, a, b, result);
+    //this node and its right subtree start after b
+    if (node.key.start > b) {
+      return;
+    }
+    if (node.key.end >= a) {
+      result.add(node.key);
+    }
+    collect(node.right, a, b, result);
+  }
+}
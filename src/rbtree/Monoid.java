@@ -0,0 +1,36 @@
+package rbtree;
+
+/**
+ * Monoid used to augment RBTree nodes with a summary of their subtree,
+ * e.g. sum, min or max of keys. combine must be associative and identity
+ * must be its neutral element.
+ *
+ * @param <T> key type
+ * @param <A> summary type
+ */
+public interface Monoid<T, A> {
+
+  /**
+   * Get the summary of an empty subtree.
+   *
+   * @return identity element
+   */
+  A identity();
+
+  /**
+   * Get the summary of a single key.
+   *
+   * @param key key
+   * @return summary
+   */
+  A lift(T key);
+
+  /**
+   * Combine the summaries of two adjacent key ranges, left before right.
+   *
+   * @param left  summary of smaller keys
+   * @param right summary of bigger keys
+   * @return summary
+   */
+  A combine(A left, A right);
+}
@@ -0,0 +1,323 @@
+package rbtree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent (immutable) red-black tree.
+ * insert and delete copy only the nodes on the path from root to the changed node
+ * and return a new version, all other nodes are shared with the old version.
+ * A snapshot is just a reference to a version. Balancing follows Kahrs'
+ * functional insertion and deletion.
+ */
+public final class PersistentRBTree<T extends Comparable<T>> implements Iterable<T> {
+
+  private static final boolean RED = false;
+  private static final boolean BLACK = true;
+
+  private static final PersistentRBTree<?> EMPTY = new PersistentRBTree<>(null, 0);
+
+  private final Node<T> root;
+  private final int size;
+
+  /**
+   * Immutable node, never changed after construction.
+   */
+  private static final class Node<T> {
+    final boolean color;
+    final T key;
+    final Node<T> left;
+    final Node<T> right;
+
+    Node(boolean color, Node<T> left, T key, Node<T> right) {
+      this.color = color;
+      this.left = left;
+      this.key = key;
+      this.right = right;
+    }
+  }
+
+  private PersistentRBTree(Node<T> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Get the empty tree.
+   *
+   * @return empty tree
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Comparable<T>> PersistentRBTree<T> empty() {
+    return (PersistentRBTree<T>) EMPTY;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if this version contains key.
+   *
+   * @param key key
+   * @return true if key exists
+   */
+  public boolean contains(T key) {
+    Node<T> x = root;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) {
+        return true;
+      }
+      x = cmp < 0 ? x.left : x.right;
+    }
+    return false;
+  }
+
+  /**
+   * Get the minimum key.
+   *
+   * @return minimum key, null if the tree is empty
+   */
+  public T minimum() {
+    Node<T> x = root;
+    if (x == null) {
+      return null;
+    }
+    while (x.left != null) {
+      x = x.left;
+    }
+    return x.key;
+  }
+
+  /**
+   * Get the maximum key.
+   *
+   * @return maximum key, null if the tree is empty
+   */
+  public T maximum() {
+    Node<T> x = root;
+    if (x == null) {
+      return null;
+    }
+    while (x.right != null) {
+      x = x.right;
+    }
+    return x.key;
+  }
+
+  /**
+   * Insert key, this version is not changed.
+   *
+   * @param key key
+   * @return new version, or this version if key already exists
+   */
+  public PersistentRBTree<T> insert(T key) {
+    if (contains(key)) {
+      return this;
+    }
+    return new PersistentRBTree<T>(blacken(insert(root, key)), size + 1);
+  }
+
+  /**
+   * Delete key, this version is not changed.
+   *
+   * @param key key
+   * @return new version, or this version if key doesn't exist
+   */
+  public PersistentRBTree<T> delete(T key) {
+    if (!contains(key)) {
+      return this;
+    }
+    return new PersistentRBTree<T>(blacken(delete(root, key)), size - 1);
+  }
+
+  private static <T> boolean isRed(Node<T> node) {
+    return node != null && node.color == RED;
+  }
+
+  //non-empty black node
+  private static <T> boolean isBlackNode(Node<T> node) {
+    return node != null && node.color == BLACK;
+  }
+
+  private static <T> Node<T> red(Node<T> left, T key, Node<T> right) {
+    return new Node<T>(RED, left, key, right);
+  }
+
+  private static <T> Node<T> black(Node<T> left, T key, Node<T> right) {
+    return new Node<T>(BLACK, left, key, right);
+  }
+
+  private static <T> Node<T> blacken(Node<T> node) {
+    if (node == null || node.color == BLACK) {
+      return node;
+    }
+    return black(node.left, node.key, node.right);
+  }
+
+  //turn a black node red, used when deletion reduces the black height of a sibling
+  private static <T> Node<T> redden(Node<T> node) {
+    return red(node.left, node.key, node.right);
+  }
+
+  /**
+   * Rebuild a node whose children may form a red-red violation.
+   *
+   * @param left  left child
+   * @param key   key
+   * @param right right child
+   * @return balanced node
+   */
+  private static <T> Node<T> balance(Node<T> left, T key, Node<T> right) {
+    if (isRed(left) && isRed(right)) {
+      return red(blacken(left), key, blacken(right));
+    }
+    if (isRed(left) && isRed(left.left)) {
+      return red(blacken(left.left), left.key, black(left.right, key, right));
+    }
+    if (isRed(left) && isRed(left.right)) {
+      return red(black(left.left, left.key, left.right.left), left.right.key,
+              black(left.right.right, key, right));
+    }
+    if (isRed(right) && isRed(right.right)) {
+      return red(black(left, key, right.left), right.key, blacken(right.right));
+    }
+    if (isRed(right) && isRed(right.left)) {
+      return red(black(left, key, right.left.left), right.left.key,
+              black(right.left.right, right.key, right.right));
+    }
+    return black(left, key, right);
+  }
+
+  private static <T extends Comparable<T>> Node<T> insert(Node<T> node, T key) {
+    if (node == null) {
+      return red(null, key, null);
+    }
+    //key doesn't exist, checked by caller
+    if (key.compareTo(node.key) < 0) {
+      if (node.color == BLACK) {
+        return balance(insert(node.left, key), node.key, node.right);
+      }
+      return red(insert(node.left, key), node.key, node.right);
+    } else {
+      if (node.color == BLACK) {
+        return balance(node.left, node.key, insert(node.right, key));
+      }
+      return red(node.left, node.key, insert(node.right, key));
+    }
+  }
+
+  //left subtree lost one black, restore black height
+  private static <T> Node<T> balanceLeft(Node<T> left, T key, Node<T> right) {
+    if (isRed(left)) {
+      return red(blacken(left), key, right);
+    }
+    if (isBlackNode(right)) {
+      return balance(left, key, redden(right));
+    }
+    if (isRed(right) && isBlackNode(right.left)) {
+      return red(black(left, key, right.left.left), right.left.key,
+              balance(right.left.right, right.key, redden(right.right)));
+    }
+    throw new IllegalStateException("Invalid red-black tree");
+  }
+
+  //right subtree lost one black, restore black height
+  private static <T> Node<T> balanceRight(Node<T> left, T key, Node<T> right) {
+    if (isRed(right)) {
+      return red(left, key, blacken(right));
+    }
+    if (isBlackNode(left)) {
+      return balance(redden(left), key, right);
+    }
+    if (isRed(left) && isBlackNode(left.right)) {
+      return red(balance(redden(left.left), left.key, left.right.left), left.right.key,
+              black(left.right.right, key, right));
+    }
+    throw new IllegalStateException("Invalid red-black tree");
+  }
+
+  //join two subtrees of the deleted node, all keys in left < all keys in right
+  private static <T> Node<T> append(Node<T> left, Node<T> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (isRed(left) && isRed(right)) {
+      Node<T> middle = append(left.right, right.left);
+      if (isRed(middle)) {
+        return red(red(left.left, left.key, middle.left), middle.key,
+                red(middle.right, right.key, right.right));
+      }
+      return red(left.left, left.key, red(middle, right.key, right.right));
+    }
+    if (isBlackNode(left) && isBlackNode(right)) {
+      Node<T> middle = append(left.right, right.left);
+      if (isRed(middle)) {
+        return red(black(left.left, left.key, middle.left), middle.key,
+                black(middle.right, right.key, right.right));
+      }
+      return balanceLeft(left.left, left.key, black(middle, right.key, right.right));
+    }
+    if (isRed(right)) {
+      return red(append(left, right.left), right.key, right.right);
+    }
+    return red(left.left, left.key, append(left.right, right));
+  }
+
+  private static <T extends Comparable<T>> Node<T> delete(Node<T> node, T key) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = key.compareTo(node.key);
+    if (cmp < 0) {
+      if (isBlackNode(node.left)) {
+        return balanceLeft(delete(node.left, key), node.key, node.right);
+      }
+      return red(delete(node.left, key), node.key, node.right);
+    } else if (cmp > 0) {
+      if (isBlackNode(node.right)) {
+        return balanceRight(node.left, node.key, delete(node.right, key));
+      }
+      return red(node.left, node.key, delete(node.right, key));
+    }
+    return append(node.left, node.right);
+  }
+
+  /**
+   * Iterate keys of this version by ascending order.
+   *
+   * @return iterator
+   */
+  @Override
+  public Iterator<T> iterator() {
+    //no parent links, keep the path on a stack
+    Deque<Node<T>> stack = new ArrayDeque<Node<T>>();
+    for (Node<T> x = root; x != null; x = x.left) {
+      stack.push(x);
+    }
+    return new Iterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return !stack.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        if (stack.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<T> node = stack.pop();
+        for (Node<T> x = node.right; x != null; x = x.left) {
+          stack.push(x);
+        }
+        return node.key;
+      }
+    };
+  }
+}
@@ -0,0 +1,83 @@
+package rbtree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare keeping every version of PersistentRBTree against copying an RBTree
+ * before each update, in time and retained memory per version.
+ */
+public class PersistentRBTreeBenchmark {
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static RBTree<Integer> copy(RBTree<Integer> tree) {
+    RBTree<Integer> copy = new RBTree<Integer>();
+    for (int key : tree) {
+      copy.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+    }
+    return copy;
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [number of keys] [number of versions]
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int versions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    Random random = new Random(42);
+    int[] keys = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt();
+    }
+    int[] updates = new int[versions];
+    for (int i = 0; i < versions; i++) {
+      updates[i] = random.nextInt();
+    }
+
+    PersistentRBTree<Integer> persistent = PersistentRBTree.empty();
+    for (int key : keys) {
+      persistent = persistent.insert(key);
+    }
+    List<PersistentRBTree<Integer>> history = new ArrayList<PersistentRBTree<Integer>>();
+    long before = usedMemory();
+    long start = System.nanoTime();
+    for (int key : updates) {
+      history.add(persistent);
+      persistent = persistent.insert(key);
+    }
+    long persistentTime = System.nanoTime() - start;
+    long persistentBytes = usedMemory() - before;
+    history.add(persistent);
+
+    RBTree<Integer> tree = new RBTree<Integer>();
+    for (int key : keys) {
+      tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+    }
+    List<RBTree<Integer>> copies = new ArrayList<RBTree<Integer>>();
+    before = usedMemory();
+    start = System.nanoTime();
+    for (int key : updates) {
+      copies.add(copy(tree));
+      tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+    }
+    long copyTime = System.nanoTime() - start;
+    long copyBytes = usedMemory() - before;
+    copies.add(tree);
+
+    System.out.println("keys = " + size + ", versions = " + versions);
+    System.out.println("path copying: " + persistentTime / versions + " ns/version, "
+            + persistentBytes / versions + " bytes/version, " + history.size() + " kept");
+    System.out.println("full copy:    " + copyTime / versions + " ns/version, "
+            + copyBytes / versions + " bytes/version, " + copies.size() + " kept");
+  }
+}
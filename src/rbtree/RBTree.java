@@ -1,16 +1,37 @@
 package rbtree;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import metrics.Instrumentation;
 
 //Tree class
-public class RBTree<T extends Comparable<T>> {
+public class RBTree<T extends Comparable<T>> implements Iterable<T> {
 
   private RBTNode<T> root;
+  //augmentation kept in every node, null if the tree isn't augmented
+  private final Monoid<T, Object> monoid;
   private static final boolean RED = false;
   private static final boolean BLACK = true;
+  //estimated bytes of a node: header, color, five references, size and height
+  private static final int NODE_BYTES = 48;
+  //recorded while instrumentation is enabled, set operations update them in parallel
+  private final LongAdder rotations = new LongAdder();
+  private final LongAdder recolors = new LongAdder();
 
   /**
-   * Node class that represents color, key, left, right and parent.
+   * Node class that represents color, key, left, right and parent,
+   * plus the size, height and monoid summary of its subtree.
    */
   public static class RBTNode<T extends Comparable<T>> {
     boolean color;
@@ -18,6 +39,9 @@ public class RBTree<T extends Comparable<T>> {
     RBTNode<T> left;
     RBTNode<T> right;
     RBTNode<T> parent;
+    int size;
+    int height;
+    Object summary;
 
     //constructor
     public RBTNode(T key, boolean color, RBTNode<T> left, RBTNode<T> right,
@@ -27,6 +51,8 @@ public class RBTree<T extends Comparable<T>> {
       this.parent = parent;
       this.left = left;
       this.right = right;
+      this.size = 1;
+      this.height = 1;
     }
   }
 
@@ -34,7 +60,99 @@ public class RBTree<T extends Comparable<T>> {
    * RBTree constructor.
    */
   public RBTree() {
+    this(null);
+  }
+
+  /**
+   * RBTree constructor, every node keeps the summary of its subtree.
+   *
+   * @param monoid augmentation, null for a plain tree
+   */
+  @SuppressWarnings("unchecked")
+  public RBTree(Monoid<T, ?> monoid) {
     this.root = null;
+    this.monoid = (Monoid<T, Object>) monoid;
+  }
+
+  /**
+   * Build a balanced tree from keys sorted by ascending order in O(n).
+   *
+   * @param keys sorted keys
+   * @return tree
+   */
+  public static <T extends Comparable<T>> RBTree<T> fromSorted(T[] keys) {
+    return fromSorted(keys, null);
+  }
+
+  /**
+   * Build a balanced tree from keys sorted by ascending order in O(n).
+   *
+   * @param keys   sorted keys
+   * @param monoid augmentation, null for a plain tree
+   * @return tree
+   */
+  public static <T extends Comparable<T>> RBTree<T> fromSorted(T[] keys, Monoid<T, ?> monoid) {
+    for (int i = 1; i < keys.length; i++) {
+      if (keys[i - 1].compareTo(keys[i]) > 0) {
+        throw new IllegalArgumentException("Keys are not sorted at index " + i);
+      }
+    }
+    RBTree<T> tree = new RBTree<T>(monoid);
+    //all levels above the last one are full, the last level (if not full) is red
+    int redLevel = 0;
+    for (int m = keys.length - 1; m >= 0; m = m / 2 - 1) {
+      redLevel++;
+    }
+    tree.root = tree.buildFromSorted(keys, 0, keys.length - 1, 0, redLevel, null);
+    return tree;
+  }
+
+  /**
+   * Sort keys in parallel and build a balanced tree in O(n). keys is not changed.
+   *
+   * @param keys keys
+   * @return tree
+   */
+  public static <T extends Comparable<T>> RBTree<T> fromUnsorted(T[] keys) {
+    return fromUnsorted(keys, null);
+  }
+
+  /**
+   * Sort keys in parallel and build a balanced tree in O(n). keys is not changed.
+   *
+   * @param keys   keys
+   * @param monoid augmentation, null for a plain tree
+   * @return tree
+   */
+  public static <T extends Comparable<T>> RBTree<T> fromUnsorted(T[] keys, Monoid<T, ?> monoid) {
+    T[] sorted = Arrays.copyOf(keys, keys.length);
+    Arrays.parallelSort(sorted);
+    return fromSorted(sorted, monoid);
+  }
+
+  /**
+   * Build the subtree of keys[lo..hi], the middle key is the root.
+   *
+   * @param keys     sorted keys
+   * @param lo       first index, inclusive
+   * @param hi       last index, inclusive
+   * @param level    depth of the subtree root
+   * @param redLevel depth of the nodes colored red
+   * @param parent   parent of the subtree root
+   * @return root of subtree
+   */
+  private RBTNode<T> buildFromSorted(T[] keys, int lo, int hi, int level, int redLevel,
+                                     RBTNode<T> parent) {
+    if (lo > hi) {
+      return null;
+    }
+    int mid = (lo + hi) >>> 1;
+    RBTNode<T> node = new RBTNode<T>(keys[mid], level == redLevel ? RED : BLACK, null, null,
+            parent);
+    node.left = buildFromSorted(keys, lo, mid - 1, level + 1, redLevel, node);
+    node.right = buildFromSorted(keys, mid + 1, hi, level + 1, redLevel, node);
+    update(node);
+    return node;
   }
 
   public RBTNode<T> getRoot() {
@@ -76,6 +194,9 @@ public class RBTree<T extends Comparable<T>> {
 
   public void setColor(RBTNode<T> node, Boolean color) {
     if (node != null) {
+      if (node.color != color && Instrumentation.isEnabled()) {
+        recolors.increment();
+      }
       node.color = color;
     }
   }
@@ -94,16 +215,81 @@ public class RBTree<T extends Comparable<T>> {
 
   public void setRed(RBTNode<T> node) {
     if (node != null) {
+      if (node.color != RED && Instrumentation.isEnabled()) {
+        recolors.increment();
+      }
       node.color = RED;
     }
   }
 
   public void setBlack(RBTNode<T> node) {
     if (node != null) {
+      if (node.color != BLACK && Instrumentation.isEnabled()) {
+        recolors.increment();
+      }
       node.color = BLACK;
     }
   }
 
+  /**
+   * Get the size of subtree in O(1).
+   *
+   * @param node root of subtree
+   * @return number of nodes
+   */
+  public int size(RBTNode<T> node) {
+    if (node == null) {
+      return 0;
+    }
+    return node.size;
+  }
+
+  /**
+   * Get the number of nodes in the tree in O(1).
+   *
+   * @return number of nodes
+   */
+  public int size() {
+    return size(root);
+  }
+
+  private Object summaryOf(RBTNode<T> node) {
+    if (node == null) {
+      return monoid.identity();
+    }
+    return node.summary;
+  }
+
+  private static int heightOf(RBTNode<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * Recompute the size, height and summary of node from its children.
+   *
+   * @param node node
+   */
+  private void update(RBTNode<T> node) {
+    node.size = size(node.left) + 1 + size(node.right);
+    node.height = Math.max(heightOf(node.left), heightOf(node.right)) + 1;
+    if (monoid != null) {
+      node.summary = monoid.combine(monoid.combine(summaryOf(node.left),
+              monoid.lift(node.key)), summaryOf(node.right));
+    }
+  }
+
+  /**
+   * Recompute the size, height and summary of node and all of its ancestors.
+   *
+   * @param node node
+   */
+  private void updateToRoot(RBTNode<T> node) {
+    while (node != null) {
+      update(node);
+      node = node.parent;
+    }
+  }
+
   /**
    * Print out the key by ascending order.
    *
@@ -118,24 +304,49 @@ public class RBTree<T extends Comparable<T>> {
   }
 
   /**
-   * Get the height of rb-tree.
+   * Get the height of rb-tree in O(1), maintained like the subtree sizes.
    *
    * @param node node object
    * @return height of current node.
    */
   public int getHeight(RBTNode<T> node) {
-    if (node == null) {
-      return 0;
-    }
-    int lHeight = getHeight(node.left);
-    int rHeight = getHeight(node.right);
-    if (lHeight >= rHeight) {
-      return lHeight + 1;
-    } else {
-      return rHeight + 1;
+    return heightOf(node);
+  }
+
+  /**
+   * A rotation keeps the subtree sizes of the ancestors but may change their
+   * heights, fix them upward until one doesn't change.
+   *
+   * @param node root of the rotated subtree
+   */
+  private void updateHeightsAbove(RBTNode<T> node) {
+    for (RBTNode<T> p = node.parent; p != null; p = p.parent) {
+      int height = Math.max(heightOf(p.left), heightOf(p.right)) + 1;
+      if (p.height == height) {
+        return;
+      }
+      p.height = height;
     }
   }
 
+  public long getRotations() {
+    return rotations.sum();
+  }
+
+  public long getRecolors() {
+    return recolors.sum();
+  }
+
+  /**
+   * Estimate the bytes per key of the nodes with compressed references, the keys
+   * aren't counted.
+   *
+   * @return bytes per key
+   */
+  public double estimatedBytesPerEntry() {
+    return NODE_BYTES;
+  }
+
 
   /**
    * Search the node with input key.
@@ -189,7 +400,16 @@ public class RBTree<T extends Comparable<T>> {
    * @return successor
    */
   public RBTNode<T> successor(T key) {
-    RBTNode<T> x = search(root, key);
+    return successor(search(root, key));
+  }
+
+  /**
+   * Get the successor of node by following parent links, amortized O(1).
+   *
+   * @param x node object
+   * @return successor
+   */
+  public RBTNode<T> successor(RBTNode<T> x) {
     if (x == null) {
       return null;
     }
@@ -211,7 +431,16 @@ public class RBTree<T extends Comparable<T>> {
    * @return predecessor
    */
   public RBTNode<T> predecessor(T key) {
-    RBTNode<T> x = search(root, key);
+    return predecessor(search(root, key));
+  }
+
+  /**
+   * Get the predecessor of node by following parent links, amortized O(1).
+   *
+   * @param x node object
+   * @return predecessor
+   */
+  public RBTNode<T> predecessor(RBTNode<T> x) {
     if (x == null) {
       return null;
     }
@@ -226,6 +455,445 @@ public class RBTree<T extends Comparable<T>> {
     return y;
   }
 
+  /**
+   * Get the node with the smallest key no smaller than key.
+   *
+   * @param key key
+   * @return node, null if all keys are smaller
+   */
+  public RBTNode<T> ceiling(T key) {
+    RBTNode<T> x = root;
+    RBTNode<T> result = null;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) {
+        return x;
+      }
+      if (cmp < 0) {
+        result = x;
+        x = x.left;
+      } else {
+        x = x.right;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the node with the biggest key no bigger than key.
+   *
+   * @param key key
+   * @return node, null if all keys are bigger
+   */
+  public RBTNode<T> floor(T key) {
+    RBTNode<T> x = root;
+    RBTNode<T> result = null;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) {
+        return x;
+      }
+      if (cmp > 0) {
+        result = x;
+        x = x.right;
+      } else {
+        x = x.left;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of keys smaller than key.
+   *
+   * @param key key
+   * @return rank of key
+   */
+  public int rank(T key) {
+    RBTNode<T> x = root;
+    int rank = 0;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp <= 0) {
+        x = x.left;
+      } else {
+        rank += size(x.left) + 1;
+        x = x.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Get the number of keys smaller than the key of node, following parent links.
+   *
+   * @param x node object
+   * @return rank of node
+   */
+  private int rankOf(RBTNode<T> x) {
+    int rank = size(x.left);
+    while (x.parent != null) {
+      if (x == x.parent.right) {
+        rank += size(x.parent.left) + 1;
+      }
+      x = x.parent;
+    }
+    return rank;
+  }
+
+  /**
+   * Get the node with the k-th smallest key, k starts from 0.
+   *
+   * @param k rank
+   * @return node, null if k is out of range
+   */
+  public RBTNode<T> select(int k) {
+    RBTNode<T> x = root;
+    while (x != null) {
+      int leftSize = size(x.left);
+      if (k == leftSize) {
+        return x;
+      }
+      if (k < leftSize) {
+        x = x.left;
+      } else {
+        k -= leftSize + 1;
+        x = x.right;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Count keys in [lo, hi] in O(log n).
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return number of keys
+   */
+  public int count(T lo, T hi) {
+    if (lo.compareTo(hi) > 0) {
+      return 0;
+    }
+    int count = rank(hi) - rank(lo);
+    if (search(root, hi) != null) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Combine the summaries of keys in [lo, hi] in O(log n).
+   *
+   * @param lo  lower bound, inclusive
+   * @param hi  upper bound, inclusive
+   * @param <A> summary type of the monoid
+   * @return summary, identity if the range is empty
+   */
+  @SuppressWarnings("unchecked")
+  public <A> A aggregate(T lo, T hi) {
+    if (monoid == null) {
+      throw new IllegalStateException("RBTree isn't augmented");
+    }
+    //find the highest node in range, paths to lo and hi split there
+    RBTNode<T> split = root;
+    while (split != null) {
+      if (split.key.compareTo(lo) < 0) {
+        split = split.right;
+      } else if (split.key.compareTo(hi) > 0) {
+        split = split.left;
+      } else {
+        break;
+      }
+    }
+    if (split == null) {
+      return (A) monoid.identity();
+    }
+
+    //walk down to lo, collect right subtrees of nodes in range
+    Object left = monoid.identity();
+    RBTNode<T> x = split.left;
+    while (x != null) {
+      if (x.key.compareTo(lo) >= 0) {
+        left = monoid.combine(monoid.combine(monoid.lift(x.key), summaryOf(x.right)), left);
+        x = x.left;
+      } else {
+        x = x.right;
+      }
+    }
+    //walk down to hi, collect left subtrees of nodes in range
+    Object right = monoid.identity();
+    x = split.right;
+    while (x != null) {
+      if (x.key.compareTo(hi) <= 0) {
+        right = monoid.combine(right, monoid.combine(summaryOf(x.left), monoid.lift(x.key)));
+        x = x.right;
+      } else {
+        x = x.left;
+      }
+    }
+    return (A) monoid.combine(monoid.combine(left, monoid.lift(split.key)), right);
+  }
+
+  /**
+   * Copy all keys into a read-only Eytzinger index.
+   *
+   * @param toInt maps keys to ints, must keep the order of keys
+   * @return frozen index
+   */
+  public EytzingerIndex freeze(ToIntFunction<? super T> toInt) {
+    int[] sorted = new int[size()];
+    int i = 0;
+    for (T key : this) {
+      sorted[i++] = toInt.applyAsInt(key);
+    }
+    return EytzingerIndex.fromSorted(sorted);
+  }
+
+  /**
+   * Cursor that moves between neighbouring nodes through parent links.
+   */
+  public class Cursor {
+    private RBTNode<T> node;
+
+    private Cursor(RBTNode<T> node) {
+      this.node = node;
+    }
+
+    /**
+     * Get the node under the cursor.
+     *
+     * @return node, null if the cursor moved out of the tree
+     */
+    public RBTNode<T> node() {
+      return node;
+    }
+
+    /**
+     * Get the key under the cursor.
+     *
+     * @return key
+     */
+    public T key() {
+      return node.key;
+    }
+
+    /**
+     * Move to the successor.
+     *
+     * @return false if there is no successor
+     */
+    public boolean next() {
+      node = successor(node);
+      return node != null;
+    }
+
+    /**
+     * Move to the predecessor.
+     *
+     * @return false if there is no predecessor
+     */
+    public boolean prev() {
+      node = predecessor(node);
+      return node != null;
+    }
+  }
+
+  /**
+   * Create a cursor at the node with the smallest key no smaller than key.
+   *
+   * @param key key
+   * @return cursor
+   */
+  public Cursor cursor(T key) {
+    return new Cursor(ceiling(key));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new RangeIterator(root == null ? null : minimum(root), null, true);
+  }
+
+  /**
+   * Iterate keys in [lo, hi] by ascending order, nodes are visited lazily.
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return iterator
+   */
+  public Iterator<T> range(T lo, T hi) {
+    return new RangeIterator(ceiling(lo), hi, true);
+  }
+
+  /**
+   * Iterate keys in [lo, hi] by descending order, nodes are visited lazily.
+   *
+   * @param hi upper bound, inclusive
+   * @param lo lower bound, inclusive
+   * @return iterator
+   */
+  public Iterator<T> descendingRange(T hi, T lo) {
+    return new RangeIterator(floor(hi), lo, false);
+  }
+
+  /**
+   * Iterator that walks parent links from a start node until the bound.
+   */
+  private class RangeIterator implements Iterator<T> {
+    private RBTNode<T> next;
+    private final T bound;
+    private final boolean ascending;
+
+    RangeIterator(RBTNode<T> start, T bound, boolean ascending) {
+      this.bound = bound;
+      this.ascending = ascending;
+      this.next = inBound(start) ? start : null;
+    }
+
+    private boolean inBound(RBTNode<T> node) {
+      if (node == null || bound == null) {
+        return node != null;
+      }
+      int cmp = node.key.compareTo(bound);
+      return ascending ? cmp <= 0 : cmp >= 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public T next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      T key = next.key;
+      RBTNode<T> node = ascending ? successor(next) : predecessor(next);
+      next = inBound(node) ? node : null;
+      return key;
+    }
+  }
+
+  /**
+   * Create a spliterator over keys in [lo, hi], split on subtrees.
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return spliterator
+   */
+  public Spliterator<T> spliterator(T lo, T hi) {
+    RBTNode<T> first = ceiling(lo);
+    RBTNode<T> last = floor(hi);
+    if (first == null || last == null || first.key.compareTo(last.key) > 0) {
+      return new RangeSpliterator(null, null, 0);
+    }
+    return new RangeSpliterator(first, last, rankOf(last) - rankOf(first) + 1);
+  }
+
+  /**
+   * Stream keys in [lo, hi] by ascending order.
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return sequential stream
+   */
+  public Stream<T> stream(T lo, T hi) {
+    return StreamSupport.stream(spliterator(lo, hi), false);
+  }
+
+  /**
+   * Stream keys in [lo, hi], the range is split on subtrees across cores.
+   *
+   * @param lo lower bound, inclusive
+   * @param hi upper bound, inclusive
+   * @return parallel stream
+   */
+  public Stream<T> parallelStream(T lo, T hi) {
+    return StreamSupport.stream(spliterator(lo, hi), true);
+  }
+
+  /**
+   * Spliterator over nodes from first to last (inclusive).
+   */
+  private class RangeSpliterator implements Spliterator<T> {
+    private RBTNode<T> first;
+    private final RBTNode<T> last;
+    private long size;
+
+    RangeSpliterator(RBTNode<T> first, RBTNode<T> last, long size) {
+      this.first = first;
+      this.last = last;
+      this.size = size;
+    }
+
+    //the highest node in the subtree of x with key in (first, last]
+    private RBTNode<T> highestBetween(RBTNode<T> x) {
+      while (x != null) {
+        if (x.key.compareTo(first.key) <= 0) {
+          x = x.right;
+        } else if (x.key.compareTo(last.key) > 0) {
+          x = x.left;
+        } else {
+          return x;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      if (first == null || first == last) {
+        return null;
+      }
+      //the subtree root between first and last splits the range in halves
+      RBTNode<T> mid = highestBetween(root);
+      if (mid == null) {
+        return null;
+      }
+      int prefixSize = rankOf(mid) - rankOf(first);
+      RangeSpliterator prefix = new RangeSpliterator(first, predecessor(mid), prefixSize);
+      first = mid;
+      size -= prefixSize;
+      return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (first == null) {
+        return false;
+      }
+      action.accept(first.key);
+      first = first == last ? null : successor(first);
+      size--;
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      while (first != null) {
+        action.accept(first.key);
+        first = first == last ? null : successor(first);
+      }
+      size = 0;
+    }
+
+    @Override
+    public long estimateSize() {
+      return size;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | DISTINCT | SORTED | NONNULL | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+      return null;
+    }
+  }
+
   /**
    * Transform the configuration of two nodes on the right into the configuration
    * on the left by changing a constant number of pointers.
@@ -243,7 +911,10 @@ public class RBTree<T extends Comparable<T>> {
     //link x's parent to y
     y.parent = x.parent;
     if (x.parent == null) {
-      this.root = y;
+      //x can also be the top of a detached subtree in split and join
+      if (x == this.root) {
+        this.root = y;
+      }
     } else if (x == x.parent.left) {
       x.parent.left = y;
     } else {
@@ -252,6 +923,13 @@ public class RBTree<T extends Comparable<T>> {
     //put x on y's left
     y.left = x;
     x.parent = y;
+    //x is now below y
+    update(x);
+    update(y);
+    updateHeightsAbove(y);
+    if (Instrumentation.isEnabled()) {
+      rotations.increment();
+    }
   }
 
   /**
@@ -271,7 +949,10 @@ public class RBTree<T extends Comparable<T>> {
     //link x's parent to y
     y.parent = x.parent;
     if (x.parent == null) {
-      this.root = y;
+      //x can also be the top of a detached subtree in split and join
+      if (x == this.root) {
+        this.root = y;
+      }
     } else if (x == x.parent.left) {
       x.parent.left = y;
     } else {
@@ -280,6 +961,13 @@ public class RBTree<T extends Comparable<T>> {
     //put x on y's right
     y.right = x;
     x.parent = y;
+    //x is now below y
+    update(x);
+    update(y);
+    updateHeightsAbove(y);
+    if (Instrumentation.isEnabled()) {
+      rotations.increment();
+    }
   }
 
   /**
@@ -311,6 +999,8 @@ public class RBTree<T extends Comparable<T>> {
     }
     //set color
     setRed(z);
+    //every node on the path gets one more node in its subtree
+    updateToRoot(z);
     //restore RBT properties
     insertFixUp(z);
   }
@@ -321,6 +1011,17 @@ public class RBTree<T extends Comparable<T>> {
    * @param z the inserted node
    */
   public void insertFixUp(RBTNode<T> z) {
+    fixRedParents(z);
+    setBlack(this.root);
+  }
+
+  /**
+   * Fix red nodes with red parents from z upward, the root may be left red.
+   * Also works on a detached subtree with a black root.
+   *
+   * @param z red node
+   */
+  private void fixRedParents(RBTNode<T> z) {
     RBTNode<T> parent = parentOf(z);
     RBTNode<T> grandParent;
     // parent node exists and the color is red
@@ -380,7 +1081,23 @@ public class RBTree<T extends Comparable<T>> {
         leftRotate(grandParent);
       }
     }
-    setBlack(this.root);
+  }
+
+  /**
+   * Replace the subtree rooted at u with the subtree rooted at v.
+   *
+   * @param u node to be replaced
+   * @param v new node, can be null
+   */
+  private void transplant(RBTNode<T> u, RBTNode<T> v) {
+    if (u.parent == null) {
+      this.root = v;
+    } else if (u == u.parent.left) {
+      u.parent.left = v;
+    } else {
+      u.parent.right = v;
+    }
+    setParent(v, u.parent);
   }
 
   /**
@@ -389,16 +1106,515 @@ public class RBTree<T extends Comparable<T>> {
    * @param z node
    */
   public void delete(RBTNode<T> z) {
+    //y is the node actually removed from the tree (or moved into z's place)
+    RBTNode<T> y = z;
+    boolean yOriginalColor = y.color;
+    //x moves into y's original position, xParent is needed since x can be NIL
+    RBTNode<T> x;
+    RBTNode<T> xParent;
+    if (z.left == null) {
+      x = z.right;
+      xParent = z.parent;
+      transplant(z, z.right);
+    } else if (z.right == null) {
+      x = z.left;
+      xParent = z.parent;
+      transplant(z, z.left);
+    } else {
+      //z has two children, y is z's successor
+      y = minimum(z.right);
+      yOriginalColor = y.color;
+      x = y.right;
+      if (y.parent == z) {
+        xParent = y;
+      } else {
+        xParent = y.parent;
+        transplant(y, y.right);
+        y.right = z.right;
+        y.right.parent = y;
+      }
+      transplant(z, y);
+      y.left = z.left;
+      y.left.parent = y;
+      y.color = z.color;
+    }
+    z.left = null;
+    z.right = null;
+    z.parent = null;
+    update(z);
+    //every node above the removed position loses one node
+    updateToRoot(xParent);
+    //removing a black node breaks the black-height property
+    if (yOriginalColor == BLACK) {
+      deleteFixUp(x, xParent);
+    }
+  }
+
+  /**
+   * Restore RBT properties after deletion.
+   *
+   * @param x       the node that carries the extra black, can be NIL
+   * @param xParent parent of x
+   */
+  private void deleteFixUp(RBTNode<T> x, RBTNode<T> xParent) {
+    while (x != this.root && isBlack(x)) {
+      if (x == xParent.left) {
+        //sibling node
+        RBTNode<T> w = xParent.right;
+        if (isRed(w)) {
+          //case 1: sibling is red
+          setBlack(w);
+          setRed(xParent);
+          leftRotate(xParent);
+          w = xParent.right;
+        }
+        if (isBlack(w.left) && isBlack(w.right)) {
+          //case 2: sibling is black, both of its children are black
+          setRed(w);
+          x = xParent;
+          xParent = parentOf(x);
+        } else {
+          if (isBlack(w.right)) {
+            //case 3: sibling is black, its left child is red, right child is black
+            setBlack(w.left);
+            setRed(w);
+            rightRotate(w);
+            w = xParent.right;
+          }
+          //case 4: sibling is black, its right child is red
+          setColor(w, colorOf(xParent));
+          setBlack(xParent);
+          setBlack(w.right);
+          leftRotate(xParent);
+          x = this.root;
+        }
+      } else {
+        //x is the right child, symmetric
+        RBTNode<T> w = xParent.left;
+        if (isRed(w)) {
+          //case 1: sibling is red
+          setBlack(w);
+          setRed(xParent);
+          rightRotate(xParent);
+          w = xParent.left;
+        }
+        if (isBlack(w.right) && isBlack(w.left)) {
+          //case 2: sibling is black, both of its children are black
+          setRed(w);
+          x = xParent;
+          xParent = parentOf(x);
+        } else {
+          if (isBlack(w.left)) {
+            //case 3: sibling is black, its right child is red, left child is black
+            setBlack(w.right);
+            setRed(w);
+            leftRotate(w);
+            w = xParent.left;
+          }
+          //case 4: sibling is black, its left child is red
+          setColor(w, colorOf(xParent));
+          setBlack(xParent);
+          setBlack(w.left);
+          rightRotate(xParent);
+          x = this.root;
+        }
+      }
+    }
+    setBlack(x);
+  }
 
+  /**
+   * Get the black height of a subtree in O(log n), the root is counted as black.
+   *
+   * @param node root of subtree
+   * @return black height
+   */
+  private int blackHeight(RBTNode<T> node) {
+    if (node == null) {
+      return 0;
+    }
+    int height = 1;
+    node = node.left;
+    while (node != null) {
+      if (isBlack(node)) {
+        height++;
+      }
+      node = node.left;
+    }
+    return height;
   }
 
-  public static void main(String[] args) {
-    RBTree<Integer> rbTree = new RBTree<Integer>();
-    // int[] iniTree = {275, 711, 260, 515, 442, 800, 900, 50, 270, 20, 30};
-      int[] iniTree = {5,4,3,2,1};
-    for (int key : iniTree) {
-      rbTree.insert(new RBTNode<Integer>(key, RED, null, null, null));
+  /**
+   * Root of a detached subtree and its black height, the root is counted as black.
+   * Split and join carry the black heights so a join doesn't walk down to find them.
+   */
+  private static final class Subtree<T extends Comparable<T>> {
+    final RBTNode<T> root;
+    final int blackHeight;
+
+    Subtree(RBTNode<T> root, int blackHeight) {
+      this.root = root;
+      this.blackHeight = blackHeight;
+    }
+  }
+
+  /**
+   * Get a child of a subtree root as a subtree, must be called before the root is
+   * exposed. A red child keeps the black height of its parent once it's blackened,
+   * a black child has one less.
+   *
+   * @param child       child, can be null
+   * @param blackHeight black height of the parent
+   * @return child subtree
+   */
+  private Subtree<T> childOf(RBTNode<T> child, int blackHeight) {
+    if (child == null) {
+      return new Subtree<T>(null, 0);
+    }
+    return new Subtree<T>(child, isRed(child) ? blackHeight : blackHeight - 1);
+  }
+
+  /**
+   * Detach node from its parent and children, the children become roots.
+   *
+   * @param node node
+   */
+  private void expose(RBTNode<T> node) {
+    if (node.left != null) {
+      node.left.parent = null;
+      setBlack(node.left);
+    }
+    if (node.right != null) {
+      node.right.parent = null;
+      setBlack(node.right);
+    }
+    node.parent = null;
+  }
+
+  /**
+   * Join two subtrees with a middle node in O(|hL - hR| + 1), hL and hR are their
+   * black heights. All keys in left < k.key < all keys in right.
+   *
+   * @param left  left subtree, the root can be null
+   * @param k     middle node
+   * @param right right subtree, the root can be null
+   * @return joined subtree
+   */
+  private Subtree<T> joinNodes(Subtree<T> left, RBTNode<T> k, Subtree<T> right) {
+    k.parent = null;
+    if (left.blackHeight == right.blackHeight) {
+      k.left = left.root;
+      k.right = right.root;
+      setParent(left.root, k);
+      setParent(right.root, k);
+      setBlack(k);
+      update(k);
+      return new Subtree<T>(k, left.blackHeight + 1);
+    }
+
+    RBTNode<T> parent = null;
+    RBTNode<T> c;
+    if (left.blackHeight > right.blackHeight) {
+      //walk down the right spine of left to a black node with the same black height
+      c = left.root;
+      int height = left.blackHeight;
+      while (isRed(c) || height != right.blackHeight) {
+        if (isBlack(c)) {
+          height--;
+        }
+        parent = c;
+        c = c.right;
+      }
+      parent.right = k;
+      k.left = c;
+      k.right = right.root;
+    } else {
+      //walk down the left spine of right, symmetric
+      c = right.root;
+      int height = right.blackHeight;
+      while (isRed(c) || height != left.blackHeight) {
+        if (isBlack(c)) {
+          height--;
+        }
+        parent = c;
+        c = c.left;
+      }
+      parent.left = k;
+      k.left = left.root;
+      k.right = c;
+    }
+    k.parent = parent;
+    setParent(k.left, k);
+    setParent(k.right, k);
+    k.color = RED;
+    //k is O(|hL - hR|) deep, so are the fix-up and the walks up from it
+    updateToRoot(k);
+    fixRedParents(k);
+    RBTNode<T> top = k;
+    while (top.parent != null) {
+      top = top.parent;
     }
+    //the fix-up pushed a red node up to the root, blackening it adds a level
+    int height = Math.max(left.blackHeight, right.blackHeight);
+    if (isRed(top)) {
+      setBlack(top);
+      height++;
+    }
+    return new Subtree<T>(top, height);
+  }
+
+  /**
+   * Join two subtrees without a middle node in O(log n), all keys in left < all
+   * keys in right.
+   *
+   * @param left  left subtree, the root can be null
+   * @param right right subtree, the root can be null
+   * @return joined subtree
+   */
+  private Subtree<T> joinNodes(Subtree<T> left, Subtree<T> right) {
+    if (right.root == null) {
+      return left;
+    }
+    if (left.root == null) {
+      return right;
+    }
+    //take the maximum node of left as middle node
+    Split<T> last = splitLast(left);
+    return joinNodes(last.smaller, last.node, right);
+  }
+
+  /**
+   * Split the maximum node off a subtree, the joins on the way up cost O(log n)
+   * in total since the black heights of the joined subtrees grow by at most one.
+   *
+   * @param tree non-empty subtree
+   * @return the maximum node and the subtree of the other nodes
+   */
+  private Split<T> splitLast(Subtree<T> tree) {
+    RBTNode<T> node = tree.root;
+    Subtree<T> left = childOf(node.left, tree.blackHeight);
+    Subtree<T> right = childOf(node.right, tree.blackHeight);
+    expose(node);
+    if (right.root == null) {
+      Split<T> result = new Split<T>();
+      result.smaller = left;
+      result.node = node;
+      return result;
+    }
+    Split<T> result = splitLast(right);
+    result.smaller = joinNodes(left, node, result.smaller);
+    return result;
+  }
+
+  /**
+   * Result of splitNodes: the subtree of nodes with smaller keys, the node with the
+   * key (null if it doesn't exist) and the subtree of nodes with bigger keys.
+   */
+  private static final class Split<T extends Comparable<T>> {
+    Subtree<T> smaller;
+    RBTNode<T> node;
+    Subtree<T> bigger;
+  }
+
+  /**
+   * Split a subtree by key in O(log n), the joins on the way up telescope like in
+   * splitLast.
+   *
+   * @param tree subtree
+   * @param key  key
+   * @return split subtrees
+   */
+  private Split<T> splitNodes(Subtree<T> tree, T key) {
+    RBTNode<T> node = tree.root;
+    if (node == null) {
+      Split<T> result = new Split<T>();
+      result.smaller = tree;
+      result.bigger = tree;
+      return result;
+    }
+    Subtree<T> left = childOf(node.left, tree.blackHeight);
+    Subtree<T> right = childOf(node.right, tree.blackHeight);
+    expose(node);
+    int cmp = key.compareTo(node.key);
+    if (cmp == 0) {
+      Split<T> result = new Split<T>();
+      result.smaller = left;
+      result.node = node;
+      result.bigger = right;
+      return result;
+    }
+    Split<T> result;
+    if (cmp < 0) {
+      result = splitNodes(left, key);
+      result.bigger = joinNodes(result.bigger, node, right);
+    } else {
+      result = splitNodes(right, key);
+      result.smaller = joinNodes(left, node, result.smaller);
+    }
+    return result;
+  }
+
+  /**
+   * Join left tree, a middle node and right tree into one tree.
+   * All keys in left must be smaller than k.key, all keys in right must be bigger.
+   * Both trees are consumed and become empty.
+   *
+   * @param left  left tree
+   * @param k     middle node
+   * @param right right tree
+   * @return joined tree
+   */
+  public static <T extends Comparable<T>> RBTree<T> join(RBTree<T> left, RBTNode<T> k,
+                                                         RBTree<T> right) {
+    Subtree<T> leftTree = left.detach();
+    Subtree<T> rightTree = right.detach();
+    RBTree<T> tree = new RBTree<T>(left.monoid);
+    tree.root = left.joinNodes(leftTree, k, rightTree).root;
+    return tree;
+  }
+
+  /**
+   * Split the tree by key. This tree keeps the nodes with smaller keys,
+   * the nodes with bigger keys are moved to the returned tree.
+   * The node with key (if exists) is removed from both trees.
+   *
+   * @param key key
+   * @return tree with bigger keys
+   */
+  public RBTree<T> split(T key) {
+    Split<T> result = splitNodes(detach(), key);
+    this.root = result.smaller.root;
+    RBTree<T> right = new RBTree<T>(monoid);
+    right.root = result.bigger.root;
+    return right;
+  }
+
+  /**
+   * Empty the tree and return its nodes as a detached subtree. While the tree has
+   * no root, rotations at the top of a detached subtree leave the root alone.
+   *
+   * @return subtree of all nodes
+   */
+  private Subtree<T> detach() {
+    Subtree<T> tree = new Subtree<T>(this.root, blackHeight(this.root));
+    this.root = null;
+    return tree;
+  }
+
+  /**
+   * Union of this tree and other tree, in parallel.
+   * Both trees are consumed and become empty.
+   *
+   * @param other other tree
+   * @return tree with keys in either tree
+   */
+  public RBTree<T> union(RBTree<T> other) {
+    return setOperation(other, SetOperation.UNION);
+  }
+
+  /**
+   * Intersection of this tree and other tree, in parallel.
+   * Both trees are consumed and become empty.
+   *
+   * @param other other tree
+   * @return tree with keys in both trees
+   */
+  public RBTree<T> intersection(RBTree<T> other) {
+    return setOperation(other, SetOperation.INTERSECTION);
+  }
+
+  /**
+   * Difference of this tree and other tree, in parallel.
+   * Both trees are consumed and become empty.
+   *
+   * @param other other tree
+   * @return tree with keys in this tree but not in other tree
+   */
+  public RBTree<T> difference(RBTree<T> other) {
+    return setOperation(other, SetOperation.DIFFERENCE);
+  }
+
+  private RBTree<T> setOperation(RBTree<T> other, SetOperation operation) {
+    Subtree<T> tree1 = detach();
+    Subtree<T> tree2 = other.detach();
+    RBTree<T> tree = new RBTree<T>(monoid);
+    tree.root = ForkJoinPool.commonPool().invoke(
+            new SetOperationTask(operation, tree1, tree2, 0)).root;
+    return tree;
+  }
+
+  private enum SetOperation {
+    UNION, INTERSECTION, DIFFERENCE
+  }
+
+  /**
+   * Recursive split-and-join task, the two halves are computed in parallel.
+   */
+  private class SetOperationTask extends RecursiveTask<Subtree<T>> {
+    private static final long serialVersionUID = 1L;
+    //stop forking below this depth, 2^depth tasks are enough for all cores
+    private static final int MAX_FORK_DEPTH = 12;
+
+    private final SetOperation operation;
+    private final Subtree<T> tree1;
+    private final Subtree<T> tree2;
+    private final int depth;
+
+    SetOperationTask(SetOperation operation, Subtree<T> tree1, Subtree<T> tree2, int depth) {
+      this.operation = operation;
+      this.tree1 = tree1;
+      this.tree2 = tree2;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Subtree<T> compute() {
+      if (tree1.root == null) {
+        return operation == SetOperation.UNION ? tree2 : tree1;
+      }
+      if (tree2.root == null) {
+        return operation == SetOperation.INTERSECTION ? tree2 : tree1;
+      }
+      //split tree1 by the key of the root of tree2
+      RBTNode<T> root2 = tree2.root;
+      Subtree<T> left2 = childOf(root2.left, tree2.blackHeight);
+      Subtree<T> right2 = childOf(root2.right, tree2.blackHeight);
+      expose(root2);
+      Split<T> split = splitNodes(tree1, root2.key);
+
+      SetOperationTask leftTask =
+              new SetOperationTask(operation, split.smaller, left2, depth + 1);
+      SetOperationTask rightTask =
+              new SetOperationTask(operation, split.bigger, right2, depth + 1);
+      Subtree<T> left;
+      Subtree<T> right;
+      if (depth < MAX_FORK_DEPTH) {
+        rightTask.fork();
+        left = leftTask.compute();
+        right = rightTask.join();
+      } else {
+        left = leftTask.compute();
+        right = rightTask.compute();
+      }
+
+      switch (operation) {
+        case UNION:
+          return joinNodes(left, root2, right);
+        case INTERSECTION:
+          if (split.node != null) {
+            return joinNodes(left, root2, right);
+          }
+          return joinNodes(left, right);
+        default:
+          return joinNodes(left, right);
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    // Integer[] iniTree = {275, 711, 260, 515, 442, 800, 900, 50, 270, 20, 30};
+    Integer[] iniTree = {5, 4, 3, 2, 1};
+    RBTree<Integer> rbTree = RBTree.fromUnsorted(iniTree);
     Scanner sc = new Scanner(System.in);
     String input = "";
     String number = "";
@@ -411,11 +1627,11 @@ public class RBTree<T extends Comparable<T>> {
           rbTree.insert(new RBTNode<Integer>
                   (Integer.parseInt(number), RED, null, null, null));
           System.out.println("The height of tree is: "
-                  + rbTree.getHeight(rbTree.getRoot()));
+                  + rbTree.getHeight(rbTree.getRoot()) + ", size is: " + rbTree.size());
           break;
         case "search":
           number = sc.next();
-          RBTNode tmp = rbTree.search(rbTree.getRoot(), Integer.parseInt(number));
+          RBTNode<Integer> tmp = rbTree.search(rbTree.getRoot(), Integer.parseInt(number));
           if (tmp == null) {
             System.out.println("Key doesn't exist.");
           } else {
@@ -433,7 +1649,7 @@ public class RBTree<T extends Comparable<T>> {
           break;
         case "successor":
           number = sc.next();
-          RBTNode successor = rbTree.successor(Integer.parseInt(number));
+          RBTNode<Integer> successor = rbTree.successor(Integer.parseInt(number));
           if (successor == null) {
             System.out.println("No successor");
           } else {
@@ -443,7 +1659,7 @@ public class RBTree<T extends Comparable<T>> {
           break;
         case "predecessor":
           number = sc.next();
-          RBTNode predecessor = rbTree.predecessor(Integer.parseInt(number));
+          RBTNode<Integer> predecessor = rbTree.predecessor(Integer.parseInt(number));
           if (predecessor == null) {
             System.out.println("No predecessor");
           } else {
@@ -451,8 +1667,44 @@ public class RBTree<T extends Comparable<T>> {
                     + predecessor.key);
           }
           break;
+        case "delete":
+          number = sc.next();
+          RBTNode<Integer> deleteNode = rbTree.search(rbTree.getRoot(), Integer.parseInt(number));
+          if (deleteNode == null) {
+            System.out.println("Key doesn't exist.");
+          } else {
+            rbTree.delete(deleteNode);
+            System.out.println("The height of tree is: "
+                    + rbTree.getHeight(rbTree.getRoot()));
+          }
+          break;
         case "sort":
-          rbTree.inorderTreeWalk(rbTree.getRoot());
+          for (int key : rbTree) {
+            System.out.print(key + " ");
+          }
+          System.out.println();
+          break;
+        case "rank":
+          number = sc.next();
+          System.out.println("The rank of " + number + " is "
+                  + rbTree.rank(Integer.parseInt(number)));
+          break;
+        case "select":
+          number = sc.next();
+          RBTNode<Integer> selected = rbTree.select(Integer.parseInt(number));
+          if (selected == null) {
+            System.out.println("Rank out of range");
+          } else {
+            System.out.println("Key = " + selected.key);
+          }
+          break;
+        case "range":
+          int lo = Integer.parseInt(sc.next());
+          int hi = Integer.parseInt(sc.next());
+          Iterator<Integer> range = rbTree.range(lo, hi);
+          while (range.hasNext()) {
+            System.out.print(range.next() + " ");
+          }
           System.out.println();
           break;
         case "q":
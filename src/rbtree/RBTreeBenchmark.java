@@ -0,0 +1,116 @@
+package rbtree;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Compare parallel set operations of RBTree against merging TreeSets,
+ * and bulk construction against inserting keys one by one.
+ */
+public class RBTreeBenchmark {
+
+  private static final int ROUNDS = 5;
+
+  private static RBTree<Integer> build(int[] keys) {
+    RBTree<Integer> tree = new RBTree<Integer>();
+    for (int key : keys) {
+      if (tree.search(tree.getRoot(), key) == null) {
+        tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+      }
+    }
+    return tree;
+  }
+
+  private static TreeSet<Integer> buildSet(int[] keys) {
+    TreeSet<Integer> set = new TreeSet<Integer>();
+    for (int key : keys) {
+      set.add(key);
+    }
+    return set;
+  }
+
+  private static int[] randomKeys(Random random, int size) {
+    int[] keys = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt(size * 4);
+    }
+    return keys;
+  }
+
+  private static void bulkLoad(Random random, int size) {
+    Integer[] keys = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt();
+    }
+    long start = System.nanoTime();
+    RBTree<Integer> tree = new RBTree<Integer>();
+    for (Integer key : keys) {
+      tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+    }
+    long insertTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    RBTree.fromUnsorted(keys);
+    long unsortedTime = System.nanoTime() - start;
+
+    Arrays.sort(keys);
+    start = System.nanoTime();
+    RBTree.fromSorted(keys);
+    long sortedTime = System.nanoTime() - start;
+    System.out.println("bulk load of " + size + " keys: insert " + insertTime / 1_000_000
+            + " ms, fromUnsorted " + unsortedTime / 1_000_000 + " ms, fromSorted "
+            + sortedTime / 1_000_000 + " ms");
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args [size of first tree] [size of second tree] [bulk load size]
+   */
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int m = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    int bulk = args.length > 2 ? Integer.parseInt(args[2]) : 5_000_000;
+    Random random = new Random(42);
+    int[] keys1 = randomKeys(random, n);
+    int[] keys2 = randomKeys(random, m);
+    System.out.println("n = " + n + ", m = " + m + ", cores = "
+            + Runtime.getRuntime().availableProcessors());
+
+    String[] names = {"union", "intersection", "difference"};
+    for (int op = 0; op < names.length; op++) {
+      long treeTime = 0;
+      long setTime = 0;
+      for (int round = 0; round < ROUNDS; round++) {
+        RBTree<Integer> tree1 = build(keys1);
+        RBTree<Integer> tree2 = build(keys2);
+        long start = System.nanoTime();
+        if (op == 0) {
+          tree1.union(tree2);
+        } else if (op == 1) {
+          tree1.intersection(tree2);
+        } else {
+          tree1.difference(tree2);
+        }
+        treeTime += System.nanoTime() - start;
+
+        TreeSet<Integer> set1 = buildSet(keys1);
+        TreeSet<Integer> set2 = buildSet(keys2);
+        start = System.nanoTime();
+        if (op == 0) {
+          set1.addAll(set2);
+        } else if (op == 1) {
+          set1.retainAll(set2);
+        } else {
+          set1.removeAll(set2);
+        }
+        setTime += System.nanoTime() - start;
+      }
+      System.out.println(names[op] + ": RBTree " + treeTime / ROUNDS / 1000 + " us, TreeSet "
+              + setTime / ROUNDS / 1000 + " us");
+    }
+
+    bulkLoad(random, bulk);
+  }
+}
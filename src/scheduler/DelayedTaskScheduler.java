@@ -0,0 +1,155 @@
+package scheduler;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread-safe delayed-task scheduler on a HierarchicalTimerWheel.
+ * A ticker thread advances the wheel once per tick and hands expired tasks to the
+ * executor, so a slow task never delays the wheel. Deadlines are rounded up to
+ * whole ticks, a task never runs early.
+ */
+public class DelayedTaskScheduler implements AutoCloseable {
+
+  private final HierarchicalTimerWheel wheel;
+  private final Executor executor;
+  private final long tickNanos;
+  private final long startNanos;
+  private final Thread ticker;
+  private volatile boolean closed;
+
+  /**
+   * DelayedTaskScheduler constructor.
+   *
+   * @param tick     tick duration
+   * @param unit     unit of tick
+   * @param executor runs expired tasks, e.g. a pool or virtualThreadExecutor()
+   */
+  public DelayedTaskScheduler(long tick, TimeUnit unit, Executor executor) {
+    tickNanos = unit.toNanos(tick);
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("tick must be positive");
+    }
+    if (executor == null) {
+      throw new NullPointerException("executor");
+    }
+    this.executor = executor;
+    startNanos = System.nanoTime();
+    wheel = new HierarchicalTimerWheel(0);
+    ticker = new Thread(this::run, "timer-wheel-ticker");
+    ticker.setDaemon(true);
+    ticker.start();
+  }
+
+  /**
+   * Get an executor that runs every task in a new virtual thread. Virtual threads
+   * need Java 21, the method is called by reflection so this class still runs on 17.
+   *
+   * @return virtual-thread-per-task executor
+   * @throws UnsupportedOperationException if the runtime has no virtual threads
+   */
+  public static Executor virtualThreadExecutor() {
+    try {
+      Method factory = Executors.class
+              .getMethod("newVirtualThreadPerTaskExecutor");
+      return (Executor) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Virtual threads need Java 21 or later", e);
+    }
+  }
+
+  /**
+   * Schedule task to run after delay.
+   *
+   * @param task  task
+   * @param delay delay
+   * @param unit  unit of delay
+   * @return handle to cancel the task
+   */
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    if (closed) {
+      throw new IllegalStateException("Scheduler is closed");
+    }
+    long deadlineNanos = System.nanoTime() - startNanos + Math.max(unit.toNanos(delay), 0);
+    //round up, a task never runs before its delay
+    long deadline = (deadlineNanos + tickNanos - 1) / tickNanos;
+    synchronized (wheel) {
+      return wheel.schedule(deadline, task);
+    }
+  }
+
+  /**
+   * Get the number of pending tasks.
+   *
+   * @return tasks not fired nor cancelled
+   */
+  public int pending() {
+    synchronized (wheel) {
+      return wheel.size();
+    }
+  }
+
+  private void run() {
+    List<Timeout> expired = new ArrayList<Timeout>();
+    long nextTick = 1;
+    while (!closed) {
+      long wait = startNanos + nextTick * tickNanos - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(this, wait);
+        continue;
+      }
+      long tick = (System.nanoTime() - startNanos) / tickNanos;
+      synchronized (wheel) {
+        wheel.advanceTo(tick, expired::add);
+      }
+      for (Timeout timeout : expired) {
+        //a task closed the scheduler, the rest of the tick doesn't run either
+        if (closed) {
+          break;
+        }
+        try {
+          executor.execute(timeout.task);
+        } catch (RuntimeException e) {
+          //a rejected or failing task must not stop the ticker
+          Thread.UncaughtExceptionHandler handler = ticker.getUncaughtExceptionHandler();
+          handler.uncaughtException(ticker, e);
+        }
+      }
+      expired.clear();
+      nextTick = tick + 1;
+    }
+  }
+
+  /**
+   * Stop the ticker, pending tasks never run. The executor is not shut down.
+   */
+  @Override
+  public void close() {
+    shutdown();
+  }
+
+  /**
+   * Stop the ticker, pending tasks never run. The executor is not shut down.
+   * Called from a task running on the ticker thread, it doesn't wait: the ticker
+   * stops once that task returns.
+   *
+   * @return number of pending tasks dropped
+   */
+  public int shutdown() {
+    closed = true;
+    if (Thread.currentThread() != ticker) {
+      LockSupport.unpark(ticker);
+      try {
+        ticker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return pending();
+  }
+}
@@ -0,0 +1,107 @@
+package scheduler;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare DelayedTaskScheduler with ScheduledThreadPoolExecutor on the timeout
+ * pattern: schedule many long timeouts and cancel most of them, then fire a batch of
+ * short ones. Both run fired tasks on one thread, STPE removes cancelled tasks
+ * from its queue so neither keeps garbage.
+ */
+public class DelayedTaskSchedulerBenchmark {
+
+  private static final Runnable NOOP = () -> { };
+
+  /**
+   * Main method.
+   *
+   * @param args [timeouts] [cancelled per mille] [fired tasks]
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int cancelPerMille = args.length > 1 ? Integer.parseInt(args[1]) : 900;
+    int fired = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+    Random random = new Random(42);
+    long[] delays = new long[n];
+    for (int i = 0; i < n; i++) {
+      //timeouts of 10 to 70 seconds, none fires during the benchmark
+      delays[i] = 10_000 + random.nextInt(60_000);
+    }
+
+    //run twice, the first round warms up the JIT
+    for (int round = 0; round < 2; round++) {
+      DelayedTaskScheduler scheduler =
+              new DelayedTaskScheduler(1, TimeUnit.MILLISECONDS, Runnable::run);
+      Timeout[] timeouts = new Timeout[n];
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        timeouts[i] = scheduler.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+      }
+      long wheelSchedule = System.nanoTime() - start;
+      start = System.nanoTime();
+      int wheelCancelled = 0;
+      for (int i = 0; i < n; i++) {
+        if (i % 1000 < cancelPerMille && timeouts[i].cancel()) {
+          wheelCancelled++;
+        }
+      }
+      long wheelCancel = System.nanoTime() - start;
+      long wheelFire = fire(scheduler, fired, random);
+      scheduler.shutdown();
+
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+      executor.setRemoveOnCancelPolicy(true);
+      ScheduledFuture<?>[] futures = new ScheduledFuture<?>[n];
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        futures[i] = executor.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+      }
+      long poolSchedule = System.nanoTime() - start;
+      start = System.nanoTime();
+      int poolCancelled = 0;
+      for (int i = 0; i < n; i++) {
+        if (i % 1000 < cancelPerMille && futures[i].cancel(false)) {
+          poolCancelled++;
+        }
+      }
+      long poolCancel = System.nanoTime() - start;
+      long poolFire = fire(executor, fired, random);
+      executor.shutdownNow();
+
+      if (round == 1) {
+        System.out.println("timeouts = " + n + ", cancelled = " + wheelCancelled + "/"
+                + poolCancelled + ", fired = " + fired);
+        System.out.printf("%-28s %12s %12s %16s%n", "", "schedule ns", "cancel ns",
+                "fire tasks/ms");
+        System.out.printf("%-28s %12d %12d %16.1f%n", "DelayedTaskScheduler",
+                wheelSchedule / n, wheelCancel / Math.max(wheelCancelled, 1),
+                (double) fired * 1_000_000 / wheelFire);
+        System.out.printf("%-28s %12d %12d %16.1f%n", "ScheduledThreadPoolExecutor",
+                poolSchedule / n, poolCancel / Math.max(poolCancelled, 1),
+                (double) fired * 1_000_000 / poolFire);
+      }
+    }
+  }
+
+  //schedule tasks due within 100 ms and wait until all ran, in nanoseconds
+  private static long fire(Object scheduler, int count, Random random)
+          throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(count);
+    Runnable task = done::countDown;
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      long delay = random.nextInt(100);
+      if (scheduler instanceof DelayedTaskScheduler) {
+        ((DelayedTaskScheduler) scheduler).schedule(task, delay, TimeUnit.MILLISECONDS);
+      } else {
+        ((ScheduledThreadPoolExecutor) scheduler).schedule(task, delay, TimeUnit.MILLISECONDS);
+      }
+    }
+    done.await();
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,235 @@
+package scheduler;
+
+import binomialheap.BinomialPriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel over integer ticks, not thread-safe (DelayedTaskScheduler
+ * locks it).
+ * Level l has 64 slots of 64^l ticks each, a timeout goes to the lowest level whose
+ * slot index is the first place its deadline differs from the current tick, like
+ * the Linux timer wheel. When the current tick enters a higher-level slot, that
+ * slot cascades into the lower levels. The wheel covers the current aligned
+ * period of 64^4 ticks: a deadline in a later period overflows into a binomial heap
+ * keyed by deadline and moves into the wheel when the current tick enters its
+ * period. So the wheel's reach is between 1 and 64^4 ticks depending on where the
+ * current tick is in its period, near the end of a period even a deadline one tick
+ * away overflows. Schedule and cancel are O(1) in the wheel, O(log n) in the
+ * overflow heap. advanceTo jumps over ticks with nothing to fire or cascade by
+ * looking up the next occupied slot of each level in a bitmap.
+ */
+public class HierarchicalTimerWheel {
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 4;
+  //ticks covered by the wheel
+  private static final int HORIZON_BITS = SLOT_BITS * LEVELS;
+
+  //head of the list in each slot, index level * SLOTS + slot
+  private final Timeout[] slots = new Timeout[LEVELS * SLOTS];
+  //bit i of occupied[level] is set if slot i of the level is not empty
+  private final long[] occupied = new long[LEVELS];
+  private final BinomialPriorityQueue<Timeout> overflow = new BinomialPriorityQueue<Timeout>();
+  //last tick processed by advanceTo
+  private long currentTick;
+  private int size;
+
+  /**
+   * HierarchicalTimerWheel constructor.
+   *
+   * @param startTick current tick
+   */
+  public HierarchicalTimerWheel(long startTick) {
+    currentTick = startTick;
+  }
+
+  public long currentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Get the number of pending timeouts.
+   *
+   * @return pending timeouts in the wheel and the overflow heap
+   */
+  public int size() {
+    return size;
+  }
+
+  public int overflowSize() {
+    return overflow.size();
+  }
+
+  /**
+   * Schedule task at deadline, a deadline not after the current tick fires on the
+   * next tick.
+   *
+   * @param deadline deadline tick
+   * @param task     task
+   * @return handle to cancel the task
+   */
+  public Timeout schedule(long deadline, Runnable task) {
+    if (task == null) {
+      throw new NullPointerException("task");
+    }
+    Timeout timeout = new Timeout(this, Math.max(deadline, currentTick + 1), task);
+    place(timeout);
+    size++;
+    return timeout;
+  }
+
+  //put timeout in the slot of its level, or in the overflow heap if its deadline is
+  //in a later period of the top level
+  private void place(Timeout timeout) {
+    long diff = timeout.deadline ^ currentTick;
+    if (diff >>> HORIZON_BITS != 0) {
+      timeout.slot = -1;
+      timeout.overflowEntry = overflow.insert(timeout.deadline, timeout);
+      return;
+    }
+    //level of the highest slot digit where deadline and current tick differ
+    int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff | 1)) / SLOT_BITS;
+    timeout.slot = level * SLOTS + ((int) (timeout.deadline >>> (level * SLOT_BITS)) & SLOT_MASK);
+    timeout.prev = null;
+    timeout.next = slots[timeout.slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    slots[timeout.slot] = timeout;
+    occupied[level] |= 1L << (timeout.slot & SLOT_MASK);
+  }
+
+  //take the whole list of a slot
+  private Timeout takeSlot(int slot) {
+    Timeout head = slots[slot];
+    slots[slot] = null;
+    occupied[slot / SLOTS] &= ~(1L << (slot & SLOT_MASK));
+    return head;
+  }
+
+  /**
+   * Find the next tick that fires or cascades a slot, or moves the overflow heap.
+   * Every timeout sits in a slot after the current tick's slot of its level, so it's
+   * the first occupied slot after the current one at each level.
+   *
+   * @return next tick with work, Long.MAX_VALUE if there's none
+   */
+  private long nextEventTick() {
+    long next = Long.MAX_VALUE;
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = level * SLOT_BITS;
+      int digit = (int) (currentTick >>> shift) & SLOT_MASK;
+      long after = digit == SLOT_MASK ? 0 : occupied[level] & (-1L << (digit + 1));
+      if (after != 0) {
+        long periodStart = (currentTick >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+        next = Math.min(next, periodStart | ((long) Long.numberOfTrailingZeros(after) << shift));
+      }
+    }
+    BinomialPriorityQueue.Entry<Timeout> min = overflow.minimum();
+    if (min != null) {
+      long periodStart = (min.getPriority() >>> HORIZON_BITS) << HORIZON_BITS;
+      next = Math.min(next, Math.max(periodStart, currentTick + 1));
+    }
+    return next;
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.prev == null) {
+      slots[timeout.slot] = timeout.next;
+      if (timeout.next == null) {
+        occupied[timeout.slot / SLOTS] &= ~(1L << (timeout.slot & SLOT_MASK));
+      }
+    } else {
+      timeout.prev.next = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.slot = -1;
+  }
+
+  /**
+   * Cancel timeout, unlinked from its slot in O(1) or deleted from the overflow heap.
+   *
+   * @param timeout timeout of this wheel
+   * @return false if it already fired or was cancelled
+   */
+  boolean cancel(Timeout timeout) {
+    if (timeout.state != Timeout.PENDING) {
+      return false;
+    }
+    if (timeout.overflowEntry != null) {
+      overflow.delete(timeout.overflowEntry);
+      timeout.overflowEntry = null;
+    } else {
+      unlink(timeout);
+    }
+    timeout.state = Timeout.CANCELLED;
+    size--;
+    return true;
+  }
+
+  /**
+   * Process every tick up to and including tick, expired timeouts are removed and
+   * passed to expired in deadline order.
+   *
+   * @param tick    new current tick
+   * @param expired receives expired timeouts
+   * @return number of expired timeouts
+   */
+  public int advanceTo(long tick, Consumer<Timeout> expired) {
+    int count = 0;
+    while (currentTick < tick) {
+      long next = nextEventTick();
+      if (next > tick) {
+        //nothing to fire or cascade until tick
+        currentTick = tick;
+        break;
+      }
+      currentTick = next;
+      //deadlines in the period the current tick entered leave the overflow heap
+      BinomialPriorityQueue.Entry<Timeout> min = overflow.minimum();
+      while (min != null && (min.getPriority() ^ currentTick) >>> HORIZON_BITS == 0) {
+        overflow.extractMin();
+        Timeout timeout = min.getPayload();
+        timeout.overflowEntry = null;
+        place(timeout);
+        min = overflow.minimum();
+      }
+      //cascade every level whose slot starts at this tick, the highest first
+      int level = 0;
+      while (level + 1 < LEVELS
+              && (currentTick & ((1L << ((level + 1) * SLOT_BITS)) - 1)) == 0) {
+        level++;
+      }
+      for (; level > 0; level--) {
+        int slot = level * SLOTS + ((int) (currentTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+        Timeout timeout = takeSlot(slot);
+        while (timeout != null) {
+          Timeout following = timeout.next;
+          place(timeout);
+          timeout = following;
+        }
+      }
+      //fire the level 0 slot of this tick
+      int slot = (int) currentTick & SLOT_MASK;
+      Timeout timeout = takeSlot(slot);
+      while (timeout != null) {
+        Timeout following = timeout.next;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        timeout.state = Timeout.EXPIRED;
+        size--;
+        count++;
+        expired.accept(timeout);
+        timeout = following;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,75 @@
+package scheduler;
+
+import binomialheap.BinomialPriorityQueue;
+
+/**
+ * Handle of a task scheduled in a HierarchicalTimerWheel, used to cancel it.
+ * A timeout lives in one slot list of the wheel, or in the overflow heap if its
+ * deadline is in a later 64^4-tick period than the wheel's current tick.
+ */
+public final class Timeout {
+
+  static final int PENDING = 0;
+  static final int CANCELLED = 1;
+  static final int EXPIRED = 2;
+
+  private final HierarchicalTimerWheel wheel;
+  final long deadline;
+  final Runnable task;
+  int state;
+  //links in a slot list, slot is -1 if the timeout is in the overflow heap or removed
+  Timeout prev;
+  Timeout next;
+  int slot;
+  //entry in the overflow heap
+  BinomialPriorityQueue.Entry<Timeout> overflowEntry;
+
+  Timeout(HierarchicalTimerWheel wheel, long deadline, Runnable task) {
+    this.wheel = wheel;
+    this.deadline = deadline;
+    this.task = task;
+    this.slot = -1;
+  }
+
+  /**
+   * Get the tick at which the task fires.
+   *
+   * @return deadline tick
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  public Runnable getTask() {
+    return task;
+  }
+
+  /**
+   * Cancel the task if it hasn't fired yet, O(1) in the wheel, O(log n) in the
+   * overflow heap.
+   *
+   * @return false if it already fired or was cancelled
+   */
+  public boolean cancel() {
+    synchronized (wheel) {
+      return wheel.cancel(this);
+    }
+  }
+
+  public boolean isCancelled() {
+    synchronized (wheel) {
+      return state == CANCELLED;
+    }
+  }
+
+  public boolean isExpired() {
+    synchronized (wheel) {
+      return state == EXPIRED;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "deadline = " + deadline + ", task = " + task;
+  }
+}
@@ -1,7 +1,9 @@
 package skiplist;
 
+import java.util.Arrays;
 import java.util.Random;
 import java.util.Scanner;
+import metrics.Instrumentation;
 
 
 /**
@@ -23,6 +25,14 @@ public class SkipList {
   //positive infinity
   private static final int TAIL_KEY = Integer.MAX_VALUE;
 
+  //estimated bytes of a node: header, key, four links and outer instance
+  private static final int NODE_BYTES = 40;
+  private int size;
+  //hops per search, recorded while instrumentation is enabled
+  private final long[] searchHops = new long[64];
+  private long searches;
+  private long totalHops;
+
   /**
    * Node class that represents key, up, down, left and right.
    */
@@ -73,6 +83,53 @@ public class SkipList {
     }
   }
 
+  /**
+   * Search a batch of keys at bottom.
+   * The batch is sorted first, so each search resumes from the path of the
+   * previous (smaller) key instead of descending from head again.
+   *
+   * @param keys keys
+   * @return nodes in the same order as keys, null if key doesn't exist
+   */
+  public Node[] searchAll(int[] keys) {
+    Node[] result = new Node[keys.length];
+    if (keys.length == 0) {
+      return result;
+    }
+    //pack key in high bits and position in low bits, sort without boxing
+    long[] probes = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      probes[i] = ((long) keys[i] << 32) | i;
+    }
+    Arrays.sort(probes);
+
+    //path[i] is the last node visited at level i (bottom level is 0)
+    Node[] path = new Node[listLevel + 1];
+    for (long probe : probes) {
+      int key = (int) (probe >> 32);
+      Node tmp = findNode(key, path);
+      if (tmp.key == key) {
+        result[(int) probe] = tmp;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Check if the skiplist contains all the keys.
+   *
+   * @param keys keys
+   * @return true if every key exists
+   */
+  public boolean containsAll(int[] keys) {
+    for (Node node : searchAll(keys)) {
+      if (node == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Insert new node.
    *
@@ -129,6 +186,7 @@ public class SkipList {
       currentLevel++;
     }
 
+    size++;
     return true;
   }
 
@@ -160,6 +218,7 @@ public class SkipList {
       listLevel--;
     }
 
+    size--;
     return true;
   }
 
@@ -185,19 +244,124 @@ public class SkipList {
   //otherwise return the previous node at bottom
   private Node findNode(int key) {
     Node current = head;
+    int hops = 0;
     while (true) {
       while (current.right.key != TAIL_KEY && current.right.key <= key) {
         //go right
         current = current.right;
+        hops++;
       }
       if (current.down != null) {
         //go down
         current = current.down;
+        hops++;
       } else {
         //reach the bottom list
         break;
       }
     }
+    if (Instrumentation.isEnabled()) {
+      searchHops[Math.min(hops, searchHops.length - 1)]++;
+      searches++;
+      totalHops += hops;
+    }
+    return current;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the number of levels above the bottom list.
+   *
+   * @return level of the top list
+   */
+  public int getLevel() {
+    return listLevel;
+  }
+
+  /**
+   * Count the nodes of every level by walking the lists.
+   *
+   * @return nodes at level 0 (every key), 1 ... listLevel
+   */
+  public long[] levelHistogram() {
+    long[] histogram = new long[listLevel + 1];
+    Node first = head;
+    for (int level = listLevel; level >= 0 && first != null; level--) {
+      for (Node tmp = first.right; tmp != null && tmp.key != TAIL_KEY; tmp = tmp.right) {
+        histogram[level]++;
+      }
+      first = first.down;
+    }
+    return histogram;
+  }
+
+  /**
+   * Get the number of searches per number of hops, right and down moves, recorded
+   * while instrumentation is enabled. Insert and delete search too.
+   *
+   * @return searches that took 0, 1 ... 63 or more hops
+   */
+  public long[] getSearchHopHistogram() {
+    return searchHops.clone();
+  }
+
+  public double getMeanSearchHops() {
+    return searches == 0 ? 0 : (double) totalHops / searches;
+  }
+
+  /**
+   * Estimate the bytes per key from the nodes of all levels, with compressed
+   * references.
+   *
+   * @return bytes per key
+   */
+  public double estimatedBytesPerEntry() {
+    long nodes = 0;
+    for (long count : levelHistogram()) {
+      nodes += count;
+    }
+    return (double) NODE_BYTES * nodes / Math.max(size, 1);
+  }
+
+  //find the node with input key at bottom, starting from the path of a smaller key
+  //path is filled with the last node visited at each level
+  private Node findNode(int key, Node[] path) {
+    if (path[0] == null) {
+      //first search, descend from head
+      Node current = head;
+      for (int level = listLevel; level >= 0; level--) {
+        while (current.right.key != TAIL_KEY && current.right.key <= key) {
+          current = current.right;
+        }
+        path[level] = current;
+        current = current.down;
+      }
+      return path[0];
+    }
+
+    //go up while the right node at this level is still no bigger than key
+    int level = 0;
+    while (level < listLevel && path[level].right.key != TAIL_KEY
+            && path[level].right.key <= key) {
+      level++;
+    }
+    //levels above don't need to move, go right and down from here
+    Node current = path[level];
+    while (true) {
+      while (current.right.key != TAIL_KEY && current.right.key <= key) {
+        current = current.right;
+      }
+      path[level] = current;
+      if (level == 0) {
+        break;
+      }
+      level--;
+      //take whichever is further right: the node below or the old path node
+      current = current.down.key >= path[level].key ? current.down : path[level];
+    }
     return current;
   }
 
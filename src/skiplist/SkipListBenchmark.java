@@ -0,0 +1,60 @@
+package skiplist;
+
+import java.util.Random;
+
+/**
+ * Compare batch search against a loop over search.
+ */
+public class SkipListBenchmark {
+
+  private static final int ROUNDS = 20;
+
+  /**
+   * Main method.
+   *
+   * @param args [size] [batch size]
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int batch = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+    Random random = new Random(42);
+
+    SkipList skipList = new SkipList();
+    for (int i = 0; i < size; i++) {
+      skipList.insert(random.nextInt(size * 2));
+    }
+    int[] probes = new int[batch];
+    for (int i = 0; i < batch; i++) {
+      probes[i] = random.nextInt(size * 2);
+    }
+
+    long loopTime = 0;
+    long batchTime = 0;
+    int found = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int key : probes) {
+        if (skipList.search(key) != null) {
+          found++;
+        }
+      }
+      loopTime += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (SkipList.Node node : skipList.searchAll(probes)) {
+        if (node != null) {
+          found--;
+        }
+      }
+      batchTime += System.nanoTime() - start;
+    }
+    if (found != 0) {
+      throw new IllegalStateException("searchAll disagrees with search");
+    }
+
+    long lookups = (long) ROUNDS * batch;
+    System.out.println("size = " + size + ", batch = " + batch);
+    System.out.println("search loop: " + lookups * 1_000_000_000L / loopTime + " ops/s");
+    System.out.println("searchAll:   " + lookups * 1_000_000_000L / batchTime + " ops/s");
+  }
+}
@@ -0,0 +1,100 @@
+package trace;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets: values below 16 get
+ * a bucket each, every power of two above is split into 16 buckets, so a recorded
+ * value is off by less than 1/16. Recording is an array increment.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+
+  private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_COUNT];
+  private long count;
+  private long total;
+  private long max;
+
+  //bucket of value, contiguous in value order
+  private static int bucket(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+  }
+
+  //biggest value of a bucket
+  private static long highest(int bucket) {
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    int shift = bucket / SUB_COUNT - 1;
+    long sub = bucket % SUB_COUNT + SUB_COUNT;
+    return ((sub + 1) << shift) - 1;
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos latency, negative values count as 0
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts[bucket(nanos)]++;
+    count++;
+    total += nanos;
+    if (nanos > max) {
+      max = nanos;
+    }
+  }
+
+  /**
+   * Add all latencies of other.
+   *
+   * @param other another histogram
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    total += other.total;
+    max = Math.max(max, other.max);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return count == 0 ? 0 : (double) total / count;
+  }
+
+  /**
+   * Get a percentile, as the upper end of the bucket where it falls.
+   *
+   * @param percentile from 0 to 100
+   * @return latency in nanoseconds, 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highest(i), max);
+      }
+    }
+    return max;
+  }
+}
@@ -0,0 +1,102 @@
+package trace;
+
+/**
+ * Operation of a trace, one per command of the interactive mains. Commands that
+ * print a whole structure ("listAll", "sort", "print") are LIST_ALL.
+ * The code is the opcode in the binary trace format, 0 is reserved for word
+ * definitions.
+ */
+public enum Operation {
+  INSERT(1, "insert", true, true),
+  DELETE(2, "delete", true, false),
+  SEARCH(3, "search", true, false),
+  INCREASE(4, "increase", true, false),
+  LIST_ALL(5, "listAll", false, false),
+  MINIMUM(6, "minimum", false, false),
+  MAXIMUM(7, "maximum", false, false),
+  EXTRACT_MIN(8, "extractMin", false, false),
+  DECREASE_KEY(9, "decreaseKey", true, true),
+  SUCCESSOR(10, "successor", true, false),
+  PREDECESSOR(11, "predecessor", true, false),
+  RANK(12, "rank", true, false),
+  SELECT(13, "select", true, false),
+  RANGE(14, "range", true, true);
+
+  private static final Operation[] BY_CODE = new Operation[16];
+
+  static {
+    for (Operation op : values()) {
+      BY_CODE[op.code] = op;
+    }
+  }
+
+  private final int code;
+  private final String command;
+  private final boolean keyed;
+  private final boolean withArg;
+
+  Operation(int code, String command, boolean keyed, boolean withArg) {
+    this.code = code;
+    this.command = command;
+    this.keyed = keyed;
+    this.withArg = withArg;
+  }
+
+  public int getCode() {
+    return code;
+  }
+
+  public String getCommand() {
+    return command;
+  }
+
+  /**
+   * Check if the operation has a key.
+   *
+   * @return true if a key follows the opcode
+   */
+  public boolean isKeyed() {
+    return keyed;
+  }
+
+  /**
+   * Check if the operation has a second operand: the data of an insert into a
+   * HashTable, the new key of decreaseKey, the upper bound of range.
+   *
+   * @return true if an int follows the key
+   */
+  public boolean hasArg() {
+    return withArg;
+  }
+
+  /**
+   * Get the operation of an opcode.
+   *
+   * @param code opcode
+   * @return operation, null if code isn't an operation
+   */
+  public static Operation ofCode(int code) {
+    return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+  }
+
+  /**
+   * Get the operation of a command of the interactive mains.
+   *
+   * @param command command name
+   * @return operation, null if command isn't known
+   */
+  public static Operation ofCommand(String command) {
+    switch (command) {
+      case "sort":
+      case "print":
+        return LIST_ALL;
+      default:
+        for (Operation op : values()) {
+          if (op.command.equals(command)) {
+            return op;
+          }
+        }
+        return null;
+    }
+  }
+}
@@ -0,0 +1,279 @@
+package trace;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Replay traces against a structure without console I/O and report a latency
+ * histogram per operation. Every round replays the whole trace on a new structure,
+ * only the last round is reported, the earlier ones warm up the JIT. Latencies
+ * include one System.nanoTime call, about 20 ns.
+ * Traces come from a TraceRecorder, from command scripts of the interactive mains,
+ * or from the synthetic generator.
+ */
+public class ReplayDriver {
+
+  /**
+   * Outcome of one replay.
+   */
+  public static final class Result {
+    private final LatencyHistogram[] histograms =
+            new LatencyHistogram[Operation.values().length];
+    private final long[] skipped = new long[Operation.values().length];
+    private long nanos;
+    private long checksum;
+
+    private Result() {
+      for (int i = 0; i < histograms.length; i++) {
+        histograms[i] = new LatencyHistogram();
+      }
+    }
+
+    public LatencyHistogram getHistogram(Operation op) {
+      return histograms[op.ordinal()];
+    }
+
+    /**
+     * Get the number of records of an operation the structure doesn't support.
+     *
+     * @param op operation
+     * @return skipped records
+     */
+    public long getSkipped(Operation op) {
+      return skipped[op.ordinal()];
+    }
+
+    /**
+     * Get the wall time of the replay, including the latency measurement.
+     *
+     * @return nanoseconds
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    public long getChecksum() {
+      return checksum;
+    }
+
+    /**
+     * Print a table of count, mean and percentiles in ns per operation.
+     */
+    public void print() {
+      long replayed = 0;
+      System.out.printf("%-12s %10s %9s %8s %8s %8s %8s %10s%n", "operation", "count",
+              "mean", "p50", "p90", "p99", "p99.9", "max");
+      for (Operation op : Operation.values()) {
+        LatencyHistogram h = histograms[op.ordinal()];
+        replayed += h.getCount();
+        if (h.getCount() > 0) {
+          System.out.printf("%-12s %10d %9.1f %8d %8d %8d %8d %10d%n", op.getCommand(),
+                  h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                  h.getPercentile(99), h.getPercentile(99.9), h.getMax());
+        }
+        if (skipped[op.ordinal()] > 0) {
+          System.out.println(op.getCommand() + ": " + skipped[op.ordinal()]
+                  + " records skipped, not supported");
+        }
+      }
+      System.out.printf("%d operations in %d ms, %.0f ops/s, checksum = %d%n", replayed,
+              nanos / 1_000_000, replayed * 1e9 / Math.max(nanos, 1), checksum);
+    }
+  }
+
+  /**
+   * Replay a trace against a new structure.
+   *
+   * @param trace     trace
+   * @param structure structure
+   * @return latencies of the replay
+   */
+  public static Result replay(Trace trace, Structure structure) {
+    ReplayTarget target = structure.newTarget();
+    target.prepare(trace);
+    Result result = new Result();
+    LatencyHistogram[] histograms = result.histograms;
+    long checksum = 0;
+    long start = System.nanoTime();
+    long before = start;
+    for (int i = 0; i < trace.size(); i++) {
+      Operation op = trace.op(i);
+      if (!target.supports(op)) {
+        result.skipped[op.ordinal()]++;
+        //don't charge the skipped record to the next operation
+        before = System.nanoTime();
+        continue;
+      }
+      checksum += target.apply(trace, i);
+      long after = System.nanoTime();
+      histograms[op.ordinal()].record(after - before);
+      before = after;
+    }
+    result.nanos = System.nanoTime() - start;
+    result.checksum = checksum;
+    return result;
+  }
+
+  /**
+   * Convert a command script in the syntax of a structure's interactive main into a
+   * trace, "q" or the end of the script stops. Unknown commands are skipped like the
+   * mains do.
+   *
+   * @param structure structure whose syntax the script uses
+   * @param script    commands, UTF-8
+   * @param out       trace
+   * @return records written
+   */
+  public static long convert(Structure structure, InputStream script, OutputStream out) {
+    boolean words = structure == Structure.HASHTABLE;
+    try (TraceRecorder recorder = new TraceRecorder(out, words)) {
+      Scanner sc = new Scanner(script, StandardCharsets.UTF_8);
+      while (sc.hasNext()) {
+        String command = sc.next();
+        if (command.equals("q")) {
+          break;
+        }
+        Operation op = Operation.ofCommand(command);
+        if (op == null) {
+          continue;
+        }
+        String key = op.isKeyed() ? sc.next() : null;
+        int arg = structure.hasArg(op) ? Integer.parseInt(sc.next()) : 0;
+        if (words && op.isKeyed()) {
+          recorder.record(op, key, arg);
+        } else {
+          recorder.record(op, key == null ? 0 : Integer.parseInt(key), arg);
+        }
+      }
+      return recorder.getRecords();
+    }
+  }
+
+  /**
+   * Write a synthetic trace with an operation mix typical of a structure.
+   *
+   * @param structure  structure
+   * @param out        trace
+   * @param operations number of records
+   * @param keyRange   keys are drawn from 0 to keyRange - 1
+   * @param seed       seed
+   */
+  public static void generate(Structure structure, OutputStream out, int operations,
+                              int keyRange, long seed) {
+    Random random = new Random(seed);
+    //recently inserted keys, so heap deletes and decreaseKeys mostly hit
+    int[] recent = new int[1024];
+    int inserted = 0;
+    try (TraceRecorder recorder = new TraceRecorder(out, structure == Structure.HASHTABLE)) {
+      for (int i = 0; i < operations; i++) {
+        int key = random.nextInt(keyRange);
+        int p = random.nextInt(100);
+        switch (structure) {
+          case HASHTABLE: {
+            //squaring skews the words toward small ids, like word frequencies
+            String word = "w" + (int) ((long) key * key / keyRange);
+            Operation op = p < 40 ? Operation.INCREASE : p < 70 ? Operation.SEARCH
+                    : p < 90 ? Operation.INSERT : Operation.DELETE;
+            recorder.record(op, word, 1);
+            break;
+          }
+          case SKIPLIST:
+            recorder.record(p < 50 ? Operation.SEARCH : p < 75 ? Operation.INSERT
+                    : Operation.DELETE, key);
+            break;
+          case RBTREE:
+            if (p < 5) {
+              recorder.record(Operation.RANGE, key, key + Math.max(keyRange / 1000, 1));
+            } else {
+              recorder.record(p < 45 ? Operation.SEARCH : p < 65 ? Operation.INSERT
+                      : p < 80 ? Operation.DELETE : p < 85 ? Operation.SUCCESSOR
+                      : p < 90 ? Operation.PREDECESSOR : p < 95 ? Operation.RANK
+                      : Operation.SELECT, p >= 95 ? random.nextInt(Math.max(i, 1)) : key);
+            }
+            break;
+          default:
+            if (p < 45 || inserted == 0) {
+              recorder.record(Operation.INSERT, key);
+              recent[inserted++ & (recent.length - 1)] = key;
+            } else if (p < 85) {
+              recorder.record(Operation.EXTRACT_MIN, 0);
+            } else if (p < 90) {
+              recorder.record(Operation.MINIMUM, 0);
+            } else {
+              int old = recent[random.nextInt(Math.min(inserted, recent.length))];
+              if (p < 95) {
+                recorder.record(Operation.DECREASE_KEY, old, old - 1 - random.nextInt(16));
+              } else {
+                recorder.record(Operation.DELETE, old);
+              }
+            }
+            break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args replay trace structure [rounds]
+   *             | convert structure script trace
+   *             | generate structure trace operations [key range]
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.out.println("usage: ReplayDriver replay <trace> <structure> [rounds]");
+      System.out.println("       ReplayDriver convert <structure> <script> <trace>");
+      System.out.println("       ReplayDriver generate <structure> <trace> <operations>"
+              + " [key range]");
+      System.out.println("structures: hashtable, skiplist, rbtree, binomialheap");
+      return;
+    }
+    switch (args[0]) {
+      case "replay": {
+        Trace trace = Trace.read(Paths.get(args[1]));
+        Structure structure = Structure.valueOf(args[2].toUpperCase());
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        if (rounds < 1) {
+          throw new IllegalArgumentException("rounds must be at least 1: " + rounds);
+        }
+        Result result = null;
+        for (int round = 0; round < rounds; round++) {
+          result = replay(trace, structure);
+        }
+        System.out.println(trace.size() + " records, " + structure + ", round " + rounds);
+        result.print();
+        break;
+      }
+      case "convert": {
+        Structure structure = Structure.valueOf(args[1].toUpperCase());
+        try (InputStream in = Files.newInputStream(Paths.get(args[2]));
+             OutputStream out = Files.newOutputStream(Paths.get(args[3]))) {
+          System.out.println(convert(structure, in, out) + " records");
+        }
+        break;
+      }
+      case "generate": {
+        Structure structure = Structure.valueOf(args[1].toUpperCase());
+        int operations = Integer.parseInt(args[3]);
+        int keyRange = args.length > 4 ? Integer.parseInt(args[4]) : 1_000_000;
+        Path path = Paths.get(args[2]);
+        try (OutputStream out = Files.newOutputStream(path)) {
+          generate(structure, out, operations, keyRange, 42);
+        }
+        System.out.println(operations + " records, " + Files.size(path) + " bytes");
+        break;
+      }
+      default:
+        System.out.println("Unknown command " + args[0]);
+        break;
+    }
+  }
+}
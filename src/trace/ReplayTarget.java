@@ -0,0 +1,31 @@
+package trace;
+
+/**
+ * Structure a trace is replayed against.
+ */
+public interface ReplayTarget {
+
+  /**
+   * Check if an operation can be replayed, others are skipped and counted.
+   *
+   * @param op operation
+   * @return true if apply handles op
+   */
+  boolean supports(Operation op);
+
+  /**
+   * Prepare for a trace before the timed replay, e.g. precompute keys.
+   *
+   * @param trace trace
+   */
+  void prepare(Trace trace);
+
+  /**
+   * Apply record i of the prepared trace.
+   *
+   * @param trace trace
+   * @param i     record of a supported operation
+   * @return value derived from the result, summed so the work isn't optimized away
+   */
+  long apply(Trace trace, int i);
+}
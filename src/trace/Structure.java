@@ -0,0 +1,315 @@
+package trace;
+
+import binomialheap.BinomialHeap;
+import hashtable.HashTable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import rbtree.RBTree;
+import skiplist.SkipList;
+
+/**
+ * Structures a trace can be replayed against, with the syntax of their interactive
+ * mains. Commands that only print (listAll of SkipList, print of BinomialHeap) are
+ * not supported, replay does no console I/O. Int structures replaying a word trace
+ * use the word ids as keys, HashTable replaying an int trace uses decimal keys.
+ */
+public enum Structure {
+  HASHTABLE {
+    @Override
+    public ReplayTarget newTarget() {
+      return new HashTableTarget();
+    }
+  },
+  SKIPLIST {
+    @Override
+    public ReplayTarget newTarget() {
+      return new SkipListTarget();
+    }
+  },
+  RBTREE {
+    @Override
+    public ReplayTarget newTarget() {
+      return new RBTreeTarget();
+    }
+  },
+  BINOMIALHEAP {
+    @Override
+    public ReplayTarget newTarget() {
+      return new BinomialHeapTarget();
+    }
+  };
+
+  /**
+   * Create an empty structure to replay a trace against.
+   *
+   * @return target
+   */
+  public abstract ReplayTarget newTarget();
+
+  /**
+   * Check if a command of the interactive main has a second operand, only a HashTable
+   * insert has data.
+   *
+   * @param op operation
+   * @return true if the command line has a second operand
+   */
+  public boolean hasArg(Operation op) {
+    return op == Operation.INSERT ? this == HASHTABLE : op.hasArg();
+  }
+
+  private static final class HashTableTarget implements ReplayTarget {
+    private final HashTable table = new HashTable();
+    //key of every record, decoded once before the replay
+    private String[] words;
+
+    @Override
+    public boolean supports(Operation op) {
+      switch (op) {
+        case INSERT:
+        case DELETE:
+        case SEARCH:
+        case INCREASE:
+        case LIST_ALL:
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    @Override
+    public void prepare(Trace trace) {
+      words = new String[trace.size()];
+      //one String per distinct key, like the words of a real stream
+      Map<Integer, String> distinct = new HashMap<Integer, String>();
+      for (int i = 0; i < words.length; i++) {
+        if (trace.op(i).isKeyed()) {
+          String word = distinct.get(trace.key(i));
+          if (word == null) {
+            word = trace.word(i);
+            distinct.put(trace.key(i), word);
+          }
+          words[i] = word;
+        }
+      }
+    }
+
+    @Override
+    public long apply(Trace trace, int i) {
+      switch (trace.op(i)) {
+        case INSERT:
+          table.insert(words[i], trace.arg(i));
+          return 1;
+        case DELETE:
+          return table.delete(words[i]) ? 1 : 0;
+        case SEARCH:
+          return table.find(words[i]) == null ? 0 : 1;
+        case INCREASE:
+          table.increase(words[i]);
+          return 1;
+        default:
+          return table.listAllKeys().size();
+      }
+    }
+  }
+
+  private static final class SkipListTarget implements ReplayTarget {
+    private final SkipList list = new SkipList();
+
+    @Override
+    public boolean supports(Operation op) {
+      return op == Operation.INSERT || op == Operation.DELETE || op == Operation.SEARCH;
+    }
+
+    @Override
+    public void prepare(Trace trace) {
+    }
+
+    @Override
+    public long apply(Trace trace, int i) {
+      switch (trace.op(i)) {
+        case INSERT:
+          return list.insert(trace.key(i)) ? 1 : 0;
+        case DELETE:
+          return list.delete(trace.key(i)) ? 1 : 0;
+        default:
+          return list.search(trace.key(i)) == null ? 0 : 1;
+      }
+    }
+  }
+
+  private static final class RBTreeTarget implements ReplayTarget {
+    private final RBTree<Integer> tree = new RBTree<Integer>();
+    //boxed key of every record, boxed once before the replay
+    private Integer[] keys;
+
+    @Override
+    public boolean supports(Operation op) {
+      switch (op) {
+        case INSERT:
+        case DELETE:
+        case SEARCH:
+        case LIST_ALL:
+        case MINIMUM:
+        case MAXIMUM:
+        case SUCCESSOR:
+        case PREDECESSOR:
+        case RANK:
+        case SELECT:
+        case RANGE:
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    @Override
+    public void prepare(Trace trace) {
+      keys = new Integer[trace.size()];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = trace.key(i);
+      }
+    }
+
+    @Override
+    public long apply(Trace trace, int i) {
+      Integer key = keys[i];
+      switch (trace.op(i)) {
+        case INSERT:
+          tree.insert(new RBTree.RBTNode<Integer>(key, false, null, null, null));
+          return 1;
+        case DELETE: {
+          RBTree.RBTNode<Integer> node = tree.search(tree.getRoot(), key);
+          if (node == null) {
+            return 0;
+          }
+          tree.delete(node);
+          return 1;
+        }
+        case SEARCH:
+          return tree.search(tree.getRoot(), key) == null ? 0 : 1;
+        case MINIMUM:
+          return tree.getRoot() == null || tree.minimum(tree.getRoot()) == null ? 0 : 1;
+        case MAXIMUM:
+          return tree.getRoot() == null || tree.maximum(tree.getRoot()) == null ? 0 : 1;
+        case SUCCESSOR:
+          return tree.successor(key) == null ? 0 : 1;
+        case PREDECESSOR:
+          return tree.predecessor(key) == null ? 0 : 1;
+        case RANK:
+          return tree.rank(key);
+        case SELECT:
+          return tree.select(key) == null ? 0 : 1;
+        case RANGE:
+          return walk(tree.range(key, trace.arg(i)));
+        default:
+          return walk(tree.iterator());
+      }
+    }
+
+    private static long walk(Iterator<Integer> keys) {
+      long sum = 0;
+      while (keys.hasNext()) {
+        sum += keys.next();
+      }
+      return sum;
+    }
+  }
+
+  /**
+   * Delete and decreaseKey of the main find their key by walking the heap and print
+   * on a miss. The replay keeps the handles of inserted keys instead, indexed by key,
+   * but only if the trace uses them.
+   */
+  private static final class BinomialHeapTarget implements ReplayTarget {
+    private final BinomialHeap heap = new BinomialHeap();
+    private Map<Integer, ArrayDeque<BinomialHeap.Handle>> handles;
+
+    @Override
+    public boolean supports(Operation op) {
+      switch (op) {
+        case INSERT:
+        case DELETE:
+        case MINIMUM:
+        case EXTRACT_MIN:
+        case DECREASE_KEY:
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    @Override
+    public void prepare(Trace trace) {
+      if (trace.contains(Operation.DELETE) || trace.contains(Operation.DECREASE_KEY)) {
+        handles = new HashMap<Integer, ArrayDeque<BinomialHeap.Handle>>();
+      }
+    }
+
+    private void index(BinomialHeap.Handle handle) {
+      if (handles != null) {
+        handles.computeIfAbsent(handle.getKey(), key -> new ArrayDeque<BinomialHeap.Handle>())
+                .add(handle);
+      }
+    }
+
+    //remove a handle of key from the index, null if the key isn't in the heap
+    private BinomialHeap.Handle unindex(int key, BinomialHeap.Handle handle) {
+      if (handles == null) {
+        return handle;
+      }
+      ArrayDeque<BinomialHeap.Handle> deque = handles.get(key);
+      if (deque == null) {
+        return null;
+      }
+      if (handle == null) {
+        handle = deque.poll();
+      } else {
+        deque.remove(handle);
+      }
+      if (deque.isEmpty()) {
+        handles.remove(key);
+      }
+      return handle;
+    }
+
+    @Override
+    public long apply(Trace trace, int i) {
+      BinomialHeap.Handle handle;
+      switch (trace.op(i)) {
+        case INSERT:
+          index(heap.insert(trace.key(i)));
+          return 1;
+        case MINIMUM:
+          handle = heap.minimum();
+          return handle == null ? 0 : handle.getKey();
+        case EXTRACT_MIN:
+          handle = heap.extractMin();
+          if (handle == null) {
+            return 0;
+          }
+          unindex(handle.getKey(), handle);
+          return handle.getKey();
+        case DELETE:
+          handle = unindex(trace.key(i), null);
+          if (handle == null) {
+            return 0;
+          }
+          heap.delete(handle);
+          return 1;
+        default:
+          if (trace.arg(i) >= trace.key(i)) {
+            return 0;
+          }
+          handle = unindex(trace.key(i), null);
+          if (handle == null) {
+            return 0;
+          }
+          heap.decreaseKey(handle, trace.arg(i));
+          index(handle);
+          return 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trace decoded into columns, so a replay reads arrays instead of parsing.
+ * Keys of a word-keyed trace are ids into the word dictionary.
+ */
+public class Trace {
+
+  private final boolean wordKeyed;
+  private final String[] words;
+  private final byte[] ops;
+  private final int[] keys;
+  private final int[] args;
+  private final int size;
+
+  private Trace(boolean wordKeyed, String[] words, byte[] ops, int[] keys, int[] args,
+                int size) {
+    this.wordKeyed = wordKeyed;
+    this.words = words;
+    this.ops = ops;
+    this.keys = keys;
+    this.args = args;
+    this.size = size;
+  }
+
+  /**
+   * Read a trace written by TraceRecorder.
+   *
+   * @param path trace file
+   * @return trace
+   * @throws IOException if the file can't be read or isn't a trace
+   */
+  public static Trace read(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      return read(in);
+    }
+  }
+
+  /**
+   * Read a trace written by TraceRecorder.
+   *
+   * @param stream trace, not closed
+   * @return trace
+   * @throws IOException if the stream can't be read or isn't a trace
+   */
+  public static Trace read(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+    if (in.readInt() != TraceRecorder.MAGIC) {
+      throw new IOException("Not a trace");
+    }
+    int version = in.readUnsignedByte();
+    if (version != TraceRecorder.VERSION) {
+      throw new IOException("Unsupported trace version " + version);
+    }
+    boolean wordKeyed = (in.readUnsignedByte() & TraceRecorder.WORD_KEYS) != 0;
+    List<String> words = new ArrayList<String>();
+    byte[] ops = new byte[1024];
+    int[] keys = new int[1024];
+    int[] args = new int[1024];
+    int size = 0;
+    int code;
+    while ((code = in.read()) >= 0) {
+      if (code == TraceRecorder.DEFINE_WORD) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        words.add(new String(bytes, StandardCharsets.UTF_8));
+        continue;
+      }
+      Operation op = Operation.ofCode(code);
+      if (op == null) {
+        throw new IOException("Unknown opcode " + code + " after record " + size);
+      }
+      if (size == ops.length) {
+        ops = Arrays.copyOf(ops, size * 2);
+        keys = Arrays.copyOf(keys, size * 2);
+        args = Arrays.copyOf(args, size * 2);
+      }
+      ops[size] = (byte) code;
+      if (op.isKeyed()) {
+        int zigzag = readVarint(in);
+        keys[size] = (zigzag >>> 1) ^ -(zigzag & 1);
+        if (wordKeyed && (keys[size] < 0 || keys[size] >= words.size())) {
+          throw new IOException("Undefined word " + keys[size] + " in record " + size);
+        }
+      }
+      if (op.hasArg()) {
+        int zigzag = readVarint(in);
+        args[size] = (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+      size++;
+    }
+    return new Trace(wordKeyed, words.toArray(new String[0]), ops, keys, args, size);
+  }
+
+  private static int readVarint(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("Trace ends inside a record");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  public boolean isWordKeyed() {
+    return wordKeyed;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Operation op(int i) {
+    return Operation.ofCode(ops[i]);
+  }
+
+  /**
+   * Get the key of record i.
+   *
+   * @param i record
+   * @return key, the word id in a word-keyed trace, 0 if the operation isn't keyed
+   */
+  public int key(int i) {
+    return keys[i];
+  }
+
+  public int arg(int i) {
+    return args[i];
+  }
+
+  /**
+   * Get the word of record i.
+   *
+   * @param i record of a keyed operation
+   * @return word of the key, the decimal key in an int-keyed trace
+   */
+  public String word(int i) {
+    return wordKeyed ? words[keys[i]] : Integer.toString(keys[i]);
+  }
+
+  /**
+   * Check if the trace contains an operation.
+   *
+   * @param op operation
+   * @return true if some record is op
+   */
+  public boolean contains(Operation op) {
+    for (int i = 0; i < size; i++) {
+      if (ops[i] == op.getCode()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,155 @@
+package trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recorder of an operation stream in the binary trace format:
+ * header: magic "DSTR" (int), version (byte), flags (byte, bit 0 set for word keys)
+ * record: opcode (byte), key (zigzag varint) if the operation is keyed, arg (zigzag
+ * varint) if it has one
+ * Word traces key records by dictionary ids: a word is defined once by opcode 0
+ * with its UTF-8 length (varint) and bytes, and gets the next id.
+ * Records are buffered, recording methods are synchronized so threads can share a
+ * recorder. I/O errors are thrown as UncheckedIOException.
+ */
+public class TraceRecorder implements AutoCloseable {
+
+  static final int MAGIC = 0x44535452;
+  static final int VERSION = 1;
+  static final int WORD_KEYS = 1;
+  static final int DEFINE_WORD = 0;
+
+  private final DataOutputStream out;
+  private final boolean wordKeyed;
+  //ids of defined words
+  private final Map<String, Integer> wordIds = new HashMap<String, Integer>();
+  private long records;
+
+  /**
+   * TraceRecorder constructor, writes the header.
+   *
+   * @param out       stream of the trace, closed by close
+   * @param wordKeyed keys are words, for HashTable streams
+   */
+  public TraceRecorder(OutputStream out, boolean wordKeyed) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    this.wordKeyed = wordKeyed;
+    try {
+      this.out.writeInt(MAGIC);
+      this.out.writeByte(VERSION);
+      this.out.writeByte(wordKeyed ? WORD_KEYS : 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public boolean isWordKeyed() {
+    return wordKeyed;
+  }
+
+  public synchronized long getRecords() {
+    return records;
+  }
+
+  /**
+   * Record an operation without operands, or with key only.
+   *
+   * @param op  operation
+   * @param key key, ignored if op isn't keyed
+   */
+  public void record(Operation op, int key) {
+    record(op, key, 0);
+  }
+
+  /**
+   * Record an operation of an int-keyed trace.
+   *
+   * @param op  operation
+   * @param key key, ignored if op isn't keyed
+   * @param arg second operand, ignored if op has none
+   */
+  public synchronized void record(Operation op, int key, int arg) {
+    if (wordKeyed && op.isKeyed()) {
+      throw new IllegalStateException("Trace is keyed by words");
+    }
+    write(op, key, arg);
+  }
+
+  /**
+   * Record an operation of a word-keyed trace.
+   *
+   * @param op   operation
+   * @param word key
+   * @param arg  second operand, ignored if op has none
+   */
+  public synchronized void record(Operation op, String word, int arg) {
+    if (!wordKeyed) {
+      throw new IllegalStateException("Trace is keyed by ints");
+    }
+    Integer id = wordIds.get(word);
+    try {
+      if (id == null) {
+        id = wordIds.size();
+        wordIds.put(word, id);
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(DEFINE_WORD);
+        writeVarint(bytes.length);
+        out.write(bytes);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    write(op, id, arg);
+  }
+
+  private void write(Operation op, int key, int arg) {
+    try {
+      out.writeByte(op.getCode());
+      if (op.isKeyed()) {
+        writeVarint((key << 1) ^ (key >> 31));
+      }
+      if (op.hasArg()) {
+        writeVarint((arg << 1) ^ (arg >> 31));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    records++;
+  }
+
+  //7 bits per byte, high bit set on all but the last
+  private void writeVarint(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Flush buffered records to the stream.
+   */
+  public synchronized void flush() {
+    try {
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      out.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}